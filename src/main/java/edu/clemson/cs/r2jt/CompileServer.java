@@ -0,0 +1,389 @@
+/**
+ * CompileServer.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import edu.clemson.cs.r2jt.utilities.ThreadOutput;
+
+/**
+ * <p>A <code>CompileServer</code> keeps a single, warm compiler process
+ * running and compiles on behalf of clients--the web interface back end or an
+ * editor integration--so that each compilation pays neither for JVM start up
+ * and JIT warm up nor for reloading anything the compiler caches for the life
+ * of the process: parsed library modules, translation templates, the compiled
+ * Java standard library, and so on.</p>
+ *
+ * <p>The server reads requests either from standard input or, given
+ * <code>-port &lt;n&gt;</code>, from any number of connections to that port on
+ * the loopback interface.  Each request is a single line of tab-separated
+ * fields:</p>
+ *
+ * <pre>&lt;id&gt; TAB &lt;working directory&gt; TAB &lt;argument&gt; TAB ...</pre>
+ *
+ * <p>where the arguments are exactly those that would be given on the command
+ * line (<code>-VCs</code>, <code>-javaTranslate</code>, a file name...), and
+ * relative file names and the search for the main directory both start from
+ * the given working directory.  Each request is compiled with its own
+ * <code>CompileEnvironment</code>, and everything it prints to standard
+ * output or standard error is captured and sent back as a single
+ * response:</p>
+ *
+ * <pre>&lt;id&gt; TAB &lt;line count&gt;
+ * &lt;line&gt;
+ * ...</pre>
+ *
+ * <p>Responses are written whole, but not necessarily in the order requests
+ * were received, since up to <code>-threads &lt;n&gt;</code> requests (one by
+ * default) are compiled at once.</p>
+ *
+ * <p>Output is attributed to a request by the thread that prints it, as
+ * recorded by {@link ThreadOutput ThreadOutput}, so work the compiler hands
+ * off to threads of its own must be wrapped with one of its
+ * <code>inheritOutput()</code> methods.
+ * Anything printed to <code>System.out</code> that can't be attributed to a
+ * request goes to standard error instead, so that it can't corrupt the
+ * responses when they are written to standard output.</p>
+ */
+public class CompileServer {
+
+    /**
+     * <p>The streams <code>System.out</code> and <code>System.err</code>
+     * pointed to before the server replaced them.</p>
+     */
+    private static final PrintStream ORIGINAL_OUT = System.out;
+    private static final PrintStream ORIGINAL_ERR = System.err;
+
+    /**
+     * <p>The number of servers that haven't been shut down.  Output is
+     * routed for as long as any are running.</p>
+     */
+    private static int theRunningServerCount = 0;
+
+    private final ExecutorService myWorkers;
+
+    private boolean myShutDownFlag = false;
+
+    /**
+     * <p>Creates a server that compiles up to <code>threads</code> requests
+     * at once.  From then on, until every server has been
+     * {@link #shutdown() shut down}, output to <code>System.out</code> and
+     * <code>System.err</code> is routed to whatever request the printing
+     * thread is compiling, and otherwise to standard error.</p>
+     */
+    public CompileServer(int threads) {
+        routeOutput();
+        myWorkers = Executors.newFixedThreadPool(threads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = -1;
+        int threads = 1;
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-port") && i + 1 < args.length) {
+                i++;
+                port = Integer.parseInt(args[i]);
+            }
+            else if (args[i].equals("-threads") && i + 1 < args.length) {
+                i++;
+                threads = Integer.parseInt(args[i]);
+            }
+            else {
+                ORIGINAL_ERR.println("Usage: java -cp RESOLVE.jar "
+                        + CompileServer.class.getName()
+                        + " [-port <n>] [-threads <n>]");
+                return;
+            }
+        }
+
+        CompileServer server = new CompileServer(threads);
+        if (port == -1) {
+            server.serve(System.in, ORIGINAL_OUT);
+            server.shutdown();
+        }
+        else {
+            server.listen(port);
+        }
+    }
+
+    /**
+     * <p>Accepts connections on <code>port</code> of the loopback interface
+     * until the process is killed, serving the requests on each.</p>
+     */
+    public void listen(int port) throws IOException {
+        ServerSocket serverSocket =
+                new ServerSocket(port, 0, InetAddress.getByName(null));
+        ORIGINAL_OUT.println("RESOLVE compile server listening on port "
+                + serverSocket.getLocalPort() + ".");
+
+        while (true) {
+            final Socket socket = serverSocket.accept();
+
+            Thread connection = new Thread(new Runnable() {
+
+                public void run() {
+                    try {
+                        serve(socket.getInputStream(), socket.getOutputStream());
+                    }
+                    catch (IOException ioe) {
+                        //The client went away
+                    }
+                    finally {
+                        try {
+                            socket.close();
+                        }
+                        catch (IOException ioe) {}
+                    }
+                }
+            }, "Compile server connection");
+            connection.setDaemon(true);
+            connection.start();
+        }
+    }
+
+    /**
+     * <p>Serves each request read from <code>in</code> until it is
+     * exhausted, writing the responses to <code>out</code>.  Returns once
+     * every request has been answered.</p>
+     */
+    public void serve(InputStream in, OutputStream out) throws IOException {
+
+        BufferedReader requests =
+                new BufferedReader(new InputStreamReader(in, "UTF-8"));
+        final PrintWriter responses =
+                new PrintWriter(new OutputStreamWriter(out, "UTF-8"));
+
+        final Object done = new Object();
+        final int[] outstanding = { 0 };
+
+        String request;
+        while ((request = requests.readLine()) != null) {
+            if (request.trim().length() == 0) {
+                continue;
+            }
+
+            synchronized (done) {
+                outstanding[0]++;
+            }
+
+            final String finalRequest = request;
+            myWorkers.submit(new Runnable() {
+
+                public void run() {
+                    try {
+                        respond(finalRequest, responses);
+                    }
+                    finally {
+                        synchronized (done) {
+                            outstanding[0]--;
+                            done.notifyAll();
+                        }
+                    }
+                }
+            });
+        }
+
+        synchronized (done) {
+            while (outstanding[0] > 0) {
+                try {
+                    done.wait();
+                }
+                catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Stops this server's worker threads once any requests in progress are
+     * done.  If this was the last server running, <code>System.out</code> and
+     * <code>System.err</code> are put back the way they were.  Shutting down
+     * a server more than once has no further effect.</p>
+     */
+    public void shutdown() {
+        boolean stopRouting = false;
+
+        synchronized (CompileServer.class) {
+            if (!myShutDownFlag) {
+                myShutDownFlag = true;
+                theRunningServerCount--;
+                stopRouting = (theRunningServerCount == 0);
+            }
+        }
+
+        myWorkers.shutdown();
+
+        if (stopRouting) {
+            unrouteOutput();
+        }
+    }
+
+    private void respond(String request, Writer responses) {
+        String[] fields = request.split("\t");
+        String id = fields[0];
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        if (fields.length < 2) {
+            new PrintStream(output, true).println("Malformed request.  "
+                    + "Expected <id> TAB <working directory> TAB <args>.");
+        }
+        else {
+            compile(new File(fields[1]), Arrays.copyOfRange(fields, 2,
+                    fields.length), output);
+        }
+
+        String[] lines;
+        try {
+            String text = output.toString("UTF-8");
+            lines = (text.length() == 0) ? new String[0] : text.split("\r?\n");
+        }
+        catch (UnsupportedEncodingException uee) {
+            //Every Java platform is required to support UTF-8
+            throw new RuntimeException(uee);
+        }
+
+        synchronized (responses) {
+            try {
+                responses.write(id + "\t" + lines.length + "\n");
+                for (String line : lines) {
+                    responses.write(line);
+                    responses.write("\n");
+                }
+                responses.flush();
+            }
+            catch (IOException ioe) {
+                //The client went away
+            }
+        }
+    }
+
+    /**
+     * <p>Replaces <code>System.out</code> and <code>System.err</code> with
+     * streams that route each thread's output to the request it is compiling,
+     * if any, and otherwise to standard error.  This must happen before
+     * anything else reads <code>System.out</code> or <code>System.err</code>,
+     * since some of the compiler holds on to them.</p>
+     */
+    private static synchronized void routeOutput() {
+        theRunningServerCount++;
+
+        if (!(System.out instanceof RoutingPrintStream)) {
+            System.setOut(new RoutingPrintStream(ORIGINAL_ERR));
+            System.setErr(new RoutingPrintStream(ORIGINAL_ERR));
+        }
+    }
+
+    /**
+     * <p>Puts back the <code>System.out</code> and <code>System.err</code>
+     * that {@link #routeOutput()} replaced, unless another server has
+     * started routing output again in the meantime.</p>
+     */
+    private static synchronized void unrouteOutput() {
+        if (theRunningServerCount == 0) {
+            System.out.flush();
+            System.err.flush();
+            System.setOut(ORIGINAL_OUT);
+            System.setErr(ORIGINAL_ERR);
+        }
+    }
+
+    /**
+     * <p>Compiles with the given command line arguments as if from
+     * <code>workingDir</code>, capturing everything printed by this thread in
+     * <code>output</code>.</p>
+     */
+    private static void compile(File workingDir, String[] args,
+            OutputStream output) {
+
+        ThreadOutput.set(output);
+        try {
+            Main.compileFromCommandLine(args, workingDir.getAbsoluteFile());
+        }
+        catch (Throwable t) {
+            //A crash should fail the request, not the server
+            t.printStackTrace(System.err);
+        }
+        finally {
+            System.out.flush();
+            System.err.flush();
+            ThreadOutput.remove();
+        }
+    }
+
+    private static class RoutingPrintStream extends PrintStream {
+
+        public RoutingPrintStream(OutputStream defaultStream) {
+            super(new RoutingOutputStream(defaultStream), true);
+        }
+    }
+
+    /**
+     * <p>An <code>OutputStream</code> that writes to the output of the
+     * request the current thread is compiling, if any, and otherwise to the
+     * stream it was created with.</p>
+     */
+    private static class RoutingOutputStream extends OutputStream {
+
+        private final OutputStream myDefault;
+
+        public RoutingOutputStream(OutputStream defaultStream) {
+            myDefault = defaultStream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            getTarget().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            getTarget().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            getTarget().flush();
+        }
+
+        private OutputStream getTarget() {
+            OutputStream result = ThreadOutput.get();
+
+            if (result == null) {
+                result = myDefault;
+            }
+
+            return result;
+        }
+    }
+}
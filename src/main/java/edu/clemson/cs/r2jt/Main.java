@@ -27,6 +27,8 @@ import edu.clemson.cs.r2jt.data.ModuleKind;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.init.Controller;
+import edu.clemson.cs.r2jt.init.ImportPrefetcher;
+import edu.clemson.cs.r2jt.init.ModuleCache;
 import edu.clemson.cs.r2jt.translation.*;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTableBuilder;
 import edu.clemson.cs.r2jt.proofchecking.ProofChecker;
@@ -64,16 +66,28 @@ public class Main {
                     "Prevents the compiler from importing standard uses modules.");
 
     //private static boolean      bodies      = false;
-    private static boolean compileDirs = false;
-    private static String mainDirName = "Main";
+    private static final String DEFAULT_MAIN_DIR_NAME = "Main";
 
     //private static Environment env;
 
     public static void main(String[] args) {
+        compileFromCommandLine(args, getAbsoluteFile(""));
+    }
+
+    /**
+     * <p>Does the work of {@link #main(String[]) main()}, but takes relative
+     * file names, and searches for the main directory, starting from
+     * <code>workingDir</code> rather than the process's working directory,
+     * so that the {@link CompileServer CompileServer} can compile on behalf
+     * of clients in any directory.</p>
+     */
+    static void compileFromCommandLine(String[] args, File workingDir) {
         //Environment.newInstance();
         //env = Environment.getInstance();
 
         setUpFlagDependencies();
+        boolean compileDirs = false;
+        String mainDirName = DEFAULT_MAIN_DIR_NAME;
 
         try {
             CompileEnvironment compileEnvironment =
@@ -136,7 +150,7 @@ public class Main {
                         }
                     }
                     else {
-                        files.add(getAbsoluteFile(args[i]));
+                        files.add(getAbsoluteFile(workingDir, args[i]));
                     }
                 }
 
@@ -151,9 +165,15 @@ public class Main {
                     compileEnvironment.setDebugOff();
                 }
 
-                setupEnv(preferredMainDirectory, compileEnvironment);
+                setupEnv(preferredMainDirectory, mainDirName, workingDir,
+                        compileEnvironment);
                 MetaFile dummy = null;
-                compileFiles(files, compileEnvironment, dummy);
+                try {
+                    compileFiles(files, compileEnvironment, dummy, compileDirs);
+                }
+                finally {
+                    err.flush();
+                }
             }
             else {
                 printHelpMessage(compileEnvironment);
@@ -186,6 +206,8 @@ public class Main {
         String fileName = inputFile.getMyFileName();
         String fileSource = inputFile.getMyFileSource();
         try {
+            boolean compileDirs = false;
+            String mainDirName = DEFAULT_MAIN_DIR_NAME;
             CompileEnvironment compileEnvironment =
                     new CompileEnvironment(args);
             compileEnvironment.setCompileReport(rep);
@@ -248,7 +270,9 @@ public class Main {
                         }
                     }
                     else {
-                        files.add(getAbsoluteFile(args[i]));
+                        files
+                                .add(getAbsoluteFile(getAbsoluteFile(""),
+                                        args[i]));
                     }
                 }
 
@@ -263,8 +287,15 @@ public class Main {
                     compileEnvironment.setDebugOff();
                 }
 
-                setupEnv(preferredMainDirectory, compileEnvironment);
-                compileFiles(files, compileEnvironment, inputFile);
+                setupEnv(preferredMainDirectory, mainDirName,
+                        getAbsoluteFile(""), compileEnvironment);
+                try {
+                    compileFiles(files, compileEnvironment, inputFile,
+                            compileDirs);
+                }
+                finally {
+                    err.flush();
+                }
             }
             else {
                 printHelpMessage(compileEnvironment);
@@ -282,11 +313,12 @@ public class Main {
      * Sets up the compilation environment
      */
     private static void setupEnv(String preferredMainDirectory,
-            CompileEnvironment env) {
+            String mainDirName, File workingDir, CompileEnvironment env) {
         /*if (bodies) {
             env.setCompileBodiesFlag();
         }*/
-        env.setMainDir(getMainDir(preferredMainDirectory));
+        env.setMainDir(getMainDir(preferredMainDirectory, mainDirName,
+                workingDir));
     }
 
     /**
@@ -294,7 +326,8 @@ public class Main {
      * at a time.
      */
     private static void compileFiles(List<File> files,
-            CompileEnvironment instanceEnvironment, MetaFile inputFile) {
+            CompileEnvironment instanceEnvironment, MetaFile inputFile,
+            boolean compileDirs) {
 
         MathSymbolTableBuilder symbolTable = new MathSymbolTableBuilder();
         instanceEnvironment.setSymbolTable(symbolTable);
@@ -341,7 +374,7 @@ public class Main {
             files.add(fileArray[i]);
         }
         MetaFile dummy = null;
-        compileFiles(files, instanceEnvironment, dummy);
+        compileFiles(files, instanceEnvironment, dummy, true);
     }
 
     public static void compileMainFile(File file,
@@ -412,22 +445,23 @@ public class Main {
         }
     }
 
-    private static File getMainDir(String preferredMainDirectory) {
+    private static File getMainDir(String preferredMainDirectory,
+            String mainDirName, File workingDir) {
         File mainDir = null;
 
         if (preferredMainDirectory != null) {
-            mainDir = new File(preferredMainDirectory);
+            mainDir = getAbsoluteFile(workingDir, preferredMainDirectory);
 
             if (!mainDir.exists()) {
                 System.err.println("Warning: Directory '"
                         + preferredMainDirectory
                         + "' not found, using current " + "directory.");
 
-                mainDir = getAbsoluteFile("");
+                mainDir = workingDir;
             }
         }
         else {
-            File currentDir = getAbsoluteFile("");
+            File currentDir = workingDir;
 
             if (currentDir.getName().equals(mainDirName)) {
                 mainDir = currentDir;
@@ -444,7 +478,7 @@ public class Main {
                 System.err.println("Warning: Directory '" + mainDirName
                         + "' not found, using current directory.");
 
-                mainDir = getAbsoluteFile("");
+                mainDir = workingDir;
             }
         }
 
@@ -459,6 +493,21 @@ public class Main {
         return new File(pathname).getAbsoluteFile();
     }
 
+    /**
+     * Converts the specified pathname, relative to <code>workingDir</code>
+     * if it isn't absolute, to a <code>File</code> representing its absolute
+     * path.
+     */
+    private static File getAbsoluteFile(File workingDir, String pathname) {
+        File result = new File(pathname);
+
+        if (!result.isAbsolute()) {
+            result = new File(workingDir, pathname);
+        }
+
+        return result.getAbsoluteFile();
+    }
+
     /**
      * Determines if the specified filename is a valid Resolve filename.
      */
@@ -507,8 +556,12 @@ public class Main {
      * <p>This method sets up dependencies between compiler flags.  If you are
      * integrating your module into the compiler flag management system, this is
      * where to do it.</p>
+     *
+     * <p>Only the first call has any effect, so anything that needs the flags
+     * without going through <code>main()</code>--a test building its own
+     * <code>CompileEnvironment</code>, say--may call it as well.</p>
      */
-    private synchronized static void setUpFlagDependencies() {
+    public synchronized static void setUpFlagDependencies() {
 
         if (!FlagDependencies.isSealed()) {
 
@@ -517,6 +570,7 @@ public class Main {
 
             JavaTranslator.setUpFlags();
             CTranslator.setUpFlags();
+            TemplateGroupCache.setUpFlags();
 
             Verifier.setUpFlags();
             ProofChecker.setUpFlags();
@@ -531,6 +585,8 @@ public class Main {
             AlgebraicProver.setUpFlags();
             //Your module here!
             CongruenceClassProver.setUpFlags();
+            ModuleCache.setUpFlags();
+            ImportPrefetcher.setUpFlags();
             FlagDependencies.seal();
         }
     }
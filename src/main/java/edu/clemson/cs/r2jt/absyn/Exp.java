@@ -13,8 +13,6 @@
 package edu.clemson.cs.r2jt.absyn;
 
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.Set;
 
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.data.Location;
@@ -107,34 +105,19 @@ public abstract class Exp extends ResolveConceptualElement implements Cloneable
     public final Exp substitute(java.util.Map<Exp, Exp> substitutions) {
         Exp retval;
 
-        boolean match = false;
-
-        java.util.Map.Entry<Exp, Exp> curEntry = null;
         if (substitutions.size() > 0) {
-            Set<java.util.Map.Entry<Exp, Exp>> entries =
-                    substitutions.entrySet();
-            Iterator<java.util.Map.Entry<Exp, Exp>> entryIter =
-                    entries.iterator();
-            //System.out.println("Recursing: " + this.toString(0) + " : " + this.getClass());
-            while (entryIter.hasNext() && !match) {
-                curEntry = entryIter.next();
-                //System.out.print(curEntry.getKey().toString(0) + " --?-> " + curEntry.getValue().toString(0));
-                match = curEntry.getKey().equivalent(this);
-
-                /*if (match) {
-                	System.out.println(" [Yes] ");
-                }
-                else {
-                	System.out.println(" [ No] ");
-                }*/
-            }
+            //Index the keys once, at the top, and pass the index down in place
+            //of the original map, so each node need only be checked against
+            //the keys that could possibly match it
+            SubstitutionIndex index = SubstitutionIndex.index(substitutions);
+
+            java.util.Map.Entry<Exp, Exp> match = index.findMatch(this);
 
-            if (match) {
-                //System.out.println(curEntry.getKey().toString(0) + " --> " + curEntry.getValue().toString(0));
-                retval = curEntry.getValue();
+            if (match != null) {
+                retval = match.getValue();
             }
             else {
-                retval = Exp.substituteChildren(this, substitutions);
+                retval = Exp.substituteChildren(this, index);
             }
         }
         else {
@@ -0,0 +1,271 @@
+/**
+ * SubstitutionIndex.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.absyn;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.clemson.cs.r2jt.data.PosSymbol;
+
+/**
+ * <p>A <code>SubstitutionIndex</code> wraps the map of substitutions given to
+ * {@link Exp#substitute(Map) Exp.substitute()} so that, at each node of the
+ * expression, only those keys that could possibly be
+ * <code>equivalent()</code> to the node need be tried, rather than every key
+ * in the map.</p>
+ *
+ * <p>This relies on the way <code>equivalent()</code> is implemented
+ * throughout <code>absyn</code>: it never accepts an expression that isn't an
+ * instance of the class declaring the <code>equivalent()</code> in question,
+ * and, for <code>VarExp</code>s, <code>FunctionExp</code>s and
+ * <code>VariableNameExp</code>s, one with a different name.  So keys are
+ * indexed by that class and name, and a node need only be checked against the
+ * keys filed under one of its own classes and its own name.  Keys whose class
+ * doesn't implement <code>equivalent()</code> at all are checked against every
+ * node, just as before, but only those ahead of the first indexed key to
+ * match, since a linear search would never have reached the rest.
+ * Candidates are always tried in the order the underlying map iterates its
+ * keys, so the first key to match is the same one a linear search would have
+ * found.</p>
+ *
+ * <p>As a <code>Map</code>, a <code>SubstitutionIndex</code> is an unmodifiable
+ * view of the map it indexes, so it can be passed down through
+ * <code>substituteChildren()</code> in place of the original.</p>
+ */
+class SubstitutionIndex extends AbstractMap<Exp, Exp> {
+
+    /**
+     * <p>Below this many substitutions, trying each key in turn is cheaper
+     * than building an index.</p>
+     */
+    private static final int INDEXING_THRESHOLD = 4;
+
+    /**
+     * <p>The class declaring <code>equivalent()</code> for each class of key
+     * seen so far, or <code>Exp</code> if none does.</p>
+     */
+    private static final Map<Class<?>, Class<?>> EQUIVALENCE_CLASSES =
+            new HashMap<Class<?>, Class<?>>();
+
+    private final Map<Exp, Exp> mySubstitutions;
+
+    /**
+     * <p>Every substitution, in the underlying map's iteration order.</p>
+     */
+    private final List<Map.Entry<Exp, Exp>> myEntries;
+
+    /**
+     * <p>The positions in <code>myEntries</code> of the keys that might match
+     * an expression, by the class declaring their <code>equivalent()</code>
+     * and then by name.  <code>null</code> if the map is small enough not to
+     * be worth indexing.</p>
+     */
+    private final Map<Class<?>, Map<String, List<Integer>>> myIndex;
+
+    /**
+     * <p>The positions of keys that must be tried against every
+     * expression.</p>
+     */
+    private final List<Integer> myUnindexed = new ArrayList<Integer>();
+
+    private SubstitutionIndex(Map<Exp, Exp> substitutions) {
+        mySubstitutions = substitutions;
+        myEntries =
+                new ArrayList<Map.Entry<Exp, Exp>>(substitutions.entrySet());
+
+        if (myEntries.size() < INDEXING_THRESHOLD) {
+            myIndex = null;
+        }
+        else {
+            myIndex = new HashMap<Class<?>, Map<String, List<Integer>>>();
+
+            for (int i = 0; i < myEntries.size(); i++) {
+                Exp key = myEntries.get(i).getKey();
+                Class<?> equivalenceClass =
+                        (key == null) ? Exp.class : getEquivalenceClass(key
+                                .getClass());
+
+                if (equivalenceClass == Exp.class) {
+                    myUnindexed.add(i);
+                }
+                else {
+                    Map<String, List<Integer>> byName =
+                            myIndex.get(equivalenceClass);
+                    if (byName == null) {
+                        byName = new HashMap<String, List<Integer>>();
+                        myIndex.put(equivalenceClass, byName);
+                    }
+
+                    String name = getName(key, equivalenceClass);
+                    List<Integer> positions = byName.get(name);
+                    if (positions == null) {
+                        positions = new ArrayList<Integer>();
+                        byName.put(name, positions);
+                    }
+
+                    positions.add(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Returns an index over <code>substitutions</code>, which is simply
+     * <code>substitutions</code> if it's already indexed.</p>
+     */
+    public static SubstitutionIndex index(Map<Exp, Exp> substitutions) {
+        SubstitutionIndex result;
+
+        if (substitutions instanceof SubstitutionIndex) {
+            result = (SubstitutionIndex) substitutions;
+        }
+        else {
+            result = new SubstitutionIndex(substitutions);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns the first substitution, in the underlying map's iteration
+     * order, whose key is <code>equivalent()</code> to <code>e</code>, or
+     * <code>null</code> if there isn't one.</p>
+     */
+    public Map.Entry<Exp, Exp> findMatch(Exp e) {
+        Map.Entry<Exp, Exp> result = null;
+
+        if (myIndex == null) {
+            for (Map.Entry<Exp, Exp> entry : myEntries) {
+                if (entry.getKey().equivalent(e)) {
+                    result = entry;
+                    break;
+                }
+            }
+        }
+        else {
+            int best = myEntries.size();
+
+            for (Class<?> c = e.getClass(); c != Exp.class && c != null; c =
+                    c.getSuperclass()) {
+
+                Map<String, List<Integer>> byName = myIndex.get(c);
+                if (byName != null) {
+                    List<Integer> positions = byName.get(getName(e, c));
+                    if (positions != null) {
+                        best = findFirstMatch(positions, e, best);
+                    }
+                }
+            }
+
+            //Only unindexed keys ahead of the best indexed match could beat
+            //it, and a linear search would never have tried those after it
+            best = findFirstMatch(myUnindexed, e, best);
+
+            if (best < myEntries.size()) {
+                result = myEntries.get(best);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public Set<Map.Entry<Exp, Exp>> entrySet() {
+        return mySubstitutions.entrySet();
+    }
+
+    @Override
+    public int size() {
+        return mySubstitutions.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return mySubstitutions.containsKey(key);
+    }
+
+    @Override
+    public Exp get(Object key) {
+        return mySubstitutions.get(key);
+    }
+
+    /**
+     * <p>Returns the first of <code>positions</code>, which are in ascending
+     * order, whose key is <code>equivalent()</code> to <code>e</code>, or
+     * <code>bound</code> if none before <code>bound</code> is.</p>
+     */
+    private int findFirstMatch(List<Integer> positions, Exp e, int bound) {
+        int result = bound;
+
+        for (int i = 0; i < positions.size() && result == bound; i++) {
+            int position = positions.get(i);
+
+            if (position >= bound) {
+                break;
+            }
+
+            if (myEntries.get(position).getKey().equivalent(e)) {
+                result = position;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns the name <code>e</code> is compared by, as an instance of
+     * <code>equivalenceClass</code>, or <code>null</code> if it isn't compared
+     * by name.</p>
+     */
+    private static String getName(Exp e, Class<?> equivalenceClass) {
+        PosSymbol name = null;
+
+        if (equivalenceClass == VarExp.class) {
+            name = ((VarExp) e).getName();
+        }
+        else if (equivalenceClass == FunctionExp.class) {
+            name = ((FunctionExp) e).getName();
+        }
+        else if (equivalenceClass == VariableNameExp.class) {
+            name = ((VariableNameExp) e).getName();
+        }
+
+        return (name == null) ? null : name.getName();
+    }
+
+    private static Class<?> getEquivalenceClass(Class<?> keyClass) {
+        synchronized (EQUIVALENCE_CLASSES) {
+            Class<?> result = EQUIVALENCE_CLASSES.get(keyClass);
+
+            if (result == null) {
+                try {
+                    result =
+                            keyClass.getMethod("equivalent", Exp.class)
+                                    .getDeclaringClass();
+                }
+                catch (NoSuchMethodException nsme) {
+                    //Exp declares it, so every subclass has it
+                    throw new RuntimeException(nsme);
+                }
+
+                EQUIVALENCE_CLASSES.put(keyClass, result);
+            }
+
+            return result;
+        }
+    }
+}
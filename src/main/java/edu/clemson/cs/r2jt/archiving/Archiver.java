@@ -12,9 +12,14 @@
  */
 package edu.clemson.cs.r2jt.archiving;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.jar.Attributes;
 import java.util.jar.JarEntry;
@@ -61,6 +66,32 @@ public class Archiver {
     public static final Flag FLAG_VERBOSE_ARCHIVE =
             new Flag(FLAG_SECTION_NAME, "verboseJar", FLAG_DESC_VERBOSE_ARCHIVE);
 
+    /**
+     * <p>The system Java compiler, shared by every <code>Archiver</code>.</p>
+     */
+    private static final JavaCompiler COMPILER =
+            ToolProvider.getSystemJavaCompiler();
+
+    private static final int MAX_STANDARD_CLASS_SETS = 4;
+
+    /**
+     * <p>The compiled RESOLVE base classes and standard imports, keyed by a
+     * digest of the sources they were compiled from, so that each workspace's
+     * standard library is only compiled once per process, and is recompiled
+     * as soon as any of its sources change.</p>
+     */
+    private static final Map<String, Map<String, byte[]>> STANDARD_CLASSES =
+            new LinkedHashMap<String, Map<String, byte[]>>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, Map<String, byte[]>> eldest) {
+                    return size() > MAX_STANDARD_CLASS_SETS;
+                }
+            };
+
     private final CompileEnvironment myInstanceEnvironment;
     private boolean webOutput;
 
@@ -71,6 +102,16 @@ public class Archiver {
     private List<String> sourceFiles = new List<String>();
     private List<String> archiveFiles = new List<String>();
 
+    // The subset of sourceFiles that make up the standard library
+    private Set<String> standardFiles = new HashSet<String>();
+
+    // Translated sources that are held in memory rather than on disk, by
+    // the path of the .java file they would otherwise have been written to
+    private Map<String, String> memorySources = new HashMap<String, String>();
+
+    // The compiled classes, by binary name, once compileFiles() succeeds
+    private Map<String, byte[]> compiledClasses;
+
     // Operating System name (necessary to know this
     // for launching javac and jar)
     //private String os = System.getProperty("os.name");
@@ -176,35 +217,79 @@ public class Archiver {
     }
 
     /**
-     * Method that invokes the javac
+     * <p>Method to supply the translation of a file already added with
+     * {@link #addFileToArchive(File)}, so that it is compiled straight from
+     * memory and need never be written to disk.</p>
+     *
+     * @param inputFile The RESOLVE file that was translated.
+     * @param javaSource Its Java translation.
+     */
+    public void addTranslatedSource(File inputFile, String javaSource) {
+        String inFile = inputFile.toString();
+        String[] temp = inFile.split("\\.");
+        String ext = temp[temp.length - 1];
+
+        memorySources.put(modifyString(inFile, "\\." + ext, ".java"),
+                javaSource);
+    }
+
+    /**
+     * <p>Method that invokes the javac.  Sources are compiled in memory, and
+     * the resulting classes are kept in memory for {@link #createArchive}.
+     * The standard library is compiled separately, and only once for as long
+     * as its sources don't change.</p>
      * 
-     * @return 0 if successful
+     * @return true if successful
      */
     public boolean compileFiles() {
         int ret = -1;
         try {
-            JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
-            if (compiler != null) {
+            if (COMPILER != null) {
                 String[] compileOptions = new String[] {};
                 Iterable<String> compilationOptions =
                         Arrays.asList(compileOptions);
                 StandardJavaFileManager fileManager =
-                        compiler.getStandardFileManager(null, Locale
+                        COMPILER.getStandardFileManager(null, Locale
                                 .getDefault(), null);
-                Iterable<? extends JavaFileObject> compilationUnits =
-                        fileManager.getJavaFileObjectsFromStrings(sourceFiles);
+
+                Map<String, byte[]> standardClasses =
+                        getStandardClasses(fileManager, compilationOptions);
+
+                // If the standard library wouldn't compile on its own, fall
+                // back on compiling everything together, so the errors are
+                // reported just as they always have been
+                java.util.List<JavaFileObject> compilationUnits =
+                        new java.util.LinkedList<JavaFileObject>();
+                for (String sf : sourceFiles) {
+                    if (standardClasses == null || !standardFiles.contains(sf)) {
+                        compilationUnits.add(getSourceFile(fileManager, sf));
+                    }
+                }
+
+                if (standardClasses == null) {
+                    standardClasses = new HashMap<String, byte[]>();
+                }
+
+                MemoryFileManager memoryFileManager =
+                        new MemoryFileManager(fileManager, standardClasses);
                 DiagnosticCollector<JavaFileObject> diagnosticListener =
                         new DiagnosticCollector<JavaFileObject>();
                 CompilationTask compilerTask =
-                        compiler.getTask(null, fileManager, diagnosticListener,
-                                compilationOptions, null, compilationUnits);
+                        COMPILER.getTask(null, memoryFileManager,
+                                diagnosticListener, compilationOptions, null,
+                                compilationUnits);
                 boolean status = compilerTask.call();
                 if (status) {
                     ret = 0;
+
+                    compiledClasses =
+                            new LinkedHashMap<String, byte[]>(standardClasses);
+                    compiledClasses.putAll(memoryFileManager.getClasses());
                 }
                 else {
                     printDiagnostics(diagnosticListener);
                 }
+                memoryFileManager.close();
                 String msg = null;
                 if (ret == 0) {
                     msg = "Java files successfully compiled with javac";
@@ -248,7 +333,8 @@ public class Archiver {
     }
 
     /**
-     * <p>Method to invoke the jar utility and create the jar file.</p>
+     * <p>Method to create the jar file, streaming the classes compiled by
+     * {@link #compileFiles()} straight from memory.</p>
      *
      * @return 0 if successful
      */
@@ -261,7 +347,6 @@ public class Archiver {
             String extRegex = "(?<=\\.)class$"; //match .class files
             Pattern extPattern = Pattern.compile(extRegex);
             Matcher extMatcher = null;*/
-            byte buffer[] = new byte[BUFFER_SIZE];
             if (compileSuccess) {
                 Manifest manifest = new Manifest();
                 manifest.getMainAttributes().put(
@@ -276,50 +361,20 @@ public class Archiver {
                 }
 
                 out = new JarOutputStream(stream, manifest);
-            }
 
-            for (String sf : sourceFiles) {
-                int length = sf.length();
-                int slashIndex = sf.lastIndexOf(File.separator, length - 1);
-                int dotIndex = sf.lastIndexOf(".", length - 1);
-                String modulePath = sf.substring(0, slashIndex);
-                String moduleName = sf.substring(slashIndex + 1, dotIndex);
-                String nameRegex = moduleName + "(\\.|(\\$[^\\.]+\\.))class$";
-                Pattern namePattern = Pattern.compile(nameRegex);
-                Matcher nameMatcher = null;
-                File modulePathDir = new File(modulePath);
-                if (modulePathDir.isDirectory()) {
-                    File[] files = modulePathDir.listFiles();
-                    for (int i = 0; i < files.length; i++) {
-                        String fileName = files[i].getAbsolutePath();
-                        nameMatcher = namePattern.matcher(fileName);
-                        if (nameMatcher.find()) {
-                            if (compileSuccess) {
-
-                                fileName = formProperPath(files[i]);
-
-                                JarEntry jarAdd = new JarEntry(fileName);
-                                jarAdd.setTime(files[i].lastModified());
-                                out.putNextEntry(jarAdd);
-                                FileInputStream in =
-                                        new FileInputStream(files[i]);
-                                while (true) {
-                                    int nRead =
-                                            in.read(buffer, 0, buffer.length);
-                                    if (nRead <= 0)
-                                        break;
-                                    out.write(buffer, 0, nRead);
-                                }
-                                in.close();
-                            }
-                            // add to the list of created files
-                            createdFiles.add(new File(files[i]
-                                    .getAbsolutePath()));
-                        }
-                    }
+                long time = System.currentTimeMillis();
+
+                for (Map.Entry<String, byte[]> compiledClass : compiledClasses
+                        .entrySet()) {
+                    JarEntry jarAdd =
+                            new JarEntry(compiledClass.getKey().replace('.',
+                                    '/')
+                                    + ".class");
+                    jarAdd.setTime(time);
+                    out.putNextEntry(jarAdd);
+                    out.write(compiledClass.getValue());
                 }
-            }
-            if (compileSuccess) {
+
                 ret = 0;
                 out.close();
                 stream.close();
@@ -486,13 +541,17 @@ public class Archiver {
         for (String s : stdResolve) {
             sourceFiles.add(workspaceDir + "RESOLVE" + File.separator + s);
         }
+        standardFiles.addAll(sourceFiles);
 
         String mainDir = workspaceDir + "RESOLVE" + File.separator + "Main";
         // Add standard Imports
         for (String s : stdImports) {
             //System.out.println(s);
-            sourceFiles.add(mainDir + File.separator + "Concepts"
-                    + File.separator + "Standard" + File.separator + s);
+            String standardFile =
+                    mainDir + File.separator + "Concepts" + File.separator
+                            + "Standard" + File.separator + s;
+            sourceFiles.add(standardFile);
+            standardFiles.add(standardFile);
         }
 
     }
@@ -524,9 +583,9 @@ public class Archiver {
                     inputFile.getMyFileName()
                             + inputFile.getMyKind().getExtension());
         }
-        if (gui.generateCode() && gui.createJavaFile()) {
+        if (gui.generateCode()) {
             sourceFiles.add(gui.getJavaPath());
-            createdFiles.add(new File(gui.getJavaPath()));
+            memorySources.put(gui.getJavaPath(), gui.getJavaSource());
             entryClass = gui.getEntryClass();
         }
 
@@ -555,6 +614,133 @@ public class Archiver {
         }
     }
 
+    /**
+     * <p>Returns the compiled standard library, compiling it first if these
+     * exact sources haven't been compiled before, or <code>null</code> if it
+     * can't be compiled on its own.</p>
+     */
+    private Map<String, byte[]> getStandardClasses(
+            StandardJavaFileManager fileManager, Iterable<String> options)
+            throws IOException {
+
+        String key = getStandardKey();
+        if (key == null) {
+            return null;
+        }
+
+        Map<String, byte[]> result;
+        synchronized (STANDARD_CLASSES) {
+            result = STANDARD_CLASSES.get(key);
+        }
+
+        if (result == null) {
+            java.util.List<JavaFileObject> compilationUnits =
+                    new java.util.LinkedList<JavaFileObject>();
+            for (String sf : sourceFiles) {
+                if (standardFiles.contains(sf)) {
+                    compilationUnits.add(getSourceFile(fileManager, sf));
+                }
+            }
+
+            Map<String, byte[]> noClasses = Collections.emptyMap();
+            MemoryFileManager memoryFileManager =
+                    new MemoryFileManager(fileManager, noClasses);
+            CompilationTask compilerTask =
+                    COMPILER.getTask(null, memoryFileManager,
+                            new DiagnosticCollector<JavaFileObject>(), options,
+                            null, compilationUnits);
+
+            if (compilerTask.call()) {
+                result =
+                        Collections.unmodifiableMap(memoryFileManager
+                                .getClasses());
+
+                synchronized (STANDARD_CLASSES) {
+                    STANDARD_CLASSES.put(key, result);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns a digest of the paths and contents of the standard library
+     * sources, or <code>null</code> if any of them can't be read.</p>
+     */
+    private String getStandardKey() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+
+            for (String sf : sourceFiles) {
+                if (standardFiles.contains(sf)) {
+                    digest.update(sf.getBytes("UTF-8"));
+                    digest.update((byte) 0);
+
+                    if (memorySources.containsKey(sf)) {
+                        digest.update(memorySources.get(sf).getBytes("UTF-8"));
+                    }
+                    else {
+                        digest.update(readFile(new File(sf)));
+                    }
+                    digest.update((byte) 0);
+                }
+            }
+
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key
+                        .append(Integer.toHexString((b & 0xff) | 0x100)
+                                .substring(1));
+            }
+
+            return key.toString();
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            //Every Java platform is required to support SHA-1
+            throw new RuntimeException(nsae);
+        }
+        catch (IOException ioe) {
+            return null;
+        }
+    }
+
+    private static byte[] readFile(File file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputStream in = new FileInputStream(file);
+        try {
+            byte buffer[] = new byte[BUFFER_SIZE];
+            int nRead;
+            while ((nRead = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, nRead);
+            }
+        }
+        finally {
+            in.close();
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private JavaFileObject getSourceFile(StandardJavaFileManager fileManager,
+            String sourceFile) {
+
+        JavaFileObject result;
+
+        if (memorySources.containsKey(sourceFile)) {
+            result =
+                    MemoryFileManager.getSourceFile(new File(sourceFile),
+                            memorySources.get(sourceFile));
+        }
+        else {
+            result =
+                    fileManager.getJavaFileObjects(sourceFile).iterator()
+                            .next();
+        }
+
+        return result;
+    }
+
     private File[] getFiles() {
         int i = 0;
         File[] files = new File[sourceFiles.size()];
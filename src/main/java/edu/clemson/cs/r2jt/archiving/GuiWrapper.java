@@ -85,6 +85,14 @@ public class GuiWrapper {
         return javaLocation;
     }
 
+    /**
+     * <p>Returns the source generated by {@link #generateCode()}, without
+     * writing it to {@link #getJavaPath()}.</p>
+     */
+    public String getJavaSource() {
+        return sb.toString();
+    }
+
     public String getEntryClass() {
         return entryClass;
     }
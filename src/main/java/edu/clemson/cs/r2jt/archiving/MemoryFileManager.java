@@ -0,0 +1,241 @@
+/**
+ * MemoryFileManager.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.archiving;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.JavaFileObject.Kind;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+
+/**
+ * <p>A <code>MemoryFileManager</code> lets the {@link Archiver Archiver} run
+ * <code>javac</code> without touching the disk: sources may be given as
+ * strings, every class file the compiler produces is kept in memory, in the
+ * order it was produced, and a set of previously compiled classes may be put
+ * on the class path without ever having been written out.</p>
+ *
+ * <p>Anything else, including sources given as files, is left to the
+ * underlying <code>StandardJavaFileManager</code>.  Like the file manager it
+ * wraps, a <code>MemoryFileManager</code> is meant for a single thread.</p>
+ */
+class MemoryFileManager
+        extends
+            ForwardingJavaFileManager<StandardJavaFileManager> {
+
+    /**
+     * <p>Classes available on the class path, by binary name.</p>
+     */
+    private final Map<String, byte[]> myClassPath;
+
+    /**
+     * <p>Classes produced by the compiler, by binary name, in the order they
+     * were produced.</p>
+     */
+    private final Map<String, ClassFile> myOutput =
+            new LinkedHashMap<String, ClassFile>();
+
+    public MemoryFileManager(StandardJavaFileManager fileManager,
+            Map<String, byte[]> classPath) {
+        super(fileManager);
+
+        myClassPath = classPath;
+    }
+
+    /**
+     * <p>Returns a compilation unit for <code>file</code> whose content is
+     * <code>source</code>, rather than whatever is on disk.</p>
+     */
+    public static JavaFileObject getSourceFile(File file, String source) {
+        return new SourceFile(file, source);
+    }
+
+    /**
+     * <p>Returns the bytes of every class compiled so far, by binary name, in
+     * the order the compiler produced them.</p>
+     */
+    public Map<String, byte[]> getClasses() {
+        Map<String, byte[]> result = new LinkedHashMap<String, byte[]>();
+
+        for (ClassFile classFile : myOutput.values()) {
+            result.put(classFile.getBinaryName(), classFile.getBytes());
+        }
+
+        return result;
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location,
+            String className, Kind kind, FileObject sibling) throws IOException {
+
+        JavaFileObject result;
+
+        if (kind == Kind.CLASS) {
+            ClassFile classFile = new ClassFile(className);
+            myOutput.put(className, classFile);
+            result = classFile;
+        }
+        else {
+            result =
+                    super.getJavaFileForOutput(location, className, kind,
+                            sibling);
+        }
+
+        return result;
+    }
+
+    @Override
+    public Iterable<JavaFileObject> list(Location location, String packageName,
+            Set<Kind> kinds, boolean recurse) throws IOException {
+
+        Iterable<JavaFileObject> result =
+                super.list(location, packageName, kinds, recurse);
+
+        if (location == StandardLocation.CLASS_PATH
+                && kinds.contains(Kind.CLASS)) {
+            List<JavaFileObject> classes = new ArrayList<JavaFileObject>();
+
+            for (Map.Entry<String, byte[]> entry : myClassPath.entrySet()) {
+                if (isInPackage(entry.getKey(), packageName, recurse)) {
+                    classes
+                            .add(new ClassFile(entry.getKey(), entry.getValue()));
+                }
+            }
+
+            if (!classes.isEmpty()) {
+                for (JavaFileObject file : result) {
+                    classes.add(file);
+                }
+
+                result = classes;
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    public String inferBinaryName(Location location, JavaFileObject file) {
+        String result;
+
+        if (file instanceof ClassFile) {
+            result = ((ClassFile) file).getBinaryName();
+        }
+        else {
+            result = super.inferBinaryName(location, file);
+        }
+
+        return result;
+    }
+
+    private static boolean isInPackage(String binaryName, String packageName,
+            boolean recurse) {
+
+        int lastDot = binaryName.lastIndexOf('.');
+        String classPackage =
+                (lastDot == -1) ? "" : binaryName.substring(0, lastDot);
+
+        return classPackage.equals(packageName)
+                || (recurse && (packageName.length() == 0 || classPackage
+                        .startsWith(packageName + ".")));
+    }
+
+    /**
+     * <p>A source file whose content is held in memory, but which reports
+     * the name of the file it would otherwise have been read from, so that
+     * diagnostics read just as they would for the file on disk.</p>
+     */
+    private static class SourceFile extends SimpleJavaFileObject {
+
+        private final String mySource;
+
+        public SourceFile(File file, String source) {
+            super(file.getAbsoluteFile().toURI(), Kind.SOURCE);
+
+            mySource = source;
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return mySource;
+        }
+    }
+
+    /**
+     * <p>A class file held in memory, either produced by the compiler or
+     * provided on the class path.</p>
+     */
+    private static class ClassFile extends SimpleJavaFileObject {
+
+        private final String myBinaryName;
+
+        private byte[] myBytes;
+
+        public ClassFile(String binaryName) {
+            this(binaryName, null);
+        }
+
+        public ClassFile(String binaryName, byte[] bytes) {
+            super(URI.create("memory:///" + binaryName.replace('.', '/')
+                    + Kind.CLASS.extension), Kind.CLASS);
+
+            myBinaryName = binaryName;
+            myBytes = bytes;
+        }
+
+        public String getBinaryName() {
+            return myBinaryName;
+        }
+
+        public byte[] getBytes() {
+            return myBytes;
+        }
+
+        @Override
+        public InputStream openInputStream() throws IOException {
+            if (myBytes == null) {
+                throw new IOException("Class " + myBinaryName
+                        + " has not been written.");
+            }
+
+            return new ByteArrayInputStream(myBytes);
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            return new ByteArrayOutputStream() {
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    myBytes = toByteArray();
+                }
+            };
+        }
+    }
+}
@@ -12,6 +12,7 @@
  */
 package edu.clemson.cs.r2jt.congruenceclassprover;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.proving.Prover;
@@ -19,7 +20,9 @@ import edu.clemson.cs.r2jt.proving.absyn.PExp;
 import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
 import edu.clemson.cs.r2jt.proving2.Metrics;
 import edu.clemson.cs.r2jt.proving2.ProverListener;
+import edu.clemson.cs.r2jt.proving2.RelevanceFilter;
 import edu.clemson.cs.r2jt.proving2.VC;
+import edu.clemson.cs.r2jt.proving2.VCScheduler;
 import edu.clemson.cs.r2jt.proving2.model.PerVCProverModel;
 import edu.clemson.cs.r2jt.typeandpopulate.EntryTypeQuery;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTable;
@@ -28,7 +31,6 @@ import edu.clemson.cs.r2jt.typeandpopulate.entry.TheoremEntry;
 import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
 import edu.clemson.cs.r2jt.utilities.Flag;
 import edu.clemson.cs.r2jt.utilities.FlagDependencies;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
@@ -50,6 +52,24 @@ public class CongruenceClassProver {
     public static final Flag FLAG_PROVE =
             new Flag(Prover.FLAG_SECTION_NAME, "ccprove",
                     "congruence closure based prover");
+
+    private static final String FLAG_DESC_BUDGET =
+            "Takes a number of milliseconds to spend proving the whole module "
+                    + "with -ccprove, divided among its VCs according to "
+                    + "how hard they seem, easiest first.";
+
+    public static final String FLAG_BUDGET_ARG_NAME = "milliseconds";
+
+    private static final String[] FLAG_BUDGET_ARGS = { FLAG_BUDGET_ARG_NAME };
+
+    /**
+     * Gives the prover a single time budget for the whole module, rather than
+     * a fixed timeout for each VC.
+     */
+    public static final Flag FLAG_BUDGET =
+            new Flag(Prover.FLAG_SECTION_NAME, "provingbudget",
+                    FLAG_DESC_BUDGET, FLAG_BUDGET_ARGS, Flag.Type.HIDDEN);
+
     private final List<VerificationConditionCongruenceClosureImpl> m_ccVCs;
     private final List<TheoremCongruenceClosureImpl> m_theorems;
     private final int MAX_ITERATIONS = 256;
@@ -65,14 +85,21 @@ public class CongruenceClassProver {
     private final List<ProverListener> myProverListeners =
             new LinkedList<ProverListener>();
     private final long myTimeout;
+    private final VCScheduler myScheduler;
 
     ///////////////////////////////////////////////////////
     public static void setUpFlags() {
         FlagDependencies.addExcludes(FLAG_PROVE, Prover.FLAG_PROVE);
         FlagDependencies.addExcludes(FLAG_PROVE, Prover.FLAG_LEGACY_PROVE);
         FlagDependencies.addImplies(FLAG_PROVE, Prover.FLAG_SOME_PROVER);
+        FlagDependencies.addRequires(FLAG_BUDGET, FLAG_PROVE);
     }
 
+    /**
+     * @throws IllegalArgumentException If the argument to -provingbudget
+     *             isn't a whole number of milliseconds greater than zero.  The
+     *             exception's message is suitable for the user.
+     */
     public CongruenceClassProver(TypeGraph g, List<VC> vcs, ModuleScope scope,
             CompileEnvironment environment, ProverListener listener) {
 
@@ -91,12 +118,29 @@ public class CongruenceClassProver {
         }
         ///////////////////////////////////////////////////////////////
 
+        // With a budget for the whole module, the timeout (if any) only caps
+        // how much of it a single vc may have
+        if (environment.flags.isFlagSet(FLAG_BUDGET)) {
+            long budget =
+                    parseBudget(environment.flags.getFlagArgument(FLAG_BUDGET,
+                            FLAG_BUDGET_ARG_NAME));
+            long maximumSlice =
+                    environment.flags.isFlagSet(Prover.FLAG_TIMEOUT) ? myTimeout
+                            : Long.MAX_VALUE;
+            myScheduler = new VCScheduler(vcs, budget, maximumSlice);
+        }
+        else {
+            myScheduler = null;
+        }
+
         m_typeGraph = g;
         m_ccVCs = new ArrayList<VerificationConditionCongruenceClosureImpl>();
         int i = 0;
         for (VC vc : vcs) {
             m_ccVCs.add(new VerificationConditionCongruenceClosureImpl(g, vc));
-            myModels[i++] = (new PerVCProverModel(g, vc.getName(), vc, null));
+            myModels[i++] =
+                    (new PerVCProverModel(g, vc.getName(), vc, null,
+                            environment));
         }
 
         m_theorems = new ArrayList<TheoremCongruenceClosureImpl>();
@@ -124,6 +168,29 @@ public class CongruenceClassProver {
 
     }
 
+    /**
+     * Returns the number of milliseconds given to -provingbudget.  A budget
+     * of zero or less would skip every vc without saying why, so it is an
+     * error, like one that isn't a number at all.
+     */
+    private static long parseBudget(String budget) {
+        long result;
+        try {
+            result = Long.parseLong(budget);
+        }
+        catch (NumberFormatException nfe) {
+            result = 0;
+        }
+
+        if (result < 1) {
+            throw new IllegalArgumentException("The -provingbudget flag "
+                    + "takes a whole number of milliseconds, at least 1, but "
+                    + "was given \"" + budget + "\".");
+        }
+
+        return result;
+    }
+
     private void addEqualityTheorem(boolean matchLeft, PExp theorem) {
         PExp lhs, rhs;
 
@@ -161,36 +228,36 @@ public class CongruenceClassProver {
 
     public void start() throws IOException {
 
-        String summary = "";
-        int i = 0;
-        for (VerificationConditionCongruenceClosureImpl vcc : m_ccVCs) {
-            long startTime = System.nanoTime();
-            boolean proved = prove(vcc);
-            if (proved) {
-                summary += "Proved ";
+        String[] summaries = new String[m_ccVCs.size()];
+        if (myScheduler == null) {
+            for (int i = 0; i < m_ccVCs.size(); i++) {
+                summaries[i] = proveAndReport(i, myTimeout);
             }
-            else {
-                summary += "Insufficient data to prove ";
+        }
+        else {
+            // easiest first, each with its share of what's left of the budget
+            while (myScheduler.hasNext()) {
+                int i = myScheduler.next();
+                if (myScheduler.hasSlice()) {
+                    long startTime = System.currentTimeMillis();
+                    summaries[i] = proveAndReport(i, myScheduler.getSlice());
+                    long elapsed = System.currentTimeMillis() - startTime;
+                    myScheduler.finished(elapsed);
+                }
+                else {
+                    summaries[i] = skipAndReport(i);
+                }
             }
+        }
 
-            long endTime = System.nanoTime();
-            long delayNS = endTime - startTime;
-            long delayMS =
-                    TimeUnit.MILLISECONDS
-                            .convert(delayNS, TimeUnit.NANOSECONDS);
-            summary += vcc.m_name + " time: " + delayMS + " ms\n";
-
-            for (ProverListener l : myProverListeners) {
-                l
-                        .vcResult(proved, myModels[i], new Metrics(delayMS,
-                                myTimeout));
-            }
-            i++;
+        String summary = "";
+        for (String s : summaries) {
+            summary += s;
         }
 
         String div = divLine("Summary");
         summary = div + summary + div;
-        if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+        if (!m_environment.flags.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out.println(m_results + summary);
         }
         m_results = summary + m_results;
@@ -198,6 +265,51 @@ public class CongruenceClassProver {
         outputProofFile();
     }
 
+    /**
+     * Attempts the i-th vc for at most timeout milliseconds, tells the
+     * listeners how it went, and returns its line of the summary.
+     */
+    private String proveAndReport(int i, long timeout) {
+        VerificationConditionCongruenceClosureImpl vcc = m_ccVCs.get(i);
+        String summary = "";
+
+        long startTime = System.nanoTime();
+        boolean proved = prove(vcc, timeout);
+        if (proved) {
+            summary += "Proved ";
+        }
+        else {
+            summary += "Insufficient data to prove ";
+        }
+
+        long endTime = System.nanoTime();
+        long delayNS = endTime - startTime;
+        long delayMS =
+                TimeUnit.MILLISECONDS.convert(delayNS, TimeUnit.NANOSECONDS);
+        summary += vcc.m_name + " time: " + delayMS + " ms\n";
+
+        for (ProverListener l : myProverListeners) {
+            l.vcResult(proved, myModels[i], new Metrics(delayMS, timeout));
+        }
+
+        return summary;
+    }
+
+    /**
+     * Skips the i-th vc because the proving budget ran out before it was
+     * reached, tells the listeners it went unproved with no time to try, and
+     * returns its line of the summary.
+     */
+    private String skipAndReport(int i) {
+        VerificationConditionCongruenceClosureImpl vcc = m_ccVCs.get(i);
+
+        for (ProverListener l : myProverListeners) {
+            l.vcResult(false, myModels[i], new Metrics(0, 0));
+        }
+
+        return "Skipped " + vcc.m_name + " (proving budget spent)\n";
+    }
+
     private String divLine(String label) {
         if (label.length() > 78) {
             label = label.substring(0, 77);
@@ -213,6 +325,11 @@ public class CongruenceClassProver {
     }
 
     protected boolean prove(VerificationConditionCongruenceClosureImpl vcc) {
+        return prove(vcc, myTimeout);
+    }
+
+    protected boolean prove(VerificationConditionCongruenceClosureImpl vcc,
+            long timeout) {
         ArrayList<TheoremCongruenceClosureImpl> allFuncNamesInVC =
                 new ArrayList<TheoremCongruenceClosureImpl>();
 
@@ -235,11 +352,12 @@ public class CongruenceClassProver {
 
         String div = divLine(vcc.m_name);
         String theseResults =
-                div + ("Before application of theorems: " + vcc + "\n");
+                div + RelevanceFilter.describePruned(vcc.m_prunedAntecedents)
+                        + ("Before application of theorems: " + vcc + "\n");
         String thString = "";
         int i;
         long startTime = System.currentTimeMillis();
-        long endTime = myTimeout + startTime;
+        long endTime = timeout + startTime;
         HashSet<String> applied = new HashSet<String>();
 
         for (i = 0; i < MAX_ITERATIONS && !vcc.isProved()
@@ -32,6 +32,8 @@ public class VerificationConditionCongruenceClosureImpl {
 
     private final Registry m_registry;
     public final String m_name;
+    // givens dropped as irrelevant before we see the vc, for reporting
+    public final List<PExp> m_prunedAntecedents;
     private final Antecedent m_antecedent;
     private final Consequent m_consequent;
     private final ConjunctionOfNormalizedAtomicExpressions m_conjunction;
@@ -40,6 +42,7 @@ public class VerificationConditionCongruenceClosureImpl {
     // currently support only unchained equalities, so each sublist is size 2.
     public VerificationConditionCongruenceClosureImpl(TypeGraph g, VC vc) {
         m_name = vc.getName();
+        m_prunedAntecedents = vc.getPrunedAntecedents();
         m_antecedent = vc.getAntecedent();
         m_consequent = vc.getConsequent();
         m_registry = new Registry(g);
@@ -41,9 +41,7 @@ public class ErrorHandler {
 
     private final CompileEnvironment myInstanceEnvironment;
 
-    /* The "true" argument indicates that calls to out.println() will
-     * flush the buffer. */
-    private static PrintWriter err = new PrintWriter(System.err, true);
+    private final PrintWriter myOut;
 
     private int errorCount = 0;
 
@@ -69,6 +67,25 @@ public class ErrorHandler {
     public ErrorHandler(CompileEnvironment env) {
         myInstanceEnvironment = env;
         webOutput = env.flags.isFlagSet(ResolveCompiler.FLAG_WEB);
+
+        /* Each handler has a writer of its own, rather than every compilation
+         * sharing one, and each message is flushed once it is written whole.
+         * Holding messages any longer would let the compiler's direct writes
+         * to System.out and System.err overtake them. */
+        myOut = new PrintWriter(System.err);
+    }
+
+    /**
+     * Creates an error handler whose messages are written to
+     * <code>out</code> rather than to standard error.  Such a handler never
+     * reports to the compile report, so it is suitable for speculative work
+     * (like parsing a module on a background thread) whose diagnostics must
+     * not appear out of order with those of the compilation proper.
+     */
+    public ErrorHandler(CompileEnvironment env, PrintWriter out) {
+        myInstanceEnvironment = env;
+        webOutput = false;
+        myOut = out;
     }
 
     // ===========================================================
@@ -115,7 +132,7 @@ public class ErrorHandler {
     /** Outputs an informational message, not an error or warning. */
     public void message(String msg) {
         if (!myInstanceEnvironment.debugOff()) {
-            err.println(msg);
+            printMessage(msg);
         }
     }
 
@@ -128,7 +145,7 @@ public class ErrorHandler {
         	System.out.println(msg);
         }
         else {*/
-        err.println(msg);
+        printMessage(msg);
         //}
         //}
     }
@@ -234,33 +251,33 @@ public class ErrorHandler {
     /** Outputs a warning message. */
     public void warning(String msg) {
         warningCount++;
-        err.println("Warning:" + filename + ":" + msg);
+        printMessage("Warning:" + filename + ":" + msg);
     }
 
     /** Outputs a positioned warning message. */
     public void warning(Pos pos, String msg) {
         warningCount++;
-        err.println("Warning:" + filename + ":" + pos.getLine() + ","
+        printMessage("Warning:" + filename + ":" + pos.getLine() + ","
                 + pos.getColumn() + ": " + msg);
     }
 
     /** Outputs a positioned warning message. */
     public void warning(Location location, String msg) {
         warningCount++;
-        err.println("Warning: " + location.toString() + ": " + msg);
+        printMessage("Warning: " + location.toString() + ": " + msg);
     }
 
     /** Outputs a panic message as a bug report */
     public void panic(String msg) {
         BugReport bug = new BugReport(msg);
-        err.println("PANIC: " + bug.getReport());
+        printMessage("PANIC: " + bug.getReport());
         throw new RuntimeException();
     }
 
     /** Outputs a positioned panic message as a bug report. */
     public void panic(Pos pos, String msg) {
         BugReport bug = new BugReport(msg);
-        err.println("PANIC: " + pos.getLine() + "," + pos.getColumn() + ": "
+        printMessage("PANIC: " + pos.getLine() + "," + pos.getColumn() + ": "
                 + bug.getReport());
         throw new RuntimeException();
     }
@@ -268,7 +285,7 @@ public class ErrorHandler {
     /** Outputs a positioned panic message as a bug report. */
     public void panic(Location location, String msg) {
         BugReport bug = new BugReport(msg);
-        err.println("PANIC: " + location.toString() + ": " + bug.getReport());
+        printMessage("PANIC: " + location.toString() + ": " + bug.getReport());
         throw new RuntimeException();
     }
 
@@ -387,7 +404,7 @@ public class ErrorHandler {
      */
     public void updateErrorCount() {
         if (errorCount == 0) {
-            err.println();
+            myOut.println();
         }
         if (errorCount == 100) {
             ; // somehow abort, but make sure 100 errors are shown
@@ -423,10 +440,27 @@ public class ErrorHandler {
         return (errorCount > n);
     }
 
+    /**
+     * Writes out anything still buffered by this handler.  Every message is
+     * flushed as it is written, so this is only a precaution.
+     */
+    public void flush() {
+        myOut.flush();
+    }
+
     // ===========================================================
     // Private Methods
     // ===========================================================
 
+    /**
+     * Writes out a message whole, so that nothing printed after it can
+     * appear before it.
+     */
+    private void printMessage(String msg) {
+        myOut.println(msg);
+        myOut.flush();
+    }
+
     public String printErrorLine(File file, Pos pos) {
         String lineOfCode = printLine(file, pos.getLine());
         int posColumn = pos.getColumn() + 1;
@@ -33,6 +33,7 @@ import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTable;
 import edu.clemson.cs.r2jt.scope.ModuleScope;
 import edu.clemson.cs.r2jt.scope.OldSymbolTable;
 import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import edu.clemson.cs.r2jt.verification.AssertiveCodeContext;
 import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
 import edu.clemson.cs.r2jt.utilities.FlagManager;
 
@@ -76,10 +77,13 @@ public class CompileEnvironment {
     private List<File> unparsables = new List<File>();
     private Stack<ModuleID> stack = new Stack<ModuleID>();
     private File mainDir = null;
+    private ModuleFileIndex myModuleFileIndex = null;
     private File targetFile = null;
     private List<String> javaFiles = new List<String>();
     private List<ModuleID> modules = new List<ModuleID>();
     private HashMap<String, MetaFile> myUserFileMap = null;
+    private final AssertiveCodeContext myAssertiveCodeContext =
+            new AssertiveCodeContext();
 
     // -----------------------------------------------------------
     // Compiler flags
@@ -135,6 +139,14 @@ public class CompileEnvironment {
         return err;
     }
 
+    /**
+     * <p>Returns the VC numbering and printing state shared by every
+     * <code>AssertiveCode</code> of this compilation.</p>
+     */
+    public AssertiveCodeContext getAssertiveCodeContext() {
+        return myAssertiveCodeContext;
+    }
+
     public void setSymbolTable(ScopeRepository table) {
         if (table == null) {
             throw new IllegalArgumentException(
@@ -306,6 +318,22 @@ public class CompileEnvironment {
         this.mainDir = mainDir;
     }
 
+    /**
+     * Returns an index of the files under the main directory, built the
+     * first time it is requested, or <code>null</code> if there is no main
+     * directory.
+     */
+    synchronized ModuleFileIndex getModuleFileIndex() {
+        if (mainDir == null) {
+            return null;
+        }
+        if (myModuleFileIndex == null
+                || !myModuleFileIndex.getRoot().equals(mainDir)) {
+            myModuleFileIndex = new ModuleFileIndex(mainDir);
+        }
+        return myModuleFileIndex;
+    }
+
     /** Sets the target file to the specified file. */
     public void setTargetFile(File targetFile) {
         this.targetFile = targetFile;
@@ -13,6 +13,7 @@
 package edu.clemson.cs.r2jt.init;
 
 import java.io.*;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.regex.Matcher;
@@ -46,7 +47,6 @@ import edu.clemson.cs.r2jt.typeandpopulate.NoSuchSymbolException;
 import edu.clemson.cs.r2jt.parsing.*;
 import edu.clemson.cs.r2jt.population.*;
 import edu.clemson.cs.r2jt.processing.*;
-import edu.clemson.cs.r2jt.proving.AlternativeProver;
 import edu.clemson.cs.r2jt.proving.Prover;
 import edu.clemson.cs.r2jt.proving.ProverException;
 import edu.clemson.cs.r2jt.proving.TheoremToVCsConverter;
@@ -55,11 +55,13 @@ import edu.clemson.cs.r2jt.proving.VerificationCondition;
 import edu.clemson.cs.r2jt.sanitycheck.VisitorSanityCheck;
 import edu.clemson.cs.r2jt.scope.OldSymbolTable;
 import edu.clemson.cs.r2jt.proving2.AlgebraicProver;
+import edu.clemson.cs.r2jt.proving2.RelevanceFilter;
 import edu.clemson.cs.r2jt.proving2.VC;
 import edu.clemson.cs.r2jt.verification.AssertiveCode;
 import edu.clemson.cs.r2jt.verification.Verifier;
 import edu.clemson.cs.r2jt.treewalk.*;
 import edu.clemson.cs.r2jt.vcgeneration.VCGenerator;
+import edu.clemson.cs.r2jt.utilities.Flag;
 import edu.clemson.cs.r2jt.utilities.SourceErrorException;
 
 /**
@@ -79,7 +81,11 @@ public class Controller {
     private ErrorHandler err;
 
     //private Archiver arc = Archiver.getInstance();
-    private FileLocator locator = new FileLocator();
+    private final FileLocator locator;
+
+    private final ModuleCache myModuleCache;
+
+    private final ImportPrefetcher myImportPrefetcher;
 
     private File astDumpFile = null;
 
@@ -93,6 +99,16 @@ public class Controller {
         myInstanceEnvironment = e;
         err = e.getErrorHandler();
         myCompileReport = e.getCompileReport();
+        locator = new FileLocator(e);
+
+        File moduleCacheDir = null;
+        if (e.flags.isFlagSet(ModuleCache.FLAG_MODULE_CACHE)) {
+            moduleCacheDir =
+                    new File(e.flags.getFlagArgument(
+                            ModuleCache.FLAG_MODULE_CACHE, "directory"));
+        }
+        myModuleCache = new ModuleCache(moduleCacheDir);
+        myImportPrefetcher = new ImportPrefetcher(e, myModuleCache);
         /*if(myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)){
          myArchive = new Archiver(myInstanceEnvironment);
          }
@@ -894,7 +910,7 @@ public class Controller {
             MathSymbolTableBuilder symbolTable) throws Exception {
         try {
             myInstanceEnvironment.setCurrentTargetFileName(file.getName());
-            ModuleDec dec = buildModuleDec(file);
+            ModuleDec dec = buildImportModuleDec(file);
             ModuleID id = ModuleID.createID(dec);
 
             checkNameCompatibility(dec.getName().getLocation(), id, file);
@@ -966,9 +982,7 @@ public class Controller {
                     importFile.getMyFile(myInstanceEnvironment.getMainDir());
             myInstanceEnvironment.getErrorHandler().setFile(file);
             myInstanceEnvironment.setTargetFile(file);
-            CommonTokenStream tokens = getSourceTokenStream(name, fileSource);
-            CommonTree ast = getParseTree(name, tokens);
-            ModuleDec dec = getModuleDec(ast);
+            ModuleDec dec = buildImportModuleDec(name, fileSource);
             ModuleID id = ModuleID.createID(dec);
 
             //System.out.println(file.toString() + " Controller(772)");
@@ -1033,6 +1047,76 @@ public class Controller {
         return dec;
     }
 
+    /**
+     * <p>Builds the ModuleDec of an imported file, reusing a cached parse tree
+     * if the file hasn't changed since it was last parsed.</p>
+     *
+     * <p>The tree is parsed from the same source that was hashed, so a file
+     * edited between the read and the parse can't be cached under the wrong
+     * key. Only parses without errors are cached; warnings reported by the
+     * first parse are not repeated when a later build hits the cache.</p>
+     */
+    private ModuleDec buildImportModuleDec(File file) throws Exception {
+        String source;
+        try {
+            source = readSource(file);
+        }
+        catch (IOException ioe) {
+            //Let the usual path report the problem
+            return buildModuleDec(file);
+        }
+
+        myImportPrefetcher.await(file);
+
+        String key = ModuleCache.getKey(source);
+        err.setFile(file);
+        CommonTree ast = myModuleCache.load(key);
+        if (ast == null) {
+            CommonTokenStream tokens = getSourceTokenStream(file, source);
+            ast = getParseTree(file.toString(), tokens);
+            myModuleCache.store(key, ast);
+        }
+
+        return getModuleDec(ast);
+    }
+
+    /**
+     * Builds the ModuleDec of an imported user file, reusing a cached parse
+     * tree if the source hasn't changed since it was last parsed.
+     */
+    private ModuleDec buildImportModuleDec(String name, String source)
+            throws Exception {
+        String key = ModuleCache.getKey(source);
+        err.setFilename(name);
+        CommonTree ast = myModuleCache.load(key);
+        if (ast == null) {
+            CommonTokenStream tokens = getSourceTokenStream(name, source);
+            ast = getParseTree(name, tokens);
+            myModuleCache.store(key, ast);
+        }
+
+        return getModuleDec(ast);
+    }
+
+    /**
+     * Reads a file's contents the same way ANTLRFileStream would.
+     */
+    static String readSource(File file) throws IOException {
+        Reader reader = new InputStreamReader(new FileInputStream(file));
+        try {
+            StringBuilder source = new StringBuilder((int) file.length());
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                source.append(buffer, 0, read);
+            }
+            return source.toString();
+        }
+        finally {
+            reader.close();
+        }
+    }
+
     private CommonTree getParseTree(String fileName, CommonTokenStream tokens)
             throws Exception {
         CommonTree ast = null;
@@ -1079,6 +1163,29 @@ public class Controller {
         return tokens;
     }
 
+    private CommonTokenStream getSourceTokenStream(File file, String fileSource) {
+        CharStream cs = null;
+        CommonTokenStream tokens = null;
+        try {
+            err.setFile(file);
+            int initErrorCount = err.getErrorCount();
+            ANTLRStringStream stream = new ANTLRStringStream(fileSource);
+            stream.name = file.getAbsolutePath();
+            cs = stream;
+            RLexer lexer = new RLexer(cs);
+            tokens = new CommonTokenStream();
+            tokens.setTokenSource(lexer);
+            if (err.countExceeds(initErrorCount)) {
+                throw new CompilerException();
+            }
+        }
+        catch (Exception ex) {
+            BugReport.abortProgram(ex, myInstanceEnvironment);
+            myCompileReport.setError();
+        }
+        return tokens;
+    }
+
     private CommonTokenStream getSourceTokenStream(String fileName,
             String fileSource) {
         CharStream cs = null;
@@ -1153,6 +1260,7 @@ public class Controller {
         List<ModuleID> theories = new List<ModuleID>();
         ImportScanner scanner = new ImportScanner(myInstanceEnvironment);
         List<Import> imports = scanner.getImportList(dec);
+        prefetchImports(imports);
         Iterator<Import> i = imports.iterator();
         while (i.hasNext()) {
             Import pid = i.next();
@@ -1184,6 +1292,23 @@ public class Controller {
         }
     }
 
+    /**
+     * Starts parsing, in the background, those imports that can be located
+     * without consulting the environment. They are still compiled one at a
+     * time, in order, by compilePosModule.
+     */
+    private void prefetchImports(List<Import> imports) {
+        for (Import pid : imports) {
+            ModuleID mid = pid.getModuleID();
+            if (mid.getModuleKind() == ModuleKind.USES_ITEM) {
+                myImportPrefetcher.prefetchUsesItem(mid.getName().getName());
+            }
+            else if (mid.getModuleKind() == ModuleKind.CONCEPT) {
+                myImportPrefetcher.prefetchConcept(mid.getName().getName());
+            }
+        }
+    }
+
     private ModuleID guessModuleID(Import pid) {
         ModuleID id = pid.getModuleID();
         if (id.getModuleKind() == ModuleKind.USES_ITEM) {
@@ -1496,8 +1621,7 @@ public class Controller {
         /*MathAnalyzer analyzer = new MathAnalyzer(g, populator.getSymbolTable());
          tw = new TreeWalker(analyzer);
          tw.visit(dec);*/
-        Populator.emitDebug("Type Graph:\n\n"
-                + symbolTable.getTypeGraph().toString());
+        Populator.emitDebug("Type Graph:\n\n", symbolTable.getTypeGraph());
 
         return null;
     }
@@ -1523,28 +1647,48 @@ public class Controller {
             OldSymbolTable table, ModuleDec dec) {
         Verifier verifier =
                 new Verifier(realTable, table, myInstanceEnvironment);
-        verifier.visitModuleDec(dec);
-        verifier.outputAsrt();
+        try {
+            verifier.visitModuleDec(dec);
+            verifier.outputAsrt();
+        }
+        finally {
+            verifier.closeTrace();
+        }
 
-        //Regardless of whether or not we intend to do any proving, we sanity
-        //check resulting VCs so that we fail early if there's a problem.  The
-        //most likely problem is that some Exp in one of the generated VCs got
-        //through without typing information--which would cause the Prover to
-        //(rightly) crash.
         Iterable<VerificationCondition> vcsToProve =
                 getVCsToProve(verifier, dec);
 
-        try {
-            for (VerificationCondition vc : vcsToProve) {
-                AlternativeProver.convertToImmutableVC(vc);
+        //Givens irrelevant to the goal are pruned just once, here, rather than
+        //by each of the provers that use the new VC representation
+        RelevanceFilter relevanceFilter = null;
+        Flag depthFlag = AlgebraicProver.FLAG_RELEVANCE_DEPTH;
+        if (myInstanceEnvironment.flags.isFlagSet(depthFlag)) {
+            String depth =
+                    myInstanceEnvironment.flags.getFlagArgument(depthFlag,
+                            AlgebraicProver.FLAG_RELEVANCE_DEPTH_ARG_NAME);
+
+            try {
+                relevanceFilter = new RelevanceFilter(Integer.parseInt(depth));
+            }
+            catch (IllegalArgumentException iae) {
+                String msg =
+                        "The -relevancedepth flag takes a whole number of "
+                                + "steps, at least 1, but was given \"" + depth
+                                + "\".";
+                err.error(msg);
+                return;
             }
         }
-        catch (Exception e) {
-            throw new RuntimeException("INVARIANT FAILED: Generated VCs are "
-                    + "not valid Prover input!  See 'caused by' Exception for "
-                    + "details.", e);
-        }
-        //End sanity check
+
+        //Regardless of whether or not we intend to do any proving, we sanity
+        //check resulting VCs so that we fail early if there's a problem.  The
+        //most likely problem is that some Exp in one of the generated VCs got
+        //through without typing information--which would cause the Prover to
+        //(rightly) crash.  The check is the one conversion of each VC, and
+        //its results go to whichever prover below uses the new VC
+        //representation.
+        java.util.List<VC> vcs =
+                convertToImmutableVCs(vcsToProve, relevanceFilter);
 
         if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_LEGACY_PROVE)
                 || myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_PROVE)) {
@@ -1552,7 +1696,7 @@ public class Controller {
             try {
                 //Make sure we've got at least one VC to prove so that we don't
                 //waste time and clutter output "proving" sets of zero VCs
-                if (vcsToProve.iterator().hasNext()) {
+                if (!vcs.isEmpty()) {
                     new Prover(vcsToProve, myInstanceEnvironment);
                 }
             }
@@ -1563,17 +1707,21 @@ public class Controller {
         else if (myInstanceEnvironment.flags
                 .isFlagSet(CongruenceClassProver.FLAG_PROVE)) {
             try {
-                java.util.List<VC> vcs = new LinkedList<VC>();
-                for (VerificationCondition originalVC : vcsToProve) {
-                    vcs.add(edu.clemson.cs.r2jt.proving2.Utilities
-                            .convertToImmutableVC(originalVC));
-                }
                 ModuleScope scope =
                         realTable.getModuleScope(new ModuleIdentifier(dec));
-                CongruenceClassProver ccProver =
-                        new CongruenceClassProver(realTable.getTypeGraph(),
-                                vcs, scope, myInstanceEnvironment,
-                                myInstanceEnvironment.getProverListener());
+                CongruenceClassProver ccProver;
+                try {
+                    ccProver =
+                            new CongruenceClassProver(realTable.getTypeGraph(),
+                                    vcs, scope, myInstanceEnvironment,
+                                    myInstanceEnvironment.getProverListener());
+                }
+                catch (IllegalArgumentException iae) {
+                    //A bad -provingbudget
+                    err.error(iae.getMessage());
+                    return;
+                }
+
                 try {
                     ccProver.start();
                 }
@@ -1592,12 +1740,6 @@ public class Controller {
                 ModuleScope scope =
                         realTable.getModuleScope(new ModuleIdentifier(dec));
 
-                java.util.List<VC> vcs = new LinkedList<VC>();
-                for (VerificationCondition originalVC : vcsToProve) {
-                    vcs.add(edu.clemson.cs.r2jt.proving2.Utilities
-                            .convertToImmutableVC(originalVC));
-                }
-
                 AlgebraicProver prover =
                         new AlgebraicProver(
                                 realTable.getTypeGraph(),
@@ -1622,6 +1764,33 @@ public class Controller {
         }
     }
 
+    /**
+     * <p>Converts each of <code>vcs</code>, in a single pass, to the immutable
+     * representation used by the provers, pruning irrelevant givens with
+     * <code>relevanceFilter</code> unless it is <code>null</code>.  Any VC
+     * that can't be converted is an invariant failure of the VC
+     * generator.</p>
+     */
+    private static java.util.List<VC> convertToImmutableVCs(
+            Iterable<VerificationCondition> vcs, RelevanceFilter relevanceFilter) {
+
+        java.util.List<VC> result = new ArrayList<VC>();
+
+        try {
+            for (VerificationCondition vc : vcs) {
+                result.add(edu.clemson.cs.r2jt.proving2.Utilities
+                        .convertToImmutableVC(vc, relevanceFilter));
+            }
+        }
+        catch (Exception e) {
+            throw new RuntimeException("INVARIANT FAILED: Generated VCs are "
+                    + "not valid Prover input!  See 'caused by' Exception for "
+                    + "details.", e);
+        }
+
+        return result;
+    }
+
     private Iterable<VerificationCondition> getVCsToProve(Verifier verifier,
             ModuleDec verificationTarget) {
         ModuleDec targetDec =
@@ -1668,7 +1837,17 @@ public class Controller {
         if ((thisFile.equals(targetFile)) || translator.needToTranslate(file)) {
             TreeWalker tw = new TreeWalker(translator);
             tw.visit(dec);
-            translator.outputCode(file);
+
+            // The web IDE only wants the jar, so there the translation needn't
+            // go through the disk at all
+            if (myArchive != null
+                    && myInstanceEnvironment.flags
+                            .isFlagSet(ResolveCompiler.FLAG_WEB)) {
+                myArchive.addTranslatedSource(file, translator.getOutput());
+            }
+            else {
+                translator.outputCode(file);
+            }
         }
     }
 
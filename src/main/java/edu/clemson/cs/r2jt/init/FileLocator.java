@@ -20,12 +20,27 @@ import edu.clemson.cs.r2jt.errors.*;
 
 public class FileLocator {
 
+    // ===========================================================
+    // Variables
+    // ===========================================================
+
+    private final CompileEnvironment myInstanceEnvironment;
+
     // ===========================================================
     // Constructors
     // ===========================================================
 
     public FileLocator() {
-        ;
+        this(null);
+    }
+
+    /**
+     * Creates a locator that searches the main directory of the given
+     * environment through that environment's shared file index, rather
+     * than by listing the directory tree on every search.
+     */
+    public FileLocator(CompileEnvironment env) {
+        myInstanceEnvironment = env;
     }
 
     // ===========================================================
@@ -122,6 +137,17 @@ public class FileLocator {
     // ===========================================================
 
     private List<File> recursivelyLocateFiles(String name, File dir) {
+        if (myInstanceEnvironment != null) {
+            ModuleFileIndex index = myInstanceEnvironment.getModuleFileIndex();
+            if (index != null && index.covers(dir)) {
+                return index.getFiles(name, dir);
+            }
+        }
+
+        return scanFiles(name, dir);
+    }
+
+    private List<File> scanFiles(String name, File dir) {
         List<File> resultFiles = new List<File>();
         File[] fileArray = dir.listFiles();
         List<File> files = new List<File>();
@@ -133,7 +159,7 @@ public class FileLocator {
         while (i.hasNext()) {
             File file = i.next();
             if (file.isDirectory()) {
-                resultFiles.addAll(recursivelyLocateFiles(name, file));
+                resultFiles.addAll(scanFiles(name, file));
             }
             else if (file.getName().equals(name)) {
                 resultFiles.add(file);
@@ -0,0 +1,349 @@
+/**
+ * ImportPrefetcher.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.antlr.runtime.ANTLRStringStream;
+import org.antlr.runtime.CharStream;
+import org.antlr.runtime.CommonTokenStream;
+import org.antlr.runtime.RecognitionException;
+import org.antlr.runtime.tree.CommonTree;
+import org.antlr.runtime.tree.CommonTreeAdaptor;
+import org.antlr.runtime.tree.Tree;
+
+import edu.clemson.cs.r2jt.data.ModuleID;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.errors.ErrorHandler;
+import edu.clemson.cs.r2jt.parsing.RLexer;
+import edu.clemson.cs.r2jt.parsing.RParser;
+import edu.clemson.cs.r2jt.utilities.Flag;
+import edu.clemson.cs.r2jt.utilities.ThreadOutput;
+
+/**
+ * <p>An <code>ImportPrefetcher</code> parses the modules a compilation is
+ * going to import on background threads, ahead of the
+ * {@link Controller Controller} getting to them.</p>
+ *
+ * <p>The <code>Controller</code> must still visit imports one at a time, in
+ * order, since the environment, the error handler and the
+ * <code>MathSymbolTableBuilder</code> all depend on it.  But lexing and
+ * parsing a module depends on nothing but its source, so as soon as a module's
+ * imports are known, each of them is located and parsed in parallel, and the
+ * imports of <em>those</em> modules are found in their parse trees and
+ * scheduled in turn, so independent branches of the import graph are parsed
+ * concurrently.  The resulting trees are left in the {@link ModuleCache
+ * ModuleCache}, where the <code>Controller</code> finds them once it reaches
+ * the corresponding import; if it gets there first, it simply waits for the
+ * parse in progress rather than starting another.</p>
+ *
+ * <p>Prefetching is purely speculative and has no visible effects.  Background
+ * lexers only count their errors and background parsers report to a private
+ * error handler, and a tree is only cached if neither produced any errors or
+ * warnings whatsoever, so every diagnostic is
+ * still reported by the <code>Controller</code>'s own parse, in the same order
+ * as a sequential compilation.  Likewise, a module that cannot be located
+ * unambiguously is simply not prefetched, and left for the
+ * <code>Controller</code> to report.</p>
+ */
+public class ImportPrefetcher {
+
+    // ===========================================================
+    // Flags
+    // ===========================================================
+
+    private static final String FLAG_SECTION_NAME = "General";
+
+    private static final String FLAG_DESC_NO_PARALLEL_IMPORTS =
+            "Parse imported modules one at a time, as they are reached.";
+
+    /**
+     * <p>Tells the compiler not to parse imported modules on background
+     * threads.</p>
+     */
+    public static final Flag FLAG_NO_PARALLEL_IMPORTS =
+            new Flag(FLAG_SECTION_NAME, "noParallelImports",
+                    FLAG_DESC_NO_PARALLEL_IMPORTS, Flag.Type.HIDDEN);
+
+    // ===========================================================
+    // Variables
+    // ===========================================================
+
+    /**
+     * <p>Parsing threads shared by every prefetcher in this process.  They are
+     * daemons so that an idle pool never keeps the compiler alive.</p>
+     */
+    private static final ExecutorService WORKERS =
+            Executors.newFixedThreadPool(Runtime.getRuntime()
+                    .availableProcessors(), new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+                    Thread result = new Thread(r, "Import prefetcher");
+                    result.setDaemon(true);
+                    return result;
+                }
+            });
+
+    private final CompileEnvironment myInstanceEnvironment;
+
+    private final ModuleCache myModuleCache;
+
+    private final FileLocator myLocator;
+
+    /**
+     * <p>Names of the uses items and concepts that have already been
+     * scheduled, so each is only located once.</p>
+     */
+    private final Map<String, Boolean> myRequestedNames =
+            new HashMap<String, Boolean>();
+
+    /**
+     * <p>The outstanding (or completed) parse of each scheduled file.</p>
+     */
+    private final Map<File, Future<?>> myParses =
+            new HashMap<File, Future<?>>();
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    public ImportPrefetcher(CompileEnvironment env, ModuleCache cache) {
+        myInstanceEnvironment = env;
+        myModuleCache = cache;
+        myLocator = new FileLocator(env);
+    }
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    public static final void setUpFlags() {
+
+    }
+
+    /**
+     * <p>Schedules the module imported by a uses item named
+     * <code>name</code>--a concept, facility or theory--and, transitively, its
+     * own imports.</p>
+     */
+    public void prefetchUsesItem(String name) {
+        PosSymbol ps = new PosSymbol(null, Symbol.symbol(name));
+
+        prefetch("uses " + name, ModuleID.createConceptID(ps).getFilename(),
+                ModuleID.createFacilityID(ps).getFilename(), ModuleID
+                        .createTheoryID(ps).getFilename());
+    }
+
+    /**
+     * <p>Schedules the concept named <code>name</code> and, transitively, its
+     * own imports.</p>
+     */
+    public void prefetchConcept(String name) {
+        PosSymbol ps = new PosSymbol(null, Symbol.symbol(name));
+        String filename = ModuleID.createConceptID(ps).getFilename();
+
+        prefetch("concept " + name, filename, null, null);
+    }
+
+    /**
+     * <p>Waits for any background parse of <code>file</code> to finish, so
+     * that its tree is in the <code>ModuleCache</code> if the parse was
+     * clean.  Returns immediately if <code>file</code> was never
+     * scheduled.</p>
+     */
+    public void await(File file) {
+        Future<?> parse;
+        synchronized (this) {
+            parse = myParses.get(file.getAbsoluteFile());
+        }
+
+        if (parse != null) {
+            try {
+                parse.get();
+            }
+            catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            catch (ExecutionException ee) {
+                //Nothing was cached, so the caller will just parse it again
+            }
+        }
+    }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    private void prefetch(String requestKey, final String name1,
+            final String name2, final String name3) {
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_NO_PARALLEL_IMPORTS)) {
+            return;
+        }
+
+        final File mainDir = myInstanceEnvironment.getMainDir();
+        if (mainDir == null) {
+            return;
+        }
+
+        synchronized (this) {
+            if (myRequestedNames.put(requestKey, Boolean.TRUE) != null) {
+                return;
+            }
+        }
+
+        WORKERS.submit(ThreadOutput.inheritOutput(new Runnable() {
+
+            public void run() {
+                File file = locate(name1, name2, name3, mainDir);
+
+                if (file != null) {
+                    schedule(file.getAbsoluteFile());
+                }
+            }
+        }));
+    }
+
+    private File locate(String name1, String name2, String name3, File dir) {
+        File result;
+
+        try {
+            if (name2 == null) {
+                result = myLocator.locateFileInTree(name1, dir);
+            }
+            else {
+                result = myLocator.locateFileInTree(name1, name2, name3, dir);
+            }
+        }
+        catch (FileLocatorException fle) {
+            //The Controller will report this when it gets there
+            result = null;
+        }
+
+        return result;
+    }
+
+    private synchronized void schedule(final File file) {
+        if (!myParses.containsKey(file)) {
+            Runnable parse = ThreadOutput.inheritOutput(new Runnable() {
+
+                public void run() {
+                    parse(file);
+                }
+            });
+
+            myParses.put(file, WORKERS.submit(parse));
+        }
+    }
+
+    private void parse(File file) {
+        String source;
+        try {
+            source = Controller.readSource(file);
+        }
+        catch (IOException ioe) {
+            return;
+        }
+
+        String key = ModuleCache.getKey(source);
+        CommonTree ast = myModuleCache.load(key);
+
+        if (ast == null) {
+            ErrorHandler quiet =
+                    new ErrorHandler(myInstanceEnvironment, new PrintWriter(
+                            new StringWriter()));
+            quiet.setFile(file);
+            quiet.setFilename(file.getName());
+
+            QuietLexer lexer = new QuietLexer(new ANTLRStringStream(source));
+            try {
+                RParser parser = new RParser(new CommonTokenStream(lexer));
+                parser.setTreeAdaptor(new CommonTreeAdaptor());
+                ast = parser.module(quiet).getTree();
+            }
+            catch (Exception e) {
+                ast = null;
+            }
+
+            if (ast == null || lexer.getErrorCount() > 0
+                    || quiet.getErrorCount() > 0 || quiet.getWarningCount() > 0) {
+                //Leave it to the Controller, which reports these properly
+                return;
+            }
+
+            myModuleCache.store(key, ast);
+        }
+
+        prefetchImports(ast);
+    }
+
+    /**
+     * <p>Schedules the modules named by the uses clauses and facility
+     * declarations found in a module's parse tree.</p>
+     */
+    private void prefetchImports(Tree ast) {
+        int type = ast.getType();
+
+        if (type == RParser.USES) {
+            for (int i = 0; i < ast.getChildCount(); i++) {
+                prefetchUsesItem(ast.getChild(i).getText());
+            }
+        }
+        else {
+            if (type == RParser.FACILITY && ast.getChildCount() > 1
+                    && ast.getChild(1).getChildCount() == 0) {
+                //In a facility declaration, the concept follows the name
+                prefetchConcept(ast.getChild(1).getText());
+            }
+
+            for (int i = 0; i < ast.getChildCount(); i++) {
+                prefetchImports(ast.getChild(i));
+            }
+        }
+    }
+
+    /**
+     * <p>A lexer that counts its errors rather than printing them.  An
+     * <code>RLexer</code> prints errors straight to <code>System.err</code>,
+     * which from a background thread would put them out of order with the
+     * rest of the compilation's diagnostics.</p>
+     */
+    private static class QuietLexer extends RLexer {
+
+        private int myErrorCount = 0;
+
+        public QuietLexer(CharStream input) {
+            super(input);
+        }
+
+        @Override
+        public void reportError(RecognitionException e) {
+            myErrorCount++;
+        }
+
+        public int getErrorCount() {
+            return myErrorCount;
+        }
+    }
+}
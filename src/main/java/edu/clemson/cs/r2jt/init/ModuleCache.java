@@ -0,0 +1,379 @@
+/**
+ * ModuleCache.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.init;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.antlr.runtime.CommonToken;
+import org.antlr.runtime.Token;
+import org.antlr.runtime.tree.CommonTree;
+
+import edu.clemson.cs.r2jt.parsing.RParser;
+import edu.clemson.cs.r2jt.utilities.Flag;
+
+/**
+ * <p>A <code>ModuleCache</code> remembers the parse trees of imported modules
+ * between compilations, so that the standard library (and any other module
+ * whose source hasn't changed) need not be lexed and parsed again every time
+ * it is imported.</p>
+ *
+ * <p>Entries are keyed by a hash of the module's source text together with
+ * the version of the compiler's parser, so a changed file or a rebuilt grammar
+ * simply misses the cache.  Parse trees are kept in a process-wide memory
+ * cache and, if the <code>moduleCache</code> flag names a directory, persisted
+ * there so that they survive from one run of the compiler to the next.</p>
+ *
+ * <p>Only parse trees are cached.  Each use produces a fresh tree, from which
+ * a fresh <code>ModuleDec</code> is built and populated into the current
+ * symbol table as usual, since neither the AST nor the symbol table may be
+ * shared between compilations.</p>
+ */
+public class ModuleCache {
+
+    // ===========================================================
+    // Flags
+    // ===========================================================
+
+    private static final String FLAG_SECTION_NAME = "General";
+
+    private static final String FLAG_DESC_MODULE_CACHE =
+            "Cache the parse trees of imported modules in the given directory "
+                    + "so that later compilations need not parse them again.";
+
+    private static final String[] FLAG_MODULE_CACHE_ARGS = { "directory" };
+
+    /**
+     * <p>Tells the compiler to persist the parse trees of imported modules
+     * in the given directory.</p>
+     */
+    public static final Flag FLAG_MODULE_CACHE =
+            new Flag(FLAG_SECTION_NAME, "moduleCache", FLAG_DESC_MODULE_CACHE,
+                    FLAG_MODULE_CACHE_ARGS, Flag.Type.HIDDEN);
+
+    // ===========================================================
+    // Variables
+    // ===========================================================
+
+    private static final int MAGIC = 0x52534d43;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int MAX_MEMORY_ENTRIES = 512;
+
+    private static final String COMPILER_VERSION = computeCompilerVersion();
+
+    /**
+     * <p>Serialized trees shared by every <code>ModuleCache</code> in this
+     * process, most recently used last.</p>
+     */
+    private static final Map<String, byte[]> MEMORY_CACHE =
+            new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, byte[]> eldest) {
+                    return size() > MAX_MEMORY_ENTRIES;
+                }
+            };
+
+    private final File myDirectory;
+
+    // ===========================================================
+    // Constructors
+    // ===========================================================
+
+    /**
+     * <p>Creates a cache that persists parse trees in <code>directory</code>,
+     * or keeps them only in memory if <code>directory</code> is
+     * <code>null</code>.</p>
+     */
+    public ModuleCache(File directory) {
+        myDirectory = directory;
+
+        if (myDirectory != null && !myDirectory.isDirectory()) {
+            myDirectory.mkdirs();
+        }
+    }
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    public static final void setUpFlags() {
+
+    }
+
+    /**
+     * <p>Returns the cache key for a module with the given source.</p>
+     */
+    public static String getKey(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(COMPILER_VERSION.getBytes("UTF-8"));
+            digest.update(source.getBytes("UTF-8"));
+
+            StringBuilder key = new StringBuilder();
+            for (byte b : digest.digest()) {
+                key
+                        .append(Integer.toHexString((b & 0xff) | 0x100)
+                                .substring(1));
+            }
+
+            return key.toString();
+        }
+        catch (NoSuchAlgorithmException nsae) {
+            //Every Java platform is required to support SHA-1
+            throw new RuntimeException(nsae);
+        }
+        catch (UnsupportedEncodingException uee) {
+            //Every Java platform is required to support UTF-8
+            throw new RuntimeException(uee);
+        }
+    }
+
+    /**
+     * <p>Returns a fresh copy of the parse tree cached under
+     * <code>key</code>, or <code>null</code> if there is none.</p>
+     */
+    public CommonTree load(String key) {
+        byte[] data;
+
+        synchronized (MEMORY_CACHE) {
+            data = MEMORY_CACHE.get(key);
+        }
+
+        if (data == null && myDirectory != null) {
+            data = readFile(getCacheFile(key));
+
+            if (data != null) {
+                synchronized (MEMORY_CACHE) {
+                    MEMORY_CACHE.put(key, data);
+                }
+            }
+        }
+
+        CommonTree result = null;
+        if (data != null) {
+            try {
+                result = readTree(data);
+            }
+            catch (IOException ioe) {
+                //A corrupt or out-of-date entry is just a miss
+                result = null;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Caches <code>ast</code> under <code>key</code>.  Failure to cache
+     * the tree is silently ignored, since the cache is only an
+     * optimization.</p>
+     */
+    public void store(String key, CommonTree ast) {
+        byte[] data;
+        try {
+            data = writeTree(ast);
+        }
+        catch (IOException ioe) {
+            //Only possible if some token's text is too long to serialize
+            return;
+        }
+
+        synchronized (MEMORY_CACHE) {
+            MEMORY_CACHE.put(key, data);
+        }
+
+        if (myDirectory != null) {
+            writeFile(getCacheFile(key), data);
+        }
+    }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>The version of the parser, so that trees produced by a different
+     * grammar are never reused.</p>
+     */
+    private static String computeCompilerVersion() {
+        CRC32 crc = new CRC32();
+        crc.update(FORMAT_VERSION);
+
+        for (String tokenName : RParser.tokenNames) {
+            crc.update(tokenName.getBytes());
+        }
+
+        byte[] parserClass =
+                readStream(RParser.class.getResourceAsStream("RParser.class"));
+        if (parserClass != null) {
+            crc.update(parserClass);
+        }
+
+        return Long.toHexString(crc.getValue());
+    }
+
+    private File getCacheFile(String key) {
+        return new File(myDirectory, key + ".ast");
+    }
+
+    private static byte[] readFile(File file) {
+        byte[] result = null;
+
+        if (file.isFile()) {
+            try {
+                result = readStream(new FileInputStream(file));
+            }
+            catch (FileNotFoundException fnfe) {
+                //Removed out from under us--just a miss
+            }
+        }
+
+        return result;
+    }
+
+    private static byte[] readStream(InputStream in) {
+        byte[] result = null;
+
+        if (in != null) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    bytes.write(buffer, 0, read);
+                }
+
+                result = bytes.toByteArray();
+            }
+            catch (IOException ioe) {
+                result = null;
+            }
+            finally {
+                try {
+                    in.close();
+                }
+                catch (IOException ioe) {}
+            }
+        }
+
+        return result;
+    }
+
+    private static void writeFile(File file, byte[] data) {
+        //Write to a temporary file and rename, so that a concurrent reader
+        //never sees a partially written entry
+        File temp = null;
+        try {
+            temp =
+                    File.createTempFile(file.getName(), ".tmp", file
+                            .getParentFile());
+            FileOutputStream out = new FileOutputStream(temp);
+            try {
+                out.write(data);
+            }
+            finally {
+                out.close();
+            }
+
+            if (!temp.renameTo(file)) {
+                temp.delete();
+            }
+        }
+        catch (IOException ioe) {
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static byte[] writeTree(CommonTree ast) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeInt(MAGIC);
+        out.writeUTF(COMPILER_VERSION);
+        writeNode(ast, out);
+        out.close();
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeNode(CommonTree node, DataOutputStream out)
+            throws IOException {
+
+        Token token = node.getToken();
+        out.writeBoolean(token != null);
+
+        if (token != null) {
+            out.writeInt(token.getType());
+            out.writeInt(token.getLine());
+            out.writeInt(token.getCharPositionInLine());
+
+            String text = token.getText();
+            out.writeBoolean(text != null);
+            if (text != null) {
+                out.writeUTF(text);
+            }
+        }
+
+        int childCount = node.getChildCount();
+        out.writeInt(childCount);
+        for (int i = 0; i < childCount; i++) {
+            writeNode((CommonTree) node.getChild(i), out);
+        }
+    }
+
+    private static CommonTree readTree(byte[] data) throws IOException {
+        DataInputStream in =
+                new DataInputStream(new ByteArrayInputStream(data));
+
+        if (in.readInt() != MAGIC || !in.readUTF().equals(COMPILER_VERSION)) {
+            throw new IOException("Stale module cache entry.");
+        }
+
+        return readNode(in);
+    }
+
+    private static CommonTree readNode(DataInputStream in) throws IOException {
+        CommonToken token = null;
+
+        if (in.readBoolean()) {
+            token = new CommonToken(in.readInt());
+            token.setLine(in.readInt());
+            token.setCharPositionInLine(in.readInt());
+
+            if (in.readBoolean()) {
+                token.setText(in.readUTF());
+            }
+        }
+
+        CommonTree result = new CommonTree(token);
+
+        int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            result.addChild(readNode(in));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+/**
+ * ModuleFileIndex.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.init;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.collections.List;
+
+/**
+ * <p>A <code>ModuleFileIndex</code> is a snapshot of every file in a
+ * directory tree, indexed by file name, so that the {@link FileLocator
+ * FileLocator} can find a module's file without listing the whole tree
+ * again for every import.</p>
+ *
+ * <p>For each name, the index remembers files in exactly the order a
+ * recursive walk of the tree would encounter them, and answers lookups in
+ * any subdirectory of its root with <code>File</code>s whose paths are
+ * spelled exactly as that walk would have spelled them, so that results
+ * (and the diagnostics built from them) are indistinguishable from a fresh
+ * scan.</p>
+ *
+ * <p>The snapshot is taken once, when the index is built, so it is meant to
+ * live no longer than a single compilation.  Once built, an index is never
+ * modified, and may be shared between threads.</p>
+ */
+class ModuleFileIndex {
+
+    private final File myRoot;
+
+    private final String myRootPath;
+
+    /**
+     * <p>Maps each file name to the paths, relative to the root, of every
+     * file with that name, in walk order.</p>
+     */
+    private final Map<String, java.util.List<String>> myRelativePaths =
+            new HashMap<String, java.util.List<String>>();
+
+    public ModuleFileIndex(File root) {
+        myRoot = root;
+        myRootPath = root.getAbsolutePath();
+
+        index(root, "");
+    }
+
+    public File getRoot() {
+        return myRoot;
+    }
+
+    /**
+     * <p>Returns <code>true</code> iff <code>dir</code> is the root of this
+     * index or one of its subdirectories.</p>
+     */
+    public boolean covers(File dir) {
+        return getRelativePath(dir) != null;
+    }
+
+    /**
+     * <p>Returns every file named <code>name</code> in the tree rooted at
+     * <code>dir</code>, in the order a recursive walk of <code>dir</code>
+     * would find them.  <code>dir</code> must be
+     * {@link #covers(File) covered} by this index.</p>
+     */
+    public List<File> getFiles(String name, File dir) {
+        List<File> result = new List<File>();
+
+        String prefix = getRelativePath(dir);
+        java.util.List<String> paths = myRelativePaths.get(name);
+
+        if (paths != null) {
+            for (String path : paths) {
+                if (path.startsWith(prefix)) {
+                    result.add(new File(dir, path.substring(prefix.length())));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns the path of <code>dir</code> relative to the root, with a
+     * trailing separator unless it is the root itself, or <code>null</code>
+     * if it isn't inside this index.</p>
+     */
+    private String getRelativePath(File dir) {
+        String result = null;
+        String dirPath = dir.getAbsolutePath();
+
+        if (dirPath.equals(myRootPath)) {
+            result = "";
+        }
+        else if (dirPath.startsWith(myRootPath + File.separator)) {
+            result =
+                    dirPath.substring(myRootPath.length() + 1) + File.separator;
+        }
+
+        return result;
+    }
+
+    private void index(File dir, String relativeDir) {
+        File[] fileArray = dir.listFiles();
+
+        if (fileArray != null) {
+            for (int i = 0; i < fileArray.length; i++) {
+                File file = fileArray[i];
+                String relativePath = relativeDir + file.getName();
+
+                if (file.isDirectory()) {
+                    index(file, relativePath + File.separator);
+                }
+                else {
+                    java.util.List<String> paths =
+                            myRelativePaths.get(file.getName());
+
+                    if (paths == null) {
+                        paths = new ArrayList<String>(1);
+                        myRelativePaths.put(file.getName(), paths);
+                    }
+
+                    paths.add(relativePath);
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ import edu.clemson.cs.r2jt.typeandpopulate.ModuleIdentifier;
 import edu.clemson.cs.r2jt.typeandpopulate.ModuleScopeBuilder;
 import edu.clemson.cs.r2jt.typeandpopulate.NoSolutionException;
 import edu.clemson.cs.r2jt.typeandpopulate.NoSuchSymbolException;
+import edu.clemson.cs.r2jt.typeandpopulate.ScopeBuilder;
 import edu.clemson.cs.r2jt.typeandpopulate.SymbolNotOfKindTypeException;
 import edu.clemson.cs.r2jt.typeandpopulate.entry.MathSymbolEntry;
 import edu.clemson.cs.r2jt.typeandpopulate.entry.OperationEntry;
@@ -57,7 +58,9 @@ import edu.clemson.cs.r2jt.typereasoning.*;
 import edu.clemson.cs.r2jt.utilities.HardCoded;
 import edu.clemson.cs.r2jt.utilities.Indirect;
 import edu.clemson.cs.r2jt.utilities.SourceErrorException;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Deque;
 import java.util.HashMap;
@@ -188,6 +191,16 @@ public class Populator extends TreeWalkerVisitor {
 
     private PosSymbol myFacilityQualifier;
 
+    /**
+     * <p>What we've learned so far about resolving function applications, so
+     * that the thousands of applications of the same operator to arguments of
+     * the same types in a theory needn't each search for and deschematize
+     * every candidate again.  See {@link #getFunctionResolution
+     * getFunctionResolution()}.</p>
+     */
+    private final Map<FunctionResolutionKey, FunctionResolution> myFunctionResolutions =
+            new HashMap<FunctionResolutionKey, FunctionResolution>();
+
     public Populator(MathSymbolTableBuilder builder) {
         myActiveQuantifications.push(SymbolTableEntry.Quantification.NONE);
 
@@ -213,8 +226,8 @@ public class Populator extends TreeWalkerVisitor {
 
     @Override
     public void preModuleDec(ModuleDec node) {
-        Populator.emitDebug("----------------------\nModule: "
-                + node.getName().getName() + "\n----------------------");
+        Populator.emitDebug("----------------------\nModule: ", node.getName()
+                .getName(), "\n----------------------");
         myCurModuleScope = myBuilder.startModuleScope(node);
     }
 
@@ -315,7 +328,7 @@ public class Populator extends TreeWalkerVisitor {
     @Override
     public void preLambdaExp(LambdaExp l) {
         myBuilder.startScope(l);
-        emitDebug("Lambda Expression: " + l);
+        emitDebug("Lambda Expression: ", l);
     }
 
     @Override
@@ -1027,7 +1040,7 @@ public class Populator extends TreeWalkerVisitor {
 
         myDefinitionSchematicTypes.clear();
 
-        Populator.emitDebug("New theorem: " + name);
+        Populator.emitDebug("New theorem: ", name);
     }
 
     @Override
@@ -1070,8 +1083,8 @@ public class Populator extends TreeWalkerVisitor {
         addBinding(varName, node.getName().getLocation(), q, node,
                 mathTypeValue, null);
 
-        Populator.emitDebug("  New variable: " + varName + " of type "
-                + mathTypeValue.toString() + " with quantification " + q + ".");
+        Populator.emitDebug("  New variable: ", varName, " of type ",
+                mathTypeValue, " with quantification ", q, ".");
     }
 
     @Override
@@ -1090,8 +1103,8 @@ public class Populator extends TreeWalkerVisitor {
             duplicateSymbol(varName, programVar.getLocation());
         }
 
-        Populator.emitDebug("  New program variable: " + varName + " of type "
-                + mathTypeValue.toString() + " with quantification NONE");
+        Populator.emitDebug("  New program variable: ", varName, " of type ",
+                mathTypeValue, " with quantification NONE");
     }
 
     @Override
@@ -1236,8 +1249,8 @@ public class Populator extends TreeWalkerVisitor {
                     myDefinitionSchematicTypes.put(nodeExp.getName().getName(),
                             node.getAssertedTy().getMathType());
 
-                    Populator.emitDebug("Added schematic variable: "
-                            + nodeExp.getName().getName());
+                    Populator.emitDebug("Added schematic variable: ", nodeExp
+                            .getName().getName());
                 }
                 catch (DuplicateSymbolException dse) {
                     duplicateSymbol(nodeExp.getName().getName(), nodeExp
@@ -1308,9 +1321,11 @@ public class Populator extends TreeWalkerVisitor {
         addBinding(definitionSymbol, node.getName().getLocation(), node,
                 declaredType, typeValue, myDefinitionSchematicTypes);
 
-        Populator.emitDebug("New definition: " + definitionSymbol + " of type "
-                + declaredType
-                + ((typeValue != null) ? " with type value " + typeValue : ""));
+        if (PRINT_DEBUG) {
+            emitDebug("New definition: ", definitionSymbol, " of type ",
+                    declaredType, (typeValue != null) ? " with type value "
+                            + typeValue : "");
+        }
 
         myCurrentDirectDefinition = null;
         myDefinitionSchematicTypes.clear();
@@ -1497,12 +1512,11 @@ public class Populator extends TreeWalkerVisitor {
     @Override
     public void postAbstractFunctionExp(AbstractFunctionExp foundExp) {
 
-        MTFunction foundExpType;
-        foundExpType = foundExp.getConservativePreApplicationType(myTypeGraph);
-
-        Populator.emitDebug("Expression: " + foundExp.toString() + "("
-                + foundExp.getLocation() + ") " + " of type "
-                + foundExpType.toString());
+        if (PRINT_DEBUG) {
+            emitDebug("Expression: ", foundExp, "(", foundExp.getLocation(),
+                    ") ", " of type ", foundExp
+                            .getConservativePreApplicationType(myTypeGraph));
+        }
 
         MathSymbolEntry intendedEntry = getIntendedFunction(foundExp);
 
@@ -1670,6 +1684,9 @@ public class Populator extends TreeWalkerVisitor {
                 myTypeGraph.addRelationship(bindingExpression, typeExp
                         .getMathTypeValue(), condition, myBuilder
                         .getInnermostActiveScope());
+
+                //Deschematizing may now succeed where it failed before
+                myFunctionResolutions.clear();
             }
             catch (IllegalArgumentException iae) {
                 throw new SourceErrorException(iae.getMessage(), node
@@ -2328,6 +2345,25 @@ public class Populator extends TreeWalkerVisitor {
         }
     }
 
+    /**
+     * <p>Prints the concatenation of <code>messageParts</code>, but only if
+     * debugging output is on.  Otherwise nothing is converted to a string,
+     * so callers should pass the objects they want described--often entire
+     * types or expressions--rather than building the message themselves.
+     * Anything costly to compute that isn't simply <code>toString()</code>ed
+     * should still be guarded by <code>PRINT_DEBUG</code>.</p>
+     */
+    public static void emitDebug(Object... messageParts) {
+        if (PRINT_DEBUG) {
+            StringBuilder msg = new StringBuilder();
+            for (Object part : messageParts) {
+                msg.append(part);
+            }
+
+            System.out.println(msg);
+        }
+    }
+
     private MathSymbolEntry getIntendedEntry(PosSymbol qualifier,
             String symbolName, Exp node) {
 
@@ -2381,17 +2417,20 @@ public class Populator extends TreeWalkerVisitor {
 
         setSymbolTypeValue(node, symbolName, intendedEntry);
 
-        String typeValueDesc = "";
+        if (PRINT_DEBUG) {
+            String typeValueDesc = "";
+
+            if (node.getMathTypeValue() != null) {
+                typeValueDesc =
+                        ", referencing math type " + node.getMathTypeValue()
+                                + " (" + node.getMathTypeValue().getClass()
+                                + ")";
+            }
 
-        if (node.getMathTypeValue() != null) {
-            typeValueDesc =
-                    ", referencing math type " + node.getMathTypeValue() + " ("
-                            + node.getMathTypeValue().getClass() + ")";
+            emitDebug("Processed symbol ", symbolName, " with type ", node
+                    .getMathType(), typeValueDesc);
         }
 
-        Populator.emitDebug("Processed symbol " + symbolName + " with type "
-                + node.getMathType() + typeValueDesc);
-
         return intendedEntry;
     }
 
@@ -2406,16 +2445,8 @@ public class Populator extends TreeWalkerVisitor {
         //TODO : All this logic should be encapsulated into a SymbolQuery called
         //       MathFunctionQuery.
 
-        MTFunction eType = e.getConservativePreApplicationType(myTypeGraph);
-
-        PosSymbol eOperator =
-                ((AbstractFunctionExp) e).getOperatorAsPosSymbol();
-        String eOperatorString = eOperator.getSymbol().getName();
-
-        List<MathSymbolEntry> sameNameFunctions =
-                myBuilder.getInnermostActiveScope().query(
-                        new MathFunctionNamedQuery(e.getQualifier(), e
-                                .getOperatorAsPosSymbol()));
+        FunctionResolution resolution = getFunctionResolution(e);
+        List<MathSymbolEntry> sameNameFunctions = resolution.getCandidates();
 
         if (sameNameFunctions.isEmpty()) {
             throw new SourceErrorException("No such function.", e.getLocation());
@@ -2423,13 +2454,16 @@ public class Populator extends TreeWalkerVisitor {
 
         MathSymbolEntry intendedEntry;
         try {
-            intendedEntry = getExactDomainTypeMatch(e, sameNameFunctions);
+            intendedEntry = resolution.getExactDomainTypeMatch(e);
         }
         catch (NoSolutionException nse) {
             try {
                 intendedEntry = getInexactDomainTypeMatch(e, sameNameFunctions);
             }
             catch (NoSolutionException nsee2) {
+                MTFunction eType =
+                        e.getConservativePreApplicationType(myTypeGraph);
+
                 boolean foundOne = false;
                 String errorMessage =
                         "No function applicable for " + "domain: "
@@ -2462,15 +2496,69 @@ public class Populator extends TreeWalkerVisitor {
                     + "contain recursive call.", e.getLocation());
         }
 
-        MTFunction intendedEntryType = (MTFunction) intendedEntry.getType();
-
-        Populator.emitDebug("Matching " + eOperatorString + " : " + eType
-                + " to " + intendedEntry.getName() + " : " + intendedEntryType
-                + ".");
+        if (PRINT_DEBUG) {
+            emitDebug("Matching ", e.getOperatorAsPosSymbol().getName(), " : ",
+                    e.getConservativePreApplicationType(myTypeGraph), " to ",
+                    intendedEntry.getName(), " : ", intendedEntry.getType(),
+                    ".");
+        }
 
         return intendedEntry;
     }
 
+    /**
+     * <p>Returns the resolution of applications like <code>e</code>: those
+     * with the same qualifier and operator, whose arguments have the same
+     * types and type values, made while the same scope decides what the
+     * operator means and with the same schematic types in play.  All such
+     * applications find the same candidates and, since exact domain matching
+     * looks only at these things, the same exact match.  Resolutions are
+     * forgotten once anything new is bound under the operator's name (or the
+     * search path changes), and whenever the type graph learns a new
+     * relationship.</p>
+     */
+    private FunctionResolution getFunctionResolution(AbstractFunctionExp e) {
+        String operator = e.getOperatorAsPosSymbol().getName();
+        ScopeBuilder decidingScope =
+                myBuilder.getInnermostActiveScopeDeciding(operator);
+
+        List<MTType> argumentTypes = new ArrayList<MTType>();
+        List<MTType> argumentTypeValues = new ArrayList<MTType>();
+        for (Exp argument : e.getParameters()) {
+            argumentTypes.add(argument.getMathType());
+            argumentTypeValues.add(argument.getMathTypeValue());
+        }
+
+        Map<String, MTType> schematicTypes;
+        if (myDefinitionSchematicTypes.isEmpty()) {
+            schematicTypes = Collections.emptyMap();
+        }
+        else {
+            schematicTypes =
+                    new HashMap<String, MTType>(myDefinitionSchematicTypes);
+        }
+
+        FunctionResolutionKey key =
+                new FunctionResolutionKey(decidingScope, e.getQualifier(),
+                        operator, argumentTypes, argumentTypeValues,
+                        schematicTypes);
+
+        int generation = myBuilder.getBindingGeneration(operator);
+        FunctionResolution result = myFunctionResolutions.get(key);
+
+        if (result == null || result.getGeneration() != generation) {
+            List<MathSymbolEntry> candidates =
+                    myBuilder.getInnermostActiveScope().query(
+                            new MathFunctionNamedQuery(e.getQualifier(), e
+                                    .getOperatorAsPosSymbol()));
+
+            result = new FunctionResolution(generation, candidates);
+            myFunctionResolutions.put(key, result);
+        }
+
+        return result;
+    }
+
     private MathSymbolEntry getExactDomainTypeMatch(AbstractFunctionExp e,
             List<MathSymbolEntry> candidates) throws NoSolutionException {
 
@@ -2502,8 +2590,8 @@ public class Populator extends TreeWalkerVisitor {
                                     .getInnermostActiveScope(),
                                     myDefinitionSchematicTypes);
                     candidateType = (MTFunction) candidate.getType();
-                    emitDebug(candidate.getType() + " deschematizes to "
-                            + candidateType);
+                    emitDebug(candidate.getType(), " deschematizes to ",
+                            candidateType);
 
                     if (comparison.compare(e, eType, candidateType)) {
 
@@ -2523,8 +2611,8 @@ public class Populator extends TreeWalkerVisitor {
                 }
                 catch (NoSolutionException nse) {
                     //couldn't deschematize--try the next one
-                    emitDebug(candidate.getType() + " doesn't deschematize "
-                            + "against " + e.getParameters());
+                    emitDebug(candidate.getType(), " doesn't deschematize "
+                            + "against ", e.getParameters());
                 }
             }
         }
@@ -2670,4 +2758,126 @@ public class Populator extends TreeWalkerVisitor {
             return "inexact";
         }
     }
+
+    /**
+     * <p>Identifies a set of function applications that are resolved
+     * identically.  See {@link #getFunctionResolution
+     * getFunctionResolution()}.</p>
+     */
+    private static class FunctionResolutionKey {
+
+        private final ScopeBuilder myDecidingScope;
+        private final String myQualifier;
+        private final String myOperator;
+        private final List<MTType> myArgumentTypes;
+        private final List<MTType> myArgumentTypeValues;
+        private final Map<String, MTType> mySchematicTypes;
+
+        public FunctionResolutionKey(ScopeBuilder decidingScope,
+                PosSymbol qualifier, String operator,
+                List<MTType> argumentTypes, List<MTType> argumentTypeValues,
+                Map<String, MTType> schematicTypes) {
+
+            myDecidingScope = decidingScope;
+            myQualifier = (qualifier == null) ? "" : qualifier.getName();
+            myOperator = operator;
+            myArgumentTypes = argumentTypes;
+            myArgumentTypeValues = argumentTypeValues;
+            mySchematicTypes = schematicTypes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean result = (o instanceof FunctionResolutionKey);
+
+            if (result) {
+                FunctionResolutionKey oAsKey = (FunctionResolutionKey) o;
+
+                result =
+                        myDecidingScope == oAsKey.myDecidingScope
+                                && myQualifier.equals(oAsKey.myQualifier)
+                                && myOperator.equals(oAsKey.myOperator)
+                                && myArgumentTypes
+                                        .equals(oAsKey.myArgumentTypes)
+                                && myArgumentTypeValues
+                                        .equals(oAsKey.myArgumentTypeValues)
+                                && mySchematicTypes
+                                        .equals(oAsKey.mySchematicTypes);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = System.identityHashCode(myDecidingScope);
+
+            result = 31 * result + myOperator.hashCode();
+            result = 31 * result + myArgumentTypes.hashCode();
+
+            return result;
+        }
+    }
+
+    /**
+     * <p>The candidates for a set of function applications identified by a
+     * {@link FunctionResolutionKey FunctionResolutionKey} and, once it has
+     * been looked for, their exact domain match or the reason there isn't a
+     * unique one.</p>
+     */
+    private class FunctionResolution {
+
+        private final int myGeneration;
+        private final List<MathSymbolEntry> myCandidates;
+
+        private boolean myExactMatchSought = false;
+        private MathSymbolEntry myExactMatch;
+        private String myExactMatchError;
+
+        public FunctionResolution(int generation,
+                List<MathSymbolEntry> candidates) {
+            myGeneration = generation;
+            myCandidates = candidates;
+        }
+
+        public int getGeneration() {
+            return myGeneration;
+        }
+
+        public List<MathSymbolEntry> getCandidates() {
+            return myCandidates;
+        }
+
+        public MathSymbolEntry getExactDomainTypeMatch(AbstractFunctionExp e)
+                throws NoSolutionException {
+
+            if (!myExactMatchSought) {
+                try {
+                    myExactMatch =
+                            Populator.this.getExactDomainTypeMatch(e,
+                                    myCandidates);
+                }
+                catch (NoSolutionException nse) {
+                    //No exact match--leave myExactMatch null
+                }
+                catch (SourceErrorException see) {
+                    //More than one exact match
+                    myExactMatchError = see.getMessage();
+                }
+
+                myExactMatchSought = true;
+            }
+
+            if (myExactMatchError != null) {
+                throw new SourceErrorException(myExactMatchError, e
+                        .getLocation());
+            }
+
+            if (myExactMatch == null) {
+                throw NoSolutionException.INSTANCE;
+            }
+
+            return myExactMatch;
+        }
+    }
 }
@@ -14,7 +14,8 @@ package edu.clemson.cs.r2jt.proving;
 
 public class ActionCanceller {
 
-    public boolean running;
+    //Volatile, since provers may be cancelled from another thread
+    public volatile boolean running;
 
     public ActionCanceller() {
         running = true;
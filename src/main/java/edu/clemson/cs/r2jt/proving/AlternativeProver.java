@@ -13,6 +13,7 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.math.BigInteger;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -57,62 +58,53 @@ public class AlternativeProver implements VCProver {
 
         myChooser.preoptimizeForVC(vc);
 
-        try {
-            continueProofFrom(vc, 0, metrics, new ProofData());
-        }
-        catch (VCProvedException e) {
-            e.setOriginal(vc);
-            throw e;
-        }
-
-        throw new UnableToProveException(metrics);
-    }
-
-    private void continueProofFrom(final VC vc, final int curLength,
-            final Metrics metrics, final ProofData proofData)
-            throws UnableToProveException,
-                VCProvedException,
-                VCInconsistentException {
+        List<AlternativeProofStep> proof = search(vc, metrics);
 
-        if (curLength > 100) {
-            //Very deep recursion.  Probably an infinite loop.
-            System.err.println("Warning: Very deep recursion.");
-        }
-
-        metrics.incrementProofsConsidered();
-
-        if (vc.getConsequent().size() == 0) {
-            throw new VCProvedException(metrics);
+        if (proof == null) {
+            throw new UnableToProveException(metrics);
         }
 
-        if (!metrics.actionCanceller.running) {
-            //Someone from the outside world told us to stop proving.  We finish
-            //without being able to prove.
-            throw new UnableToProveException(metrics);
+        VCProvedException e = new VCProvedException(metrics);
+        for (AlternativeProofStep step : proof) {
+            e.addStep(step);
         }
+        e.setOriginal(vc);
 
-        attemptStep(vc, curLength, metrics, proofData);
+        throw e;
     }
 
-    public void attemptStep(VC vc, int curLength, Metrics metrics,
-            ProofData proofData)
-            throws UnableToProveException,
-                VCProvedException,
-                VCInconsistentException {
-
-        Iterator<ProofPathSuggestion> suggestions =
-                myChooser.suggestTransformations(vc, curLength, metrics,
-                        proofData);
-
-        Iterator<VC> substitutions;
-        ProofPathSuggestion suggestion;
-        while (suggestions.hasNext()) {
-            suggestion = suggestions.next();
+    /**
+     * <p>Searches depth-first for a proof of <code>vc</code>, returning its
+     * steps, last step first, or <code>null</code> if the search space was
+     * exhausted or we were told to stop.  The search keeps its own stack of
+     * steps in progress, so there is no limit on the length of a proof it can
+     * consider.</p>
+     */
+    private List<AlternativeProofStep> search(VC vc, Metrics metrics) {
+        List<AlternativeProofStep> result = null;
+
+        Deque<SearchStep> stack = new LinkedList<SearchStep>();
+
+        boolean done = consider(vc, metrics);
+        if (done) {
+            if (vc.getConsequent().size() == 0) {
+                result = new LinkedList<AlternativeProofStep>();
+            }
+        }
+        else {
+            stack.push(new SearchStep(vc, 0, myChooser.suggestTransformations(
+                    vc, 0, metrics, new ProofData())));
+        }
 
-            substitutions = suggestion.step.transform(vc);
+        while (!done && !stack.isEmpty()) {
+            SearchStep top = stack.peek();
+            VC newVC = top.nextVC();
 
-            while (substitutions.hasNext()) {
-                VC newVC = substitutions.next();
+            if (newVC == null) {
+                stack.pop();
+            }
+            else {
+                ProofPathSuggestion suggestion = top.myCurrentSuggestion;
 
                 if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_VERBOSE)
                         && suggestion.debugNote != null) {
@@ -120,7 +112,7 @@ public class AlternativeProver implements VCProver {
                     VC vcToPrint;
 
                     if (suggestion.debugPrevious) {
-                        vcToPrint = vc;
+                        vcToPrint = top.myVC;
                     }
                     else {
                         vcToPrint = newVC;
@@ -130,16 +122,49 @@ public class AlternativeProver implements VCProver {
                             + vcToPrint);
                 }
 
-                try {
-                    continueProofFrom(newVC, curLength + 1, metrics,
-                            suggestion.data.addStep(vc));
+                done = consider(newVC, metrics);
+
+                if (done) {
+                    if (newVC.getConsequent().size() == 0) {
+                        result = new LinkedList<AlternativeProofStep>();
+                        result.add(new AlternativeProofStep(suggestion, newVC));
+
+                        //The stack iterates from the top down
+                        for (SearchStep s : stack) {
+                            if (s.myArrivingSuggestion != null) {
+                                result.add(new AlternativeProofStep(
+                                        s.myArrivingSuggestion, s.myVC));
+                            }
+                        }
+                    }
                 }
-                catch (VCProvedException e) {
-                    e.addStep(new AlternativeProofStep(suggestion, newVC));
-                    throw e;
+                else {
+                    int newLength = top.myLength + 1;
+
+                    stack
+                            .push(new SearchStep(newVC, newLength, suggestion,
+                                    myChooser.suggestTransformations(newVC,
+                                            newLength, metrics, suggestion.data
+                                                    .addStep(top.myVC))));
                 }
             }
         }
+
+        return result;
+    }
+
+    /**
+     * <p>Counts <code>vc</code> as a proof considered and returns whether the
+     * search should end there, either because <code>vc</code> has been proved
+     * or because we've been told to stop.</p>
+     */
+    private static boolean consider(VC vc, Metrics metrics) {
+        metrics.incrementProofsConsidered();
+
+        //If someone from the outside world told us to stop proving, we finish
+        //without being able to prove
+        return vc.getConsequent().size() == 0
+                || !metrics.actionCanceller.running;
     }
 
     public static VC convertToImmutableVC(VerificationCondition vc) {
@@ -164,4 +189,60 @@ public class AlternativeProver implements VCProver {
 
         return retval;
     }
+
+    /**
+     * <p>A VC on the search stack, along with the suggestions yet to be tried
+     * from it.</p>
+     */
+    private static class SearchStep {
+
+        public final VC myVC;
+        public final int myLength;
+
+        /**
+         * <p>The suggestion that led to <code>myVC</code>, or
+         * <code>null</code> if it's the VC being proved.</p>
+         */
+        public final ProofPathSuggestion myArrivingSuggestion;
+
+        private final Iterator<ProofPathSuggestion> mySuggestions;
+        public ProofPathSuggestion myCurrentSuggestion;
+        private Iterator<VC> mySubstitutions;
+
+        public SearchStep(VC vc, int length,
+                Iterator<ProofPathSuggestion> suggestions) {
+            this(vc, length, null, suggestions);
+        }
+
+        public SearchStep(VC vc, int length,
+                ProofPathSuggestion arrivingSuggestion,
+                Iterator<ProofPathSuggestion> suggestions) {
+
+            myVC = vc;
+            myLength = length;
+            myArrivingSuggestion = arrivingSuggestion;
+            mySuggestions = suggestions;
+        }
+
+        /**
+         * <p>Returns the next VC that may be reached from <code>myVC</code>,
+         * leaving <code>myCurrentSuggestion</code> as the suggestion that
+         * reached it, or <code>null</code> if there are no more.</p>
+         */
+        public VC nextVC() {
+            while ((mySubstitutions == null || !mySubstitutions.hasNext())
+                    && mySuggestions.hasNext()) {
+
+                myCurrentSuggestion = mySuggestions.next();
+                mySubstitutions = myCurrentSuggestion.step.transform(myVC);
+            }
+
+            VC result = null;
+            if (mySubstitutions != null && mySubstitutions.hasNext()) {
+                result = mySubstitutions.next();
+            }
+
+            return result;
+        }
+    }
 }
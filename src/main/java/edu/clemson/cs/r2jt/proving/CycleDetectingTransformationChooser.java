@@ -12,7 +12,6 @@
  */
 package edu.clemson.cs.r2jt.proving;
 
-import java.math.BigInteger;
 import java.util.Iterator;
 
 /**
@@ -52,8 +51,7 @@ public class CycleDetectingTransformationChooser
 
         if (cycle) {
             retval = DummyIterator.getInstance(TYPE_SAFE_ITERATOR);
-            metrics.numTimesBacktracked =
-                    metrics.numTimesBacktracked.add(BigInteger.ONE);
+            metrics.incrementTimesBacktracked();
         }
         else {
             retval =
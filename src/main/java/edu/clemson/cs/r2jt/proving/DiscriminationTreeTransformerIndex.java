@@ -0,0 +1,170 @@
+/**
+ * DiscriminationTreeTransformerIndex.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PExpDiscriminationTree;
+
+/**
+ * <p>An index over a library of <code>VCTransformer</code>s, by the structure
+ * of each one's pattern, so that those that cannot possibly apply to a given
+ * VC may be skipped without being tried.</p>
+ *
+ * <p>A {@link MatchReplaceStep MatchReplaceStep} only transforms a VC if its
+ * pattern binds to some subexpression of that VC.  So the patterns of such
+ * steps are kept in a {@link PExpDiscriminationTree PExpDiscriminationTree},
+ * and a single walk over the VC retrieves every step that might bind anywhere
+ * in it.  Transformers we can't say as much about are considered applicable
+ * to every VC.  The index is built once for a library and may then be
+ * consulted for every VC and every state of each proof.</p>
+ */
+public class DiscriminationTreeTransformerIndex {
+
+    private final PExpDiscriminationTree<VCTransformer> myIndex =
+            new PExpDiscriminationTree<VCTransformer>();
+
+    /**
+     * <p>Those transformers that appear in <code>myIndex</code>.</p>
+     */
+    private final Set<VCTransformer> myIndexed = new HashSet<VCTransformer>();
+
+    public DiscriminationTreeTransformerIndex(
+            Iterable<VCTransformer> transformers) {
+        for (VCTransformer t : transformers) {
+            PExp pattern = getIndexablePattern(t);
+
+            if (pattern != null) {
+                myIndex.add(pattern, t);
+                myIndexed.add(t);
+            }
+        }
+    }
+
+    public int size() {
+        return myIndexed.size();
+    }
+
+    /**
+     * <p>Returns a view of <code>transformers</code>, which may include
+     * transformers that weren't part of the library this index was built
+     * over, that can quickly pick out those that might apply to a VC.  Such
+     * foreign transformers are assumed to apply to any VC.</p>
+     */
+    public Ordering order(List<VCTransformer> transformers) {
+        return new Ordering(transformers);
+    }
+
+    /**
+     * <p>An ordered list of transformers, some of which are indexed by the
+     * enclosing <code>DiscriminationTreeTransformerIndex</code>.</p>
+     */
+    public class Ordering {
+
+        private final List<VCTransformer> myTransformers;
+
+        /**
+         * <p>The position in <code>myTransformers</code> of each indexed
+         * transformer.</p>
+         */
+        private final Map<VCTransformer, Integer> myPositions =
+                new HashMap<VCTransformer, Integer>();
+
+        /**
+         * <p>The positions of those transformers that might apply to any
+         * VC.</p>
+         */
+        private final BitSet myUnindexed = new BitSet();
+
+        private Ordering(List<VCTransformer> transformers) {
+            myTransformers = new ArrayList<VCTransformer>(transformers);
+
+            for (int i = 0; i < myTransformers.size(); i++) {
+                VCTransformer t = myTransformers.get(i);
+
+                if (myIndexed.contains(t)) {
+                    myPositions.put(t, i);
+                }
+                else {
+                    myUnindexed.set(i);
+                }
+            }
+        }
+
+        /**
+         * <p>Returns, in order, those transformers that might apply to
+         * <code>vc</code>.</p>
+         */
+        public List<VCTransformer> getApplicableTo(VC vc) {
+            BitSet applicable = (BitSet) myUnindexed.clone();
+
+            if (!myPositions.isEmpty()) {
+                Set<VCTransformer> candidates = new HashSet<VCTransformer>();
+
+                for (PExp e : vc.getAntecedent()) {
+                    myIndex.collectCandidatesWithin(e, candidates);
+                }
+
+                for (PExp e : vc.getConsequent()) {
+                    myIndex.collectCandidatesWithin(e, candidates);
+                }
+
+                for (VCTransformer candidate : candidates) {
+                    Integer position = myPositions.get(candidate);
+
+                    if (position != null) {
+                        applicable.set(position);
+                    }
+                }
+            }
+
+            List<VCTransformer> result =
+                    new ArrayList<VCTransformer>(applicable.cardinality());
+            for (int i = applicable.nextSetBit(0); i >= 0; i =
+                    applicable.nextSetBit(i + 1)) {
+                result.add(myTransformers.get(i));
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * <p>Returns the expression that must bind to some subexpression of any
+     * VC <code>t</code> applies to, or <code>null</code> if there's no such
+     * expression we know of.</p>
+     */
+    private static PExp getIndexablePattern(VCTransformer t) {
+        PExp result = null;
+
+        if (t instanceof MatchReplaceStep) {
+            Antecedent pattern = t.getPattern();
+
+            //A pattern with more than one conjunct has been split apart, so
+            //any one conjunct might bind on its own
+            if (pattern.size() == 1
+                    && PExpDiscriminationTree.discriminates(pattern.get(0))) {
+                result = pattern.get(0);
+            }
+        }
+
+        return result;
+    }
+}
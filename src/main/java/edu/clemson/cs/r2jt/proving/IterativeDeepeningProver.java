@@ -0,0 +1,563 @@
+/**
+ * IterativeDeepeningProver.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>A <code>VCProver</code> that first reduces a VC and develops its theory,
+ * then searches for a proof in a series of rounds, each a depth-first search
+ * through a {@link LengthWindowTransformationChooser length window} of the
+ * same main strategy.  This is the search a {@link MultiStrategyProver
+ * MultiStrategyProver} of {@link AlternativeProver AlternativeProver}s, each
+ * with a {@link FailoverChooser FailoverChooser} from the reduction to the
+ * development step and its window, would perform, but without starting each
+ * round over from the original VC:</p>
+ *
+ * <ul>
+ * <li>Reduction is deterministic, so it and the development step are
+ * performed only once per VC.  Their results are remembered, for the last
+ * few VCs, by the structure of the VC, so that a later VC with the same
+ * antecedents and consequents in the same order needn't be reduced
+ * again.</li>
+ * <li>Two windows suggest exactly the same steps up to the shallower of their
+ * minimum and maximum depths, so each round records the VCs it reaches at the
+ * depth the next round diverges from it, and the next round continues from
+ * those rather than re-deriving them.  VCs at that depth with the same
+ * conjuncts in the same order are only continued from once.</li>
+ * </ul>
+ */
+public class IterativeDeepeningProver implements VCProver {
+
+    private final CompileEnvironment myInstanceEnvironment;
+    private final TransformationChooser myReductionChooser;
+    private final VCTransformer myDevelopmentStep;
+    private final TransformationChooser myMainChooser;
+    private final String myFailoverNote;
+
+    private final List<TransformationChooser> myRounds =
+            new ArrayList<TransformationChooser>();
+
+    /**
+     * <p>For each round, the depth, after development, from which it may
+     * continue the round before it.</p>
+     *
+     * <p>INVARIANT: <code>myResumeDepths.size() = myRounds.size()</code></p>
+     */
+    private final List<Integer> myResumeDepths = new ArrayList<Integer>();
+
+    private int myLastMinDepth, myLastMaxDepth;
+
+    /**
+     * <p>The most prepared VCs to remember at once.  The oldest used is
+     * forgotten first.</p>
+     */
+    static final int MAX_PREPARED_VCS = 32;
+
+    private final Map<VCKey, PreparedVC> myPreparedVCs =
+            new LinkedHashMap<VCKey, PreparedVC>(16, 0.75f, true) {
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<VCKey, PreparedVC> eldest) {
+                    return size() > MAX_PREPARED_VCS;
+                }
+            };
+
+    /**
+     * <p>Creates a new prover with no rounds.</p>
+     *
+     * @param e The environment of the compilation.
+     * @param reductionChooser The chooser that reduces each VC.  It should
+     *            never suggest more than one step that may be taken from a
+     *            given VC.
+     * @param developmentStep The step to take once reduction suggests no
+     *            further steps.
+     * @param mainChooser The strategy to search with after development.
+     * @param failoverNote A note to add to proofs where reduction gives way
+     *            to development.
+     */
+    public IterativeDeepeningProver(CompileEnvironment e,
+            TransformationChooser reductionChooser,
+            VCTransformer developmentStep, TransformationChooser mainChooser,
+            String failoverNote) {
+
+        myInstanceEnvironment = e;
+        myReductionChooser = reductionChooser;
+        myDevelopmentStep = developmentStep;
+        myMainChooser = mainChooser;
+        myFailoverNote = failoverNote;
+    }
+
+    /**
+     * <p>Adds a new round, to be tried if all rounds added before it fail,
+     * that searches the main strategy within the given window of proof
+     * lengths.</p>
+     *
+     * @param minDepth The minimum depth of the window.
+     * @param maxDepth The maximum depth of the window.
+     */
+    public void addRound(int minDepth, int maxDepth) {
+        int resumeDepth = 0;
+
+        if (!myRounds.isEmpty()) {
+            resumeDepth =
+                    Math.min(Math.min(myLastMinDepth, myLastMaxDepth), Math
+                            .min(minDepth, maxDepth));
+        }
+
+        myRounds.add(new LengthWindowTransformationChooser(myMainChooser,
+                minDepth, maxDepth));
+        myResumeDepths.add(resumeDepth);
+
+        myLastMinDepth = minDepth;
+        myLastMaxDepth = maxDepth;
+    }
+
+    @Override
+    public BigInteger getProofCountOrder() {
+        return BigInteger.valueOf(-1);
+    }
+
+    @Override
+    public void prove(VerificationCondition originalVC,
+            ProverListener progressListener, ActionCanceller actionCanceller,
+            long timeoutAt)
+            throws VCInconsistentException,
+                VCProvedException,
+                UnableToProveException {
+
+        VC vc = AlternativeProver.convertToImmutableVC(originalVC);
+
+        Metrics metrics = new Metrics();
+        metrics.progressListener = progressListener;
+
+        if (actionCanceller == null) {
+            actionCanceller = new ActionCanceller();
+        }
+
+        metrics.actionCanceller = actionCanceller;
+
+        myMainChooser.preoptimizeForVC(vc);
+
+        PreparedVC prepared = prepare(vc);
+
+        ProofNode last = considerAll(prepared.myReduction, metrics);
+        if (last == null) {
+            last = considerAll(prepared.myStarts, metrics);
+        }
+
+        List<ProofNode> frontier = prepared.myStarts;
+        int frontierDepth = 0;
+        int roundCount = myRounds.size();
+        for (int round = 0; last == null && round < roundCount; round++) {
+            int nextDepth = -1;
+            Map<VCKey, ProofNode> nextFrontier = null;
+
+            if (round + 1 < roundCount) {
+                nextDepth = myResumeDepths.get(round + 1);
+
+                if (nextDepth > frontierDepth) {
+                    nextFrontier = new LinkedHashMap<VCKey, ProofNode>();
+                }
+            }
+
+            Iterator<ProofNode> starts = frontier.iterator();
+            while (last == null && starts.hasNext()) {
+                last =
+                        search(starts.next(), myRounds.get(round), nextDepth,
+                                nextFrontier, metrics);
+            }
+
+            if (nextFrontier != null) {
+                frontier = new ArrayList<ProofNode>(nextFrontier.values());
+                frontierDepth = nextDepth;
+            }
+            else if (nextDepth != frontierDepth) {
+                frontier = prepared.myStarts;
+                frontierDepth = 0;
+            }
+        }
+
+        if (last == null || last.myVC.getConsequent().size() > 0) {
+            throw new UnableToProveException(metrics);
+        }
+
+        VCProvedException e = new VCProvedException(metrics);
+        for (ProofNode n = last; n.mySuggestion != null; n = n.myParent) {
+            e.addStep(new AlternativeProofStep(n.mySuggestion, n.myVC));
+        }
+        e.setOriginal(vc);
+
+        throw e;
+    }
+
+    /**
+     * <p>Returns the result of reducing and developing <code>vc</code>,
+     * reusing that of an earlier VC with the same structure if there was
+     * one.</p>
+     */
+    PreparedVC prepare(VC vc) {
+        VCKey key = new VCKey(vc);
+        PreparedVC result = myPreparedVCs.get(key);
+
+        if (result == null) {
+            result = reduceAndDevelop(vc);
+            myPreparedVCs.put(key, result);
+        }
+        else if (!result.getSourceName().equals(vc.getSourceName())) {
+            result = result.renamed(vc.getSourceName());
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns the number of prepared VCs currently remembered.</p>
+     */
+    int getPreparedVCCount() {
+        return myPreparedVCs.size();
+    }
+
+    private PreparedVC reduceAndDevelop(VC vc) {
+        myReductionChooser.preoptimizeForVC(vc);
+
+        Metrics metrics = new Metrics();
+        List<ProofNode> reduction = new ArrayList<ProofNode>();
+        List<ProofNode> starts = new ArrayList<ProofNode>();
+
+        ProofNode current = new ProofNode(vc, 0, new ProofData(), null, null);
+        ProofNode next;
+        do {
+            reduction.add(current);
+            next = null;
+
+            if (current.myVC.getConsequent().size() > 0) {
+                Iterator<ProofPathSuggestion> suggestions =
+                        myReductionChooser.suggestTransformations(current.myVC,
+                                reduction.size() - 1, metrics, current.myData);
+
+                while (next == null && suggestions.hasNext()) {
+                    ProofPathSuggestion suggestion = suggestions.next();
+                    Iterator<VC> substitutions =
+                            suggestion.step.transform(current.myVC);
+
+                    if (substitutions.hasNext()) {
+                        next =
+                                step(current, 0, suggestion, substitutions
+                                        .next());
+                    }
+                }
+
+                if (next == null) {
+                    ProofPathSuggestion development =
+                            new ProofPathSuggestion(myDevelopmentStep,
+                                    current.myData, myFailoverNote,
+                                    "Failed over from " + myReductionChooser
+                                            + " to " + myDevelopmentStep
+                                            + " with VC:", true);
+
+                    Iterator<VC> developed =
+                            myDevelopmentStep.transform(current.myVC);
+                    while (developed.hasNext()) {
+                        starts.add(step(current, 0, development, developed
+                                .next()));
+                    }
+                }
+            }
+
+            current = next;
+        } while (current != null);
+
+        return new PreparedVC(reduction, starts);
+    }
+
+    /**
+     * <p>Searches depth-first from <code>start</code>, which has already been
+     * considered, within <code>window</code>, adding the first node reached
+     * with each distinct VC at <code>recordDepth</code> to
+     * <code>frontier</code>, if it isn't <code>null</code>.  Returns the node
+     * at which the search stopped because it completed a proof or was told to
+     * stop, or <code>null</code> if it exhausted the window.</p>
+     */
+    private ProofNode search(ProofNode start, TransformationChooser window,
+            int recordDepth, Map<VCKey, ProofNode> frontier, Metrics metrics) {
+
+        ProofNode result = null;
+
+        Deque<SearchStep> stack = new LinkedList<SearchStep>();
+        stack.push(new SearchStep(start, window.suggestTransformations(
+                start.myVC, start.myDepth, metrics, start.myData)));
+
+        while (result == null && !stack.isEmpty()) {
+            SearchStep top = stack.peek();
+            VC newVC = top.nextVC();
+
+            if (newVC == null) {
+                stack.pop();
+            }
+            else {
+                ProofNode child =
+                        step(top.myNode, top.myNode.myDepth + 1,
+                                top.myCurrentSuggestion, newVC);
+
+                if (consider(child, metrics)) {
+                    result = child;
+                }
+                else {
+                    if (frontier != null && child.myDepth == recordDepth) {
+                        VCKey key = new VCKey(child.myVC);
+
+                        if (!frontier.containsKey(key)) {
+                            frontier.put(key, child);
+                        }
+                    }
+
+                    stack.push(new SearchStep(child, window
+                            .suggestTransformations(child.myVC, child.myDepth,
+                                    metrics, child.myData)));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private ProofNode step(ProofNode from, int depth,
+            ProofPathSuggestion suggestion, VC newVC) {
+
+        if (myInstanceEnvironment.flags.isFlagSet(Prover.FLAG_VERBOSE)
+                && suggestion.debugNote != null) {
+
+            VC vcToPrint;
+
+            if (suggestion.debugPrevious) {
+                vcToPrint = from.myVC;
+            }
+            else {
+                vcToPrint = newVC;
+            }
+
+            System.out.println(suggestion.debugNote + "\n\n" + vcToPrint);
+        }
+
+        return new ProofNode(newVC, depth, suggestion.data.addStep(from.myVC),
+                from, suggestion);
+    }
+
+    /**
+     * <p>Considers each of <code>nodes</code> in turn, returning the first at
+     * which the search should stop, or <code>null</code> if there isn't
+     * one.</p>
+     */
+    private static ProofNode considerAll(List<ProofNode> nodes, Metrics metrics) {
+
+        ProofNode result = null;
+
+        Iterator<ProofNode> nodesIter = nodes.iterator();
+        while (result == null && nodesIter.hasNext()) {
+            ProofNode n = nodesIter.next();
+
+            if (consider(n, metrics)) {
+                result = n;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Counts <code>node</code> as a proof considered and returns whether
+     * the search should stop there, either because it completes a proof or
+     * because we've been told to stop.</p>
+     */
+    private static boolean consider(ProofNode node, Metrics metrics) {
+        metrics.incrementProofsConsidered();
+
+        //If someone from the outside world told us to stop proving, we finish
+        //without being able to prove
+        return node.myVC.getConsequent().size() == 0
+                || !metrics.actionCanceller.running;
+    }
+
+    /**
+     * <p>A VC reached in the search, along with how it was reached.  The
+     * depth of nodes reached during reduction, and of those produced by
+     * development, is 0.</p>
+     */
+    private static class ProofNode {
+
+        public final VC myVC;
+        public final int myDepth;
+        public final ProofData myData;
+        public final ProofNode myParent;
+        public final ProofPathSuggestion mySuggestion;
+
+        public ProofNode(VC vc, int depth, ProofData data, ProofNode parent,
+                ProofPathSuggestion suggestion) {
+
+            myVC = vc;
+            myDepth = depth;
+            myData = data;
+            myParent = parent;
+            mySuggestion = suggestion;
+        }
+    }
+
+    /**
+     * <p>The VCs passed through while reducing a VC, starting with the VC
+     * itself, and those its development produced.</p>
+     */
+    static class PreparedVC {
+
+        public final List<ProofNode> myReduction;
+        public final List<ProofNode> myStarts;
+
+        public PreparedVC(List<ProofNode> reduction, List<ProofNode> starts) {
+            myReduction = reduction;
+            myStarts = starts;
+        }
+
+        public String getSourceName() {
+            return myReduction.get(0).myVC.getSourceName();
+        }
+
+        /**
+         * <p>Returns the same preparation for a VC called <code>name</code>,
+         * so that proofs print the correct name at each step.</p>
+         */
+        public PreparedVC renamed(String name) {
+            List<ProofNode> reduction = new ArrayList<ProofNode>();
+            List<ProofNode> starts = new ArrayList<ProofNode>();
+
+            ProofNode parent = null;
+            for (ProofNode n : myReduction) {
+                parent =
+                        new ProofNode(n.myVC.renamed(name), n.myDepth,
+                                n.myData, parent, n.mySuggestion);
+                reduction.add(parent);
+            }
+
+            for (ProofNode n : myStarts) {
+                starts.add(new ProofNode(n.myVC.renamed(name), n.myDepth,
+                        n.myData, parent, n.mySuggestion));
+            }
+
+            return new PreparedVC(reduction, starts);
+        }
+    }
+
+    /**
+     * <p>Wraps a VC so that it may be used as a key by its structure:  two
+     * keys are equal if their VCs have equal conjuncts in the same order,
+     * regardless of name.  VCs whose conjuncts differ only in order aren't
+     * interchangeable, since steps are suggested, and the proof recorded, in
+     * the order the conjuncts appear.</p>
+     */
+    private static class VCKey {
+
+        private final VC myVC;
+        private final int myHashCode;
+
+        public VCKey(VC vc) {
+            myVC = vc;
+            myHashCode =
+                    31 * conjunctsHashCode(vc.getAntecedent())
+                            + conjunctsHashCode(vc.getConsequent());
+        }
+
+        private static int conjunctsHashCode(Iterable<PExp> conjuncts) {
+            int result = 1;
+            for (PExp e : conjuncts) {
+                result = 31 * result + e.hashCode();
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return myHashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean result =
+                    (o instanceof VCKey)
+                            && ((VCKey) o).myHashCode == myHashCode;
+
+            if (result) {
+                VC oVC = ((VCKey) o).myVC;
+                result =
+                        myVC.getAntecedent().orderEqual(oVC.getAntecedent())
+                                && myVC.getConsequent().orderEqual(
+                                        oVC.getConsequent());
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * <p>A node on the search stack, along with the suggestions yet to be
+     * tried from it.</p>
+     */
+    private static class SearchStep {
+
+        public final ProofNode myNode;
+
+        private final Iterator<ProofPathSuggestion> mySuggestions;
+        public ProofPathSuggestion myCurrentSuggestion;
+        private Iterator<VC> mySubstitutions;
+
+        public SearchStep(ProofNode node,
+                Iterator<ProofPathSuggestion> suggestions) {
+
+            myNode = node;
+            mySuggestions = suggestions;
+        }
+
+        /**
+         * <p>Returns the next VC that may be reached from
+         * <code>myNode</code>, leaving <code>myCurrentSuggestion</code> as the
+         * suggestion that reached it, or <code>null</code> if there are no
+         * more.</p>
+         */
+        public VC nextVC() {
+            while ((mySubstitutions == null || !mySubstitutions.hasNext())
+                    && mySuggestions.hasNext()) {
+
+                myCurrentSuggestion = mySuggestions.next();
+                mySubstitutions =
+                        myCurrentSuggestion.step.transform(myNode.myVC);
+            }
+
+            VC result = null;
+            if (mySubstitutions != null && mySubstitutions.hasNext()) {
+                result = mySubstitutions.next();
+            }
+
+            return result;
+        }
+    }
+}
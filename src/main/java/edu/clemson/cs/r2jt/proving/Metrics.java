@@ -12,16 +12,29 @@
  */
 package edu.clemson.cs.r2jt.proving;
 
-import java.math.BigInteger;
-
 /**
  * <p>The <code>Metrics</code> class contains aggregate data about a full proof
  * attempt.</p>
+ *
+ * <p>The counts are kept in primitive fields owned by the thread doing the
+ * proving, which may read them exactly.  Other threads--a progress display,
+ * say--should instead {@link #pollProofsConsidered() poll} a copy that is
+ * published every {@link #PUBLISH_INTERVAL} proofs, so that the prover need
+ * not pay for a synchronized write on every step.  Each publication is also
+ * reported to the <code>progressListener</code>, if there is one.</p>
  */
 class Metrics {
 
-    public BigInteger numProofsConsidered;
-    public BigInteger numTimesBacktracked;
+    /**
+     * <p>The number of proofs considered between publications of the count
+     * to other threads.  Must be a power of two.</p>
+     */
+    public static final int PUBLISH_INTERVAL = 1024;
+
+    private long myProofsConsidered;
+    private long myTimesBacktracked;
+
+    private volatile long myPublishedProofsConsidered;
 
     public long ruleCount, rulesTried;
     public ProverListener progressListener;
@@ -32,22 +45,49 @@ class Metrics {
         clear();
     }
 
-    public BigInteger getNumProofsConsidered() {
-        return numProofsConsidered;
+    public long getNumProofsConsidered() {
+        return myProofsConsidered;
+    }
+
+    public long getNumTimesBacktracked() {
+        return myTimesBacktracked;
+    }
+
+    /**
+     * <p>Returns the number of proofs considered as of the last time it was
+     * published.  Unlike the other accessors, this may be called from any
+     * thread.</p>
+     */
+    public long pollProofsConsidered() {
+        return myPublishedProofsConsidered;
     }
 
     public void incrementProofsConsidered() {
-        numProofsConsidered = numProofsConsidered.add(BigInteger.ONE);
+        myProofsConsidered++;
+
+        if ((myProofsConsidered & (PUBLISH_INTERVAL - 1)) == 0) {
+            myPublishedProofsConsidered = myProofsConsidered;
+
+            if (progressListener != null) {
+                progressListener.proofsConsidered(myProofsConsidered);
+            }
+        }
+    }
+
+    public void incrementTimesBacktracked() {
+        myTimesBacktracked++;
     }
 
     public void accumulate(Metrics m) {
-        numProofsConsidered = numProofsConsidered.add(m.numProofsConsidered);
-        numTimesBacktracked = numTimesBacktracked.add(m.numTimesBacktracked);
+        myProofsConsidered += m.myProofsConsidered;
+        myTimesBacktracked += m.myTimesBacktracked;
+        myPublishedProofsConsidered = myProofsConsidered;
     }
 
     public void clear() {
-        numTimesBacktracked = BigInteger.ZERO;
-        numProofsConsidered = BigInteger.ZERO;
+        myTimesBacktracked = 0;
+        myProofsConsidered = 0;
+        myPublishedProofsConsidered = 0;
         ruleCount = 0;
         rulesTried = 0;
     }
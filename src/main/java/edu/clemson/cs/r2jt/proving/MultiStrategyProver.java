@@ -13,8 +13,20 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import edu.clemson.cs.r2jt.utilities.ThreadOutput;
 
 /**
  * <p>A <code>VCProver</code> that attempts multiple strategies in sequence.
@@ -29,6 +41,12 @@ import java.util.List;
  * <code>getProofCountOrder</code> that it is unable to stimate its proof count
  * order is assumed to have average weight.</p> 
  * 
+ * <p>Optionally, the strategies may instead be raced against one another, each
+ * on its own thread and with its own copy of the VC.  As soon as one proves
+ * the VC (or shows it inconsistent), the rest are cancelled.  Their progress is
+ * reported as the weighted sum of each strategy's own.  Strategies raced this
+ * way must not share any mutable state.</p>
+ * 
  * @author H. Smith, June 9th 2009
  */
 public class MultiStrategyProver implements VCProver {
@@ -38,6 +56,32 @@ public class MultiStrategyProver implements VCProver {
      */
     private final BigInteger NEGATIVE_ONE = BigInteger.valueOf(-1);
 
+    /**
+     * <p>How often, in milliseconds, a race checks whether it has been
+     * cancelled from the outside while waiting on its strategies.</p>
+     */
+    private static final long CANCEL_POLL_INTERVAL = 100;
+
+    /**
+     * <p>Threads on which raced strategies run, shared by every prover in this
+     * process.  They are daemons so that an idle pool never keeps the compiler
+     * alive.</p>
+     */
+    private static final ExecutorService STRATEGY_THREADS =
+            Executors.newCachedThreadPool(new ThreadFactory() {
+
+                public Thread newThread(Runnable r) {
+                    Thread result = new Thread(r, "Prover strategy");
+                    result.setDaemon(true);
+                    return result;
+                }
+            });
+
+    /**
+     * <p>Whether strategies should be raced rather than tried in turn.</p>
+     */
+    private final boolean myRaceFlag;
+
     /**
      * <p>A list of <code>VCProver</code>s to be applied in order until one 
      * works when attempting a proof.</p>
@@ -72,9 +116,21 @@ public class MultiStrategyProver implements VCProver {
 
     /**
      * <p>Creates a new <code>MultiStrategyProver</code> with no starting
-     * sub-strategies.</p>
+     * sub-strategies, which will be tried in turn.</p>
      */
     public MultiStrategyProver() {
+        this(false);
+    }
+
+    /**
+     * <p>Creates a new <code>MultiStrategyProver</code> with no starting
+     * sub-strategies.</p>
+     * 
+     * @param race Whether the strategies should be raced concurrently rather
+     *             than tried in turn.
+     */
+    public MultiStrategyProver(boolean race) {
+        myRaceFlag = race;
         myStrategyCount = 0;
         myNoOrderEstimateCount = 0;
         myProofCountOrder = BigInteger.ZERO;
@@ -178,12 +234,31 @@ public class MultiStrategyProver implements VCProver {
                 VCProvedException,
                 UnableToProveException {
 
-        Metrics accumulatedMetrics = new Metrics();
-
         if (actionCanceller == null) {
             actionCanceller = new ActionCanceller();
         }
 
+        if (myRaceFlag) {
+            race(vC, progressListener, actionCanceller, timeoutAt);
+        }
+        else {
+            proveInTurn(vC, progressListener, actionCanceller, timeoutAt);
+        }
+    }
+
+    /**
+     * <p>Tries each strategy on <code>vC</code> in turn, until one proves
+     * it.</p>
+     */
+    private void proveInTurn(final VerificationCondition vC,
+            ProverListener progressListener, ActionCanceller actionCanceller,
+            long timeoutAt)
+            throws VCInconsistentException,
+                VCProvedException,
+                UnableToProveException {
+
+        Metrics accumulatedMetrics = new Metrics();
+
         ProgressAccumulator progressAccumulator;
         progressAccumulator = new ProgressAccumulator(progressListener);
 
@@ -205,12 +280,167 @@ public class MultiStrategyProver implements VCProver {
                 throw e;
             }
 
-            progressAccumulator.startingNextStrategy();
+            long proofsSoFar = accumulatedMetrics.getNumProofsConsidered();
+            progressAccumulator.startingNextStrategy(proofsSoFar);
         }
 
         throw new UnableToProveException(accumulatedMetrics);
     }
 
+    /**
+     * <p>Runs every strategy at once, each on a copy of <code>vC</code>,
+     * stopping the others as soon as one proves <code>vC</code> or shows it
+     * inconsistent.  Waits for every strategy to finish before reporting the
+     * result, with the metrics of all of them.</p>
+     */
+    private void race(final VerificationCondition vC,
+            ProverListener progressListener, ActionCanceller actionCanceller,
+            final long timeoutAt)
+            throws VCInconsistentException,
+                VCProvedException,
+                UnableToProveException {
+
+        RaceProgressAccumulator progressAccumulator =
+                new RaceProgressAccumulator(progressListener);
+
+        CompletionService<ProverException> results =
+                new ExecutorCompletionService<ProverException>(STRATEGY_THREADS);
+
+        List<ActionCanceller> cancellers = new ArrayList<ActionCanceller>();
+        int strategyIndex = 0;
+        for (final VCProver p : myStrategies) {
+            final VerificationCondition copy = vC.copy();
+            final ProverListener listener =
+                    progressAccumulator.getListener(strategyIndex);
+            final ActionCanceller canceller = new ActionCanceller();
+            cancellers.add(canceller);
+
+            Callable<ProverException> strategy =
+                    new Callable<ProverException>() {
+
+                        public ProverException call() {
+                            ProverException result = null;
+
+                            try {
+                                p.prove(copy, listener, canceller, timeoutAt);
+                            }
+                            catch (ProverException e) {
+                                result = e;
+                            }
+
+                            return result;
+                        }
+                    };
+
+            //Keep what the strategy prints with the request that started it
+            results.submit(ThreadOutput.inheritOutput(strategy));
+
+            strategyIndex++;
+        }
+
+        Metrics accumulatedMetrics = new Metrics();
+        ProverException winner = null;
+        RuntimeException failure = null;
+        boolean interrupted = false;
+
+        int running = myStrategyCount;
+        while (running > 0) {
+            Future<ProverException> finished = null;
+
+            try {
+                finished =
+                        results.poll(CANCEL_POLL_INTERVAL,
+                                TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException ie) {
+                interrupted = true;
+                actionCanceller.cancel();
+            }
+
+            if (finished == null) {
+                if (!actionCanceller.running) {
+                    cancelAll(cancellers);
+                }
+            }
+            else {
+                running--;
+
+                ProverException result = null;
+                try {
+                    result = getUninterruptibly(finished);
+                }
+                catch (ExecutionException ee) {
+                    if (failure == null) {
+                        failure = new RuntimeException(ee.getCause());
+                    }
+                    cancelAll(cancellers);
+                }
+
+                if (result != null) {
+                    if (result.getMetrics() != null) {
+                        accumulatedMetrics.accumulate(result.getMetrics());
+                    }
+
+                    if (winner == null
+                            && !(result instanceof UnableToProveException)) {
+                        winner = result;
+                        cancelAll(cancellers);
+                    }
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+
+        if (winner instanceof VCProvedException) {
+            VCProvedException proof = (VCProvedException) winner;
+            proof.setMetrics(accumulatedMetrics);
+            throw proof;
+        }
+
+        if (winner instanceof VCInconsistentException) {
+            throw (VCInconsistentException) winner;
+        }
+
+        throw new UnableToProveException(accumulatedMetrics);
+    }
+
+    private static void cancelAll(List<ActionCanceller> cancellers) {
+        for (ActionCanceller c : cancellers) {
+            c.cancel();
+        }
+    }
+
+    private static <T> T getUninterruptibly(Future<T> f)
+            throws ExecutionException {
+
+        boolean interrupted = false;
+        T result = null;
+        boolean done = false;
+
+        while (!done) {
+            try {
+                result = f.get();
+                done = true;
+            }
+            catch (InterruptedException ie) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        return result;
+    }
+
     public BigInteger getProofCountOrder() {
         BigInteger averageOrder =
                 myProofCountOrder.divide(BigInteger
@@ -235,6 +465,7 @@ public class MultiStrategyProver implements VCProver {
         private final ProverListener myParent;
         private int myCurrentStrategyIndex;
         private double myAccumulatedProgress;
+        private long myAccumulatedProofs;
 
         /**
          * <p>Creates a new <code>ProgerssAccumulator</code> that will report
@@ -255,10 +486,13 @@ public class MultiStrategyProver implements VCProver {
          * <code>progressUpdate()</code> represent progress from that 
          * strategy.<p>
          *
+         * @param proofsSoFar The number of proofs considered by the strategies
+         *                    that have finished.
          */
-        public void startingNextStrategy() {
+        public void startingNextStrategy(long proofsSoFar) {
             myAccumulatedProgress +=
                     myStrategyProgressWeights[myCurrentStrategyIndex];
+            myAccumulatedProofs = proofsSoFar;
             myCurrentStrategyIndex++;
         }
 
@@ -269,5 +503,82 @@ public class MultiStrategyProver implements VCProver {
                                 + (myStrategyProgressWeights[myCurrentStrategyIndex] * progress));
             }
         }
+
+        public void proofsConsidered(long count) {
+            if (myParent != null) {
+                myParent.proofsConsidered(myAccumulatedProofs + count);
+            }
+        }
+    }
+
+    /**
+     * <p>A helper class which combines the progress of each of the strategies
+     * being raced into an overall progress to report to this strategy's own
+     * listeners.  Since the strategies all run at once, overall progress is
+     * the sum of each strategy's progress, weighted according to
+     * <code>myStrategyProgressWeights</code>, and the number of proofs
+     * considered is the sum of those each has considered.</p>
+     */
+    private class RaceProgressAccumulator {
+
+        private final ProverListener myParent;
+        private final double[] myProgress;
+        private final long[] myProofs;
+
+        /**
+         * <p>Creates a new <code>RaceProgressAccumulator</code> that will
+         * report overall progress to <code>parent</code>.</p>
+         * 
+         * @param parent The listener to alert of overall progress, or 
+         *               <code>null</code> if no one needs to be notified.
+         */
+        public RaceProgressAccumulator(ProverListener parent) {
+            myParent = parent;
+            myProgress = new double[myStrategyCount];
+            myProofs = new long[myStrategyCount];
+        }
+
+        /**
+         * <p>Returns a listener to which the strategy at
+         * <code>strategyIndex</code> may report its own progress.</p>
+         */
+        public ProverListener getListener(final int strategyIndex) {
+            return new ProverListener() {
+
+                public void progressUpdate(double progress) {
+                    update(strategyIndex, progress);
+                }
+
+                public void proofsConsidered(long count) {
+                    updateProofs(strategyIndex, count);
+                }
+            };
+        }
+
+        private synchronized void update(int strategyIndex, double progress) {
+            if (myParent != null) {
+                myProgress[strategyIndex] = progress;
+
+                double total = 0;
+                for (int i = 0; i < myStrategyCount; i++) {
+                    total += myStrategyProgressWeights[i] * myProgress[i];
+                }
+
+                myParent.progressUpdate(total);
+            }
+        }
+
+        private synchronized void updateProofs(int strategyIndex, long count) {
+            if (myParent != null) {
+                myProofs[strategyIndex] = count;
+
+                long total = 0;
+                for (int i = 0; i < myStrategyCount; i++) {
+                    total += myProofs[i];
+                }
+
+                myParent.proofsConsidered(total);
+            }
+        }
     }
 }
@@ -32,6 +32,8 @@ class ProofProgressWindow extends JFrame
 
     private JProgressBar myProgressBar;
 
+    private JLabel myProofsConsidered;
+
     private ActionCanceller myCanceller;
 
     public ProofProgressWindow(final String name,
@@ -59,12 +61,16 @@ class ProofProgressWindow extends JFrame
         searched.setPreferredSize(new Dimension(350, 20));
         searched.setVerticalAlignment(JLabel.BOTTOM);
 
+        myProofsConsidered = new JLabel("Proofs considered: 0");
+        myProofsConsidered.setPreferredSize(new Dimension(350, 20));
+
         pane.add(proving);
         pane.add(searched);
         pane.add(myProgressBar);
+        pane.add(myProofsConsidered);
         pane.add(cancel);
 
-        setSize(375, 150);
+        setSize(375, 175);
         setLocationRelativeTo(null);
         setVisible(true);
     }
@@ -90,4 +96,9 @@ class ProofProgressWindow extends JFrame
         myProgressBar.setValue((int) (10000 * progress));
         repaint();
     }
+
+    public void proofsConsidered(long count) {
+        myProofsConsidered.setText("Proofs considered: " + count);
+        repaint();
+    }
 }
@@ -80,6 +80,9 @@ public final class Prover {
     private static final String FLAG_DESC_VERBOSE =
             "Prints prover debugging information.  May be used with either the "
                     + "-prove or -altprove options.";
+    private static final String FLAG_DESC_RACE =
+            "Runs the strategies of the legacy prover concurrently, stopping "
+                    + "the rest as soon as one proves a VC.";
     private static final String FLAG_DESC_NOGUI =
             "Supresses any graphical interfaces so that the compiler can be run "
                     + "headlessly.";
@@ -139,6 +142,16 @@ public final class Prover {
             new Flag(FLAG_SECTION_NAME, "timeout", FLAG_DESC_TIMEOUT,
                     FLAG_TIMEOUT_ARGS, Flag.Type.HIDDEN);
 
+    /**
+     * <p>
+     * Races the old prover's strategies against one another on separate
+     * threads, rather than trying each in turn.
+     * </p>
+     */
+    public static final Flag FLAG_RACE =
+            new Flag(FLAG_SECTION_NAME, "raceprove", FLAG_DESC_RACE,
+                    Flag.Type.HIDDEN);
+
     /**
      * <p>
      * Prints additional debugging information.
@@ -489,8 +502,8 @@ public final class Prover {
         if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)) {
             output.append("  Overall, " + metrics.getNumProofsConsidered()
                     + " proofs were directly considered and "
-                    + metrics.numTimesBacktracked + " useful backtracks were "
-                    + "performed.");
+                    + metrics.getNumTimesBacktracked()
+                    + " useful backtracks were performed.");
         }
 
         output.append("\n");
@@ -556,6 +569,7 @@ public final class Prover {
         if (!myInstanceEnvironment.flags.isFlagSet(FLAG_NOGUI)) {
             myProgressWindow.setTitle("VC " + vC.getName());
             myProgressWindow.setActionCanceller(c);
+            myProgressWindow.proofsConsidered(0);
         }
 
         if (p == null) {
@@ -728,41 +742,17 @@ public final class Prover {
         VCTransformer batchDeveloper = buildBatchTheoryDeveloper(5);
         TransformationChooser reductionStep = setUpReductionTransformer();
 
-        // First reduce, then develop
-        /*
-         * TransformationChooser preprocessingStep = new
-         * FirstStepGivenTransformationChooser( reductionStep, batchDeveloper);
-         */
-
-        // These are the different depth-first-searches of the proof
-        // space we will try
-        LinkedList<TransformationChooser> rounds =
-                new LinkedList<TransformationChooser>();
-        rounds.add(new LengthWindowTransformationChooser(mainStrategy, 0, 2));
-        rounds.add(new LengthWindowTransformationChooser(mainStrategy, 3, 3));
-        rounds.add(new LengthWindowTransformationChooser(mainStrategy, 4, 4));
-
-        MultiStrategyProver retval = new MultiStrategyProver();
-        VCProver curDepth;
-
-        // Create a strategy for each defined depth-first-search
+        // First reduce, then develop, then try each of the different
+        // depth-first-searches of the proof space in turn, each picking up
+        // where the last left off
         String failoverNote = "--- End of reduction phase. ---";
-        TransformationChooser developAndProve;
-        for (TransformationChooser chooser : rounds) {
-
-            // Right before we start proving, we need to develop theories
-            developAndProve =
-                    new FirstStepGivenTransformationChooser(chooser,
-                            batchDeveloper);
-
-            // And before everything, reduce
-            curDepth =
-                    new AlternativeProver(myInstanceEnvironment,
-                            new FailoverChooser(reductionStep, developAndProve,
-                                    failoverNote));
-
-            retval.addStrategy(curDepth);
-        }
+        IterativeDeepeningProver retval =
+                new IterativeDeepeningProver(myInstanceEnvironment,
+                        reductionStep, batchDeveloper, mainStrategy,
+                        failoverNote);
+        retval.addRound(0, 2);
+        retval.addRound(3, 3);
+        retval.addRound(4, 4);
 
         return retval;
     }
@@ -852,29 +842,53 @@ public final class Prover {
     }
 
     private VCProver setUpOldProver(VerificationCondition vc) {
-        BlindIterativeRuleChooser baseChooser =
-                new UpfrontFitnessSortRuleChooser(new SimpleFitnessFunction(),
-                        0);
-        baseChooser.addRules(myTheoremNames, myTheorems);
-        baseChooser.lock(vc);
+        boolean race = myInstanceEnvironment.flags.isFlagSet(FLAG_RACE);
+
+        //Raced strategies run at once, so each needs a chooser of its own
+        BlindIterativeRuleChooser shortChooser =
+                buildOldProverChooser(myTheoremNames, myTheorems, vc);
+        BlindIterativeRuleChooser longChooser = shortChooser;
+        if (race) {
+            longChooser = buildOldProverChooser(myTheoremNames, myTheorems, vc);
+        }
 
         vc.simplify();
 
-        MultiStrategyProver p = new MultiStrategyProver();
+        MultiStrategyProver p = new MultiStrategyProver(race);
 
         SingleStrategyProver slaveProver =
-                new SingleStrategyProver(new LengthLimitedProvider(baseChooser,
-                        2), false, 0, myImplications, myInstanceEnvironment);
+                new SingleStrategyProver(new LengthLimitedProvider(
+                        shortChooser, 2), false, 0, myImplications,
+                        myInstanceEnvironment);
         p.addStrategy(slaveProver);
 
         slaveProver =
-                new SingleStrategyProver(new LengthLimitedProvider(baseChooser,
+                new SingleStrategyProver(new LengthLimitedProvider(longChooser,
                         3), false, 3, myImplications, myInstanceEnvironment);
         p.addStrategy(slaveProver);
 
         return p;
     }
 
+    /**
+     * <p>Returns a locked chooser over <code>theorems</code>, named by
+     * <code>theoremNames</code>, whose rules are ordered by their fitness for
+     * <code>vc</code>.  Its rules remember the bindings of their latest match,
+     * so it must not be used by two strategies at once.</p>
+     */
+    static BlindIterativeRuleChooser buildOldProverChooser(
+            java.util.List<String> theoremNames, java.util.List<Exp> theorems,
+            VerificationCondition vc) {
+
+        BlindIterativeRuleChooser result =
+                new UpfrontFitnessSortRuleChooser(new SimpleFitnessFunction(),
+                        0);
+        result.addRules(theoremNames, theorems);
+        result.lock(vc);
+
+        return result;
+    }
+
     private String getProofFileName() {
         File file = myInstanceEnvironment.getTargetFile();
         ModuleID cid = myInstanceEnvironment.getModuleID(file);
@@ -895,6 +909,7 @@ public final class Prover {
         Flag[] someProveFlag = { FLAG_LEGACY_PROVE, FLAG_PROVE };
         FlagDependencies.addRequires(FLAG_DEBUG, someProveFlag);
         FlagDependencies.addRequires(FLAG_VERBOSE, someProveFlag);
+        FlagDependencies.addRequires(FLAG_RACE, FLAG_LEGACY_PROVE);
 
         FlagDependencies.addImplies(FLAG_LEGACY_PROVE_ALIAS, FLAG_LEGACY_PROVE);
 
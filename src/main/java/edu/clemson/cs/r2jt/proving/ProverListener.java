@@ -15,4 +15,11 @@ package edu.clemson.cs.r2jt.proving;
 public interface ProverListener {
 
     public void progressUpdate(double progess);
+
+    /**
+     * <p>Reports the number of proofs the search in progress has considered
+     * so far.  This is called periodically rather than on every proof, from
+     * the thread doing the proving.</p>
+     */
+    public void proofsConsidered(long count);
 }
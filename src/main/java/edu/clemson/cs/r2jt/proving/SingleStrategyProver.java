@@ -208,8 +208,7 @@ class SingleStrategyProver implements VCProver {
         if (OPTION_BACKTRACK_ON_CYCLE && isRepeatState(vC, pastStates)) {
             //We've decided not to explore the tree from here down, so update
             //the count on the number of times we've usefully backtracked
-            metrics.numTimesBacktracked =
-                    metrics.numTimesBacktracked.add(BigInteger.ONE);
+            metrics.incrementTimesBacktracked();
         }
         else {
             pastStates.push(vC);
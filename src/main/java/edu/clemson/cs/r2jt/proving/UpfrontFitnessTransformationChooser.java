@@ -26,7 +26,9 @@ public class UpfrontFitnessTransformationChooser
 
     private final TransformerFitnessFunction myFitnessFunction;
     private final double myThreshold;
-    private List<VCTransformer> myPerVCOrdering;
+    private final DiscriminationTreeTransformerIndex myLibraryIndex;
+    private DiscriminationTreeTransformerIndex.Ordering myPerVCOrdering;
+    private DiscriminationTreeTransformerIndex.Ordering myPerVCLocalTheorems;
     private final CompileEnvironment myInstanceEnvironment;
 
     public UpfrontFitnessTransformationChooser(TransformerFitnessFunction f,
@@ -37,12 +39,16 @@ public class UpfrontFitnessTransformationChooser
         myFitnessFunction = f;
         myThreshold = threshold;
 
+        //Most rules can't apply to any given state of the proof, so index the
+        //library up front so that we need only suggest those that might
+        myLibraryIndex = new DiscriminationTreeTransformerIndex(library);
+
         myInstanceEnvironment = e;
     }
 
     @Override
     public void preoptimizeForVC(VC vc) {
-        myPerVCOrdering = new LinkedList<VCTransformer>();
+        List<VCTransformer> ordering = new LinkedList<VCTransformer>();
 
         List<PriorityAugmentedObject<VCTransformer>> priorityList =
                 new LinkedList<PriorityAugmentedObject<VCTransformer>>();
@@ -71,15 +77,22 @@ public class UpfrontFitnessTransformationChooser
                         + curRule.getObject());
             }
 
-            myPerVCOrdering.add(curRule.getObject());
+            ordering.add(curRule.getObject());
         }
 
+        myPerVCOrdering = myLibraryIndex.order(ordering);
+
+        List<VCTransformer> localTheorems = new LinkedList<VCTransformer>();
         RuleNormalizer n = new SubstitutionRuleNormalizer(false);
         for (PExp e : vc.getAntecedent()) {
             for (VCTransformer t : n.normalize(e)) {
-                myPerVCOrdering.add(t);
+                localTheorems.add(t);
             }
         }
+
+        myPerVCLocalTheorems =
+                new DiscriminationTreeTransformerIndex(localTheorems)
+                        .order(localTheorems);
     }
 
     protected Iterator<ProofPathSuggestion> doSuggestTransformations(VC vc,
@@ -88,9 +101,12 @@ public class UpfrontFitnessTransformationChooser
 
         Iterator<ProofPathSuggestion> retval;
 
+        List<VCTransformer> applicable = myPerVCOrdering.getApplicableTo(vc);
+        applicable.addAll(myPerVCLocalTheorems.getApplicableTo(vc));
+
         retval =
                 new LazyMappingIterator<VCTransformer, ProofPathSuggestion>(
-                        myPerVCOrdering.iterator(),
+                        applicable.iterator(),
                         new StaticProofDataSuggestionMapping(d));
 
         return retval;
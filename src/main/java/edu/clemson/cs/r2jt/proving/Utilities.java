@@ -18,6 +18,7 @@ import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import edu.clemson.cs.r2jt.absyn.BetweenExp;
 import edu.clemson.cs.r2jt.absyn.DotExp;
@@ -43,8 +44,18 @@ import edu.clemson.cs.r2jt.type.Type;
  */
 public class Utilities {
 
-    private static boolean genericBindWarningPrinted = false;
-    private static boolean myBindDebugFlag = false;
+    /**
+     * <p>Whether the warning about binding a generic class has been printed.
+     * It is printed once per process, whichever thread binds one first.</p>
+     */
+    private static final AtomicBoolean genericBindWarningPrinted =
+            new AtomicBoolean();
+
+    /**
+     * <p>Set from the debug options window, on the GUI thread, and read by
+     * whatever threads are proving.</p>
+     */
+    private static volatile boolean myBindDebugFlag = false;
 
     public static void setBindDebugFlag(boolean f) {
         myBindDebugFlag = f;
@@ -568,11 +579,10 @@ public class Utilities {
         }
         else {
 
-            if (!genericBindWarningPrinted) {
+            if (genericBindWarningPrinted.compareAndSet(false, true)) {
                 System.out.println("WARNING: Binding generic class "
                         + pattern.getClass() + " by subexpressions only in "
                         + "proving.Utilities.bind.");
-                genericBindWarningPrinted = true;
             }
 
             if (pattern.getClass().equals(e.getClass())) {
@@ -799,11 +809,10 @@ public class Utilities {
         }
         else {
 
-            if (!genericBindWarningPrinted) {
+            if (genericBindWarningPrinted.compareAndSet(false, true)) {
                 System.out.println("WARNING: Binding generic class "
                         + pattern.getClass() + " by subexpressions only in "
                         + "proving.Utilities.bind.");
-                genericBindWarningPrinted = true;
             }
 
             if (pattern.getClass().equals(e.getClass())) {
@@ -13,6 +13,7 @@
 package edu.clemson.cs.r2jt.proving;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -73,6 +74,13 @@ public class VC {
         return myName;
     }
 
+    /**
+     * <p>Returns a VC identical to this one, but named <code>name</code>.</p>
+     */
+    public VC renamed(String name) {
+        return new VC(name, myAntecedent, myConsequent, myDerivedFlag);
+    }
+
     public Antecedent getAntecedent() {
         return myAntecedent;
     }
@@ -212,8 +220,8 @@ public class VC {
     }
 
     public Set<String> getSymbolNames() {
-        Set<String> retval = myAntecedent.getSymbolNames();
-        retval.addAll(myAntecedent.getSymbolNames());
+        Set<String> retval = new HashSet<String>(myAntecedent.getSymbolNames());
+        retval.addAll(myConsequent.getSymbolNames());
 
         return retval;
     }
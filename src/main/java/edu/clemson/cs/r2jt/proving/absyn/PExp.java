@@ -45,6 +45,7 @@ import edu.clemson.cs.r2jt.proving.immutableadts.ImmutableList;
 import edu.clemson.cs.r2jt.proving2.Utilities;
 import edu.clemson.cs.r2jt.proving2.model.Site;
 import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
@@ -344,7 +345,7 @@ public abstract class PExp {
         if (e instanceof FunctionExp) {
             FunctionExp eAsFunctionExp = (FunctionExp) e;
 
-            List<PExp> arguments = new LinkedList<PExp>();
+            List<PExp> arguments = new ArrayList<PExp>();
             Iterator<Exp> eArgs = eAsFunctionExp.argumentIterator();
             while (eArgs.hasNext()) {
                 arguments.add(PExp.buildPExp(eArgs.next()));
@@ -360,7 +361,7 @@ public abstract class PExp {
         else if (e instanceof PrefixExp) {
             PrefixExp eAsPrefixExp = (PrefixExp) e;
 
-            List<PExp> arguments = new LinkedList<PExp>();
+            List<PExp> arguments = new ArrayList<PExp>(1);
             arguments.add(PExp.buildPExp(eAsPrefixExp.getArgument()));
 
             retval =
@@ -370,7 +371,7 @@ public abstract class PExp {
         else if (e instanceof InfixExp) {
             InfixExp eAsInfixExp = (InfixExp) e;
 
-            List<PExp> arguments = new LinkedList<PExp>();
+            List<PExp> arguments = new ArrayList<PExp>(2);
             arguments.add(PExp.buildPExp(eAsInfixExp.getLeft()));
             arguments.add(PExp.buildPExp(eAsInfixExp.getRight()));
 
@@ -382,7 +383,7 @@ public abstract class PExp {
         else if (e instanceof IsInExp) {
             IsInExp eAsIsInExp = (IsInExp) e;
 
-            List<PExp> arguments = new LinkedList<PExp>();
+            List<PExp> arguments = new ArrayList<PExp>(2);
             arguments.add(PExp.buildPExp(eAsIsInExp.getLeft()));
             arguments.add(PExp.buildPExp(eAsIsInExp.getRight()));
 
@@ -393,7 +394,7 @@ public abstract class PExp {
         else if (e instanceof OutfixExp) {
             OutfixExp eAsOutfixExp = (OutfixExp) e;
 
-            List<PExp> arguments = new LinkedList<PExp>();
+            List<PExp> arguments = new ArrayList<PExp>(1);
             arguments.add(PExp.buildPExp(eAsOutfixExp.getArgument()));
 
             retval =
@@ -405,7 +406,7 @@ public abstract class PExp {
         else if (e instanceof EqualsExp) {
             EqualsExp eAsEqualsExp = (EqualsExp) e;
 
-            List<PExp> arguments = new LinkedList<PExp>();
+            List<PExp> arguments = new ArrayList<PExp>(2);
             arguments.add(PExp.buildPExp(eAsEqualsExp.getLeft()));
             arguments.add(PExp.buildPExp(eAsEqualsExp.getRight()));
 
@@ -0,0 +1,281 @@
+/**
+ * PExpDiscriminationTree.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol.Quantification;
+
+/**
+ * <p>A <em>discrimination tree</em> over a set of patterns, each associated
+ * with some value, that can retrieve, in a single walk over an expression,
+ * those patterns that might {@link PExp#bindTo(PExp, Map) bind} to it, without
+ * trying each pattern in turn.</p>
+ *
+ * <p>Each pattern is filed under the path of its symbols in preorder, where a
+ * symbol is identified by its name and number of arguments, just as
+ * <code>PSymbol.bindTo()</code> compares them.  A universally quantified
+ * variable, along with any arguments it is applied to, is filed as a
+ * <em>wildcard</em> that stands for any subexpression at all, as is any
+ * pattern that isn't a <code>PSymbol</code>.</p>
+ *
+ * <p>Retrieval is conservative: it ignores types and repeated variables, so
+ * every pattern that binds to an expression is among those retrieved for it,
+ * but the caller must still call <code>bindTo()</code> to confirm any given
+ * candidate.  Once built, a tree may be safely shared between threads so long
+ * as no more patterns are added.</p>
+ *
+ * @param <T> The type of value associated with each pattern.
+ */
+public class PExpDiscriminationTree<T> {
+
+    private final Node<T> myRoot = new Node<T>();
+
+    private int mySize;
+
+    /**
+     * <p>Files <code>value</code> under <code>pattern</code>.  The same value
+     * may be filed under several patterns, and several values under the same
+     * pattern.</p>
+     */
+    public void add(PExp pattern, T value) {
+        List<Key> path = new LinkedList<Key>();
+        buildPath(pattern, path);
+
+        Node<T> node = myRoot;
+        for (Key k : path) {
+            node = node.getOrCreateChild(k);
+        }
+
+        node.myValues.add(value);
+        mySize++;
+    }
+
+    /**
+     * <p>Returns true <strong>iff</strong> <code>pattern</code> is rooted at
+     * something other than a wildcard, and so will be retrieved only for
+     * some expressions.  A pattern that isn't might as well be tried against
+     * every expression without consulting a tree.</p>
+     */
+    public static boolean discriminates(PExp pattern) {
+        return (pattern instanceof PSymbol)
+                && ((PSymbol) pattern).quantification != Quantification.FOR_ALL;
+    }
+
+    /**
+     * <p>Returns the number of patterns that have been added.</p>
+     */
+    public int size() {
+        return mySize;
+    }
+
+    /**
+     * <p>Adds to <code>accumulator</code> the value of each pattern that might
+     * bind to <code>e</code> itself.</p>
+     */
+    public void collectCandidates(PExp e, Collection<? super T> accumulator) {
+        Flattening f = new Flattening(e);
+
+        collect(myRoot, f, 0, f.size(), accumulator);
+    }
+
+    /**
+     * <p>Adds to <code>accumulator</code> the value of each pattern that might
+     * bind to <code>e</code> or to any of its subexpressions, at any depth.
+     * </p>
+     */
+    public void collectCandidatesWithin(PExp e,
+            Collection<? super T> accumulator) {
+
+        if (mySize > 0) {
+            Flattening f = new Flattening(e);
+
+            for (int i = 0; i < f.size(); i++) {
+                collect(myRoot, f, i, f.getEndOfSubexpression(i), accumulator);
+            }
+
+            //The subexpressions of anything other than a PSymbol are left out
+            //of the flattening, so visit them separately
+            for (PExp opaque : f.myOpaqueExpressions) {
+                for (PExp subexpression : opaque.getSubExpressions()) {
+                    collectCandidatesWithin(subexpression, accumulator);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Walks the tree from <code>node</code> along those paths that might
+     * match positions <code>position</code> through <code>end</code>
+     * (exclusive) of <code>f</code>, collecting the values at the end of each.
+     * </p>
+     */
+    private void collect(Node<T> node, Flattening f, int position, int end,
+            Collection<? super T> accumulator) {
+
+        if (position == end) {
+            accumulator.addAll(node.myValues);
+        }
+        else {
+            if (node.myWildcardChild != null) {
+                collect(node.myWildcardChild, f, f
+                        .getEndOfSubexpression(position), end, accumulator);
+            }
+
+            Key k = f.myKeys.get(position);
+            if (k != null && node.myChildren != null) {
+                Node<T> child = node.myChildren.get(k);
+
+                if (child != null) {
+                    collect(child, f, position + 1, end, accumulator);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Appends to <code>path</code> the keys of <code>pattern</code> in
+     * preorder, using <code>null</code> for a wildcard.</p>
+     */
+    private static void buildPath(PExp pattern, List<Key> path) {
+        if (discriminates(pattern)) {
+            PSymbol patternAsPSymbol = (PSymbol) pattern;
+            path.add(new Key(patternAsPSymbol));
+
+            for (PExp argument : patternAsPSymbol.arguments) {
+                buildPath(argument, path);
+            }
+        }
+        else {
+            path.add(null);
+        }
+    }
+
+    /**
+     * <p>A symbol as <code>PSymbol.bindTo()</code> distinguishes it: by name
+     * and number of arguments.</p>
+     */
+    private static class Key {
+
+        private final String myName;
+        private final int myArity;
+        private final int myHashCode;
+
+        public Key(PSymbol s) {
+            myName = s.name;
+            myArity = s.arguments.size();
+            myHashCode = 31 * myName.hashCode() + myArity;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            boolean result = (o instanceof Key);
+
+            if (result) {
+                Key oAsKey = (Key) o;
+                result =
+                        myArity == oAsKey.myArity
+                                && myName.equals(oAsKey.myName);
+            }
+
+            return result;
+        }
+
+        @Override
+        public int hashCode() {
+            return myHashCode;
+        }
+    }
+
+    private static class Node<T> {
+
+        private Map<Key, Node<T>> myChildren;
+        private Node<T> myWildcardChild;
+        private final List<T> myValues = new ArrayList<T>(1);
+
+        public Node<T> getOrCreateChild(Key k) {
+            Node<T> result;
+
+            if (k == null) {
+                if (myWildcardChild == null) {
+                    myWildcardChild = new Node<T>();
+                }
+
+                result = myWildcardChild;
+            }
+            else {
+                if (myChildren == null) {
+                    myChildren = new HashMap<Key, Node<T>>();
+                }
+
+                result = myChildren.get(k);
+                if (result == null) {
+                    result = new Node<T>();
+                    myChildren.put(k, result);
+                }
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * <p>An expression laid out in preorder, as a pattern's path is, alongside
+     * where each subexpression ends so that a wildcard can skip over it.
+     * Anything other than a <code>PSymbol</code> takes up a single position
+     * with a <code>null</code> key, since only a wildcard can match it.</p>
+     */
+    private static class Flattening {
+
+        private final List<Key> myKeys = new ArrayList<Key>();
+        private final List<Integer> myEnds = new ArrayList<Integer>();
+        private final List<PExp> myOpaqueExpressions = new LinkedList<PExp>();
+
+        public Flattening(PExp e) {
+            flatten(e);
+        }
+
+        public int size() {
+            return myKeys.size();
+        }
+
+        public int getEndOfSubexpression(int position) {
+            return myEnds.get(position);
+        }
+
+        private void flatten(PExp e) {
+            int position = myKeys.size();
+            myEnds.add(null);
+
+            if (e instanceof PSymbol) {
+                PSymbol eAsPSymbol = (PSymbol) e;
+                myKeys.add(new Key(eAsPSymbol));
+
+                for (PExp argument : eAsPSymbol.arguments) {
+                    flatten(argument);
+                }
+            }
+            else {
+                myKeys.add(null);
+                myOpaqueExpressions.add(e);
+            }
+
+            myEnds.set(position, myKeys.size());
+        }
+    }
+}
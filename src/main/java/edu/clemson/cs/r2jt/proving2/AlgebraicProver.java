@@ -12,6 +12,8 @@
  */
 package edu.clemson.cs.r2jt.proving2;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
+import edu.clemson.cs.r2jt.congruenceclassprover.CongruenceClassProver;
 import edu.clemson.cs.r2jt.data.ModuleID;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.proving.Prover;
@@ -29,6 +31,7 @@ import edu.clemson.cs.r2jt.proving2.transformations.NoOpLabel;
 import edu.clemson.cs.r2jt.proving2.transformations.ReplaceSymmetricEqualityWithTrueInConsequent;
 import edu.clemson.cs.r2jt.proving2.transformations.ReplaceTheoremInConsequentWithTrue;
 import edu.clemson.cs.r2jt.proving2.transformations.Transformation;
+import edu.clemson.cs.r2jt.proving2.utilities.ConsequentTransformationIndex;
 import edu.clemson.cs.r2jt.typeandpopulate.EntryTypeQuery;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTable.FacilityStrategy;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTable.ImportStrategy;
@@ -37,7 +40,6 @@ import edu.clemson.cs.r2jt.typeandpopulate.entry.TheoremEntry;
 import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
 import edu.clemson.cs.r2jt.utilities.Flag;
 import edu.clemson.cs.r2jt.utilities.FlagDependencies;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
@@ -62,6 +64,16 @@ public class AlgebraicProver {
             "Verify target file with RESOLVE's integrated prover.";
     private static final String FLAG_DESC_INTERACTIVE =
             "Start the prover in interactive mode.";
+    private static final String FLAG_DESC_RELEVANCE_DEPTH =
+            "Before the -newprove or -ccprove provers see a VC, drops those "
+                    + "givens that aren't linked to its goal by shared "
+                    + "variables within the given number of steps.";
+
+    public static final String FLAG_RELEVANCE_DEPTH_ARG_NAME = "depth";
+
+    private static final String[] FLAG_RELEVANCE_DEPTH_ARGS =
+            { FLAG_RELEVANCE_DEPTH_ARG_NAME };
+
     /**
      * <p> The main prover flag. Causes the integrated prover to attempt to
      * dispatch generated VCs. </p>
@@ -74,12 +86,24 @@ public class AlgebraicProver {
     public static final Flag FLAG_INTERACTIVE =
             new Flag(Prover.FLAG_SECTION_NAME, "interactive",
                     FLAG_DESC_INTERACTIVE);
+    /**
+     * <p>Prunes givens irrelevant to the goal from each VC as it is prepared
+     * for this prover or the congruence class prover, both of which use the
+     * same VC representation.</p>
+     */
+    public static final Flag FLAG_RELEVANCE_DEPTH =
+            new Flag(Prover.FLAG_SECTION_NAME, "relevancedepth",
+                    FLAG_DESC_RELEVANCE_DEPTH, FLAG_RELEVANCE_DEPTH_ARGS,
+                    Flag.Type.HIDDEN);
 
     public static void setUpFlags() {
         FlagDependencies.addExcludes(FLAG_PROVE, Prover.FLAG_PROVE);
         FlagDependencies.addExcludes(FLAG_PROVE, Prover.FLAG_LEGACY_PROVE);
 
         FlagDependencies.addImplies(FLAG_PROVE, Prover.FLAG_SOME_PROVER);
+
+        FlagDependencies.addRequires(FLAG_RELEVANCE_DEPTH, new Flag[] {
+                FLAG_PROVE, CongruenceClassProver.FLAG_PROVE });
     }
 
     private final NextVC NEXT_VC = new NextVC();
@@ -93,6 +117,7 @@ public class AlgebraicProver {
     private final List<VC> myVCs;
     private final TypeGraph myTypeGraph;
     private final ImmutableList<Theorem> myTheoremLibrary;
+    private final ConsequentTransformationIndex myConsequentIndex;
     private JProverFrame myUI;
     private boolean myInteractiveModeFlag = false;
     private boolean myRunningFlag = false;
@@ -141,12 +166,15 @@ public class AlgebraicProver {
 
         myTheoremLibrary = new ArrayBackedImmutableList<Theorem>(theorems);
 
+        //Shared by every VC in the module, so build it just once
+        myConsequentIndex = new ConsequentTransformationIndex(myTheoremLibrary);
+
         myModels[0] =
                 new PerVCProverModel(g, vcs.get(0).getName(), vcs.get(0),
-                        myTheoremLibrary);
+                        myTheoremLibrary, myInstanceEnvironment);
         myAutomatedProvers[0] =
-                new AutomatedProver(myModels[0], myTheoremLibrary, scope,
-                        myTimeout);
+                new AutomatedProver(myModels[0], myTheoremLibrary,
+                        myConsequentIndex, scope, myTimeout);
 
         if (environment.flags.isFlagSet(Prover.FLAG_NOGUI)) {
             myUI = null;
@@ -202,7 +230,8 @@ public class AlgebraicProver {
         myWorkingThread = Thread.currentThread();
         myRunningFlag = true;
         while (myRunningFlag) {
-            if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+            if (!myInstanceEnvironment.flags
+                    .isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("AlgebraicProver - Starting");
             }
             //This will block until it either finishes proving or is told to
@@ -210,7 +239,8 @@ public class AlgebraicProver {
             if (!myInteractiveModeFlag) {
                 myAutomatedProvers[myVCIndex].start();
             }
-            if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+            if (!myInstanceEnvironment.flags
+                    .isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("AlgebraicProver - Out -- Interactive: "
                         + myInteractiveModeFlag);
             }
@@ -312,13 +342,16 @@ public class AlgebraicProver {
             buffers[i].append("=================================== ");
             buffers[i].append(myModels[i].getTheoremName());
             buffers[i].append(" ===================================\n\n");
+            buffers[i].append(RelevanceFilter.describePruned(myVCs.get(i)
+                    .getPrunedAntecedents()));
 
             if (myModels[i].noConsequents()) {
                 buffers[i].append("[PROVED] via:\n\n");
 
                 PerVCProverModel workingModel =
                         new PerVCProverModel(myTypeGraph, myVCs.get(i)
-                                .getName(), myVCs.get(i), myTheoremLibrary);
+                                .getName(), myVCs.get(i), myTheoremLibrary,
+                                myInstanceEnvironment);
 
                 buffers[i].append(workingModel.toString());
                 buffers[i].append("\n\n");
@@ -395,7 +428,8 @@ public class AlgebraicProver {
     }
 
     private void setVCIndex(int index) {
-        if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+        if (!myInstanceEnvironment.flags
+                .isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out.println("Algebraic Prover - SET VC INDEX " + index);
         }
         int previousIndex = myVCIndex;
@@ -405,10 +439,11 @@ public class AlgebraicProver {
         if (myModels[myVCIndex] == null) {
             myModels[myVCIndex] =
                     new PerVCProverModel(myTypeGraph, myVCs.get(myVCIndex)
-                            .getName(), myVCs.get(myVCIndex), myTheoremLibrary);
+                            .getName(), myVCs.get(myVCIndex), myTheoremLibrary,
+                            myInstanceEnvironment);
             myAutomatedProvers[myVCIndex] =
                     new AutomatedProver(myModels[myVCIndex], myTheoremLibrary,
-                            myModuleScope, myTimeout);
+                            myConsequentIndex, myModuleScope, myTimeout);
         }
 
         if (myUI != null) {
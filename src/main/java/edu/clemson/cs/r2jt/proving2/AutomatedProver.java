@@ -34,13 +34,13 @@ import edu.clemson.cs.r2jt.proving2.proofsteps.ProofStep;
 import edu.clemson.cs.r2jt.proving2.transformations.NoOpLabel;
 import edu.clemson.cs.r2jt.proving2.transformations.SubstituteInPlaceInConsequent;
 import edu.clemson.cs.r2jt.proving2.transformations.Transformation;
+import edu.clemson.cs.r2jt.proving2.utilities.ConsequentTransformationIndex;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTable.FacilityStrategy;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTable.ImportStrategy;
 import edu.clemson.cs.r2jt.typeandpopulate.ModuleScope;
 import edu.clemson.cs.r2jt.typeandpopulate.entry.MathSymbolEntry;
 import edu.clemson.cs.r2jt.typeandpopulate.entry.SymbolTableEntry;
 import edu.clemson.cs.r2jt.typeandpopulate.query.NameQuery;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
 import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Comparator;
@@ -96,9 +96,17 @@ public class AutomatedProver {
     private long myStartTime;
     private long myEndTime;
 
+    /**
+     * <p>Creates a new automated prover for the VC in <code>m</code>, which
+     * will consult <code>consequentIndex</code>, built over
+     * <code>theoremLibrary</code>, to skip those consequent transformations
+     * that cannot apply at each step of the main proof.
+     * <code>consequentIndex</code> may be <code>null</code>.</p>
+     */
     public AutomatedProver(PerVCProverModel m,
-            ImmutableList<Theorem> theoremLibrary, ModuleScope moduleScope,
-            int timeout) {
+            ImmutableList<Theorem> theoremLibrary,
+            ConsequentTransformationIndex consequentIndex,
+            ModuleScope moduleScope, int timeout) {
         myModel = m;
         myMainProofFitnessFunction = new MainProofFitnessFunction(m);
         myAntecedentDeveloperFitnessFunction =
@@ -116,7 +124,7 @@ public class AutomatedProver {
         //optimizations/heuristics it's useful to know which of those come from 
         //programmatic variables and which come from mathematical definitions
         myVariableSymbols = determineVariableSymbols(myModel, moduleScope);
-        if (!FlagManager.getInstance().isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
+        if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out.println("VARSYM: " + myVariableSymbols);
 
             System.out
@@ -125,7 +133,7 @@ public class AutomatedProver {
         List<Transformation> consequentTransformations =
                 orderByFitnessFunction(myTheoremLibrary,
                         myMainProofFitnessFunction);
-        if (!FlagManager.getInstance().isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
+        if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out
                     .println("###################### antecedent transformations");
         }
@@ -167,7 +175,8 @@ public class AutomatedProver {
         steps.add(new ApplyN(new NoOpLabel(this, SEARCH_START_LABEL), 1));
 
         steps.add(Simplify.INSTANCE);
-        steps.add(new MainProofLevel(m, 3, consequentTransformations));
+        steps.add(new MainProofLevel(m, 3, consequentTransformations,
+                consequentIndex));
 
         myAutomatorStack.push(new PushSequence(steps));
     }
@@ -194,22 +203,19 @@ public class AutomatedProver {
 
             top = transformationHeap.poll();
             transformations.add(top);
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println(top + " (" + top.getClass() + ") -- "
                         + f.calculateFitness(top));
             }
         }
 
         if (transformationHeap.size() > 0) {
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("<<<<<<<<<<<<<<< recommend against");
             }
             while (!transformationHeap.isEmpty()) {
                 top = transformationHeap.poll();
-                if (!FlagManager.getInstance().isFlagSet(
-                        ResolveCompiler.FLAG_NO_DEBUG)) {
+                if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                     System.out.println(top + " (" + top.getClass() + ") -- "
                             + f.calculateFitness(top));
                 }
@@ -321,13 +327,12 @@ public class AutomatedProver {
 
     public void uiUpdateFinished() {
         myPrepForUIUpdateFlag = false;
-        if (!FlagManager.getInstance().isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
+        if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out.println("AutomatedProver - uiUpdateFinished");
         }
 
         if (myWorkerThread != null) {
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("AutomatedProver - Interrupting");
             }
             myWorkerThread.interrupt();
@@ -352,8 +357,7 @@ public class AutomatedProver {
 
             myWorkerThread = Thread.currentThread();
 
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out
                         .println("============= AutomatedProver - start() ==============");
             }
@@ -369,8 +373,7 @@ public class AutomatedProver {
             }
             myRunningFlag = false;
             myEndTime = System.currentTimeMillis();
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("AutomatedProver - end of start()");
             }
 
@@ -385,7 +388,7 @@ public class AutomatedProver {
     }
 
     public void pause() {
-        if (!FlagManager.getInstance().isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
+        if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out.println("AutomatedProver - pause()");
         }
         myRunningFlag = false;
@@ -403,7 +406,7 @@ public class AutomatedProver {
             //loop unwinds and start() terminates
             myPrepForUIUpdateFlag = false;
         }
-        if (!FlagManager.getInstance().isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
+        if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out.println("AutomatedProver - end of pause()");
             System.out.println("Goal stack: " + myAutomatorStack);
         }
@@ -424,8 +427,7 @@ public class AutomatedProver {
         myTakingStepFlag = true;
 
         if (myPrepForUIUpdateFlag) {
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("AutomatedProver - Prepping for UI update");
             }
 
@@ -444,8 +446,7 @@ public class AutomatedProver {
                     }
                 }
             }
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("AutomatedProver - Done with UI update");
             }
         }
@@ -471,8 +472,7 @@ public class AutomatedProver {
         }
 
         if (myAutomatorStack.isEmpty() || myModel.noConsequents()) {
-            if (!FlagManager.getInstance().isFlagSet(
-                    ResolveCompiler.FLAG_NO_DEBUG)) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 if (myAutomatorStack.isEmpty()) {
                     System.out.println("Proof space exhausted.");
                 }
@@ -0,0 +1,189 @@
+/**
+ * RelevanceFilter.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving2;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol.Quantification;
+
+/**
+ * <p>Prunes from a VC those givens that can have no plausible bearing on its
+ * goal, so that the provers needn't carry them through every step of the
+ * proof.</p>
+ *
+ * <p>Relevance is judged by <em>symbol reachability</em> over the variables of
+ * the VC--that is, its unquantified symbols that take no arguments and aren't
+ * literals.  Function names such as <code>+</code> or <code>=</code> are
+ * shared by nearly every given, so they aren't considered.  A given is
+ * relevant at depth one if it mentions a variable of the consequent, and at
+ * depth <em>n</em> if it mentions a variable of some given relevant at depth
+ * <em>n - 1</em>.  Givens that mention no variables at all can't be judged,
+ * and are always kept.</p>
+ *
+ * <p>Since dropping a given can only make a VC harder to prove, never easier,
+ * pruning is safe, but too shallow a depth may lose proofs.</p>
+ */
+public class RelevanceFilter {
+
+    private final int myDepth;
+
+    /**
+     * <p>Creates a filter that keeps those givens relevant within
+     * <code>depth</code> steps of the consequent.</p>
+     *
+     * @throws IllegalArgumentException If <code>depth</code> is less than
+     *             one, since no given could then be relevant.
+     */
+    public RelevanceFilter(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Relevance depth must be at "
+                    + "least 1, but was " + depth + ".");
+        }
+
+        myDepth = depth;
+    }
+
+    /**
+     * <p>Returns a VC like <code>vc</code>, but with its irrelevant givens
+     * moved from its antecedent to its
+     * {@link VC#getPrunedAntecedents() pruned antecedents}.  If none are
+     * irrelevant, or if the consequent mentions no variables at all, returns
+     * <code>vc</code>.</p>
+     */
+    public VC filter(VC vc) {
+        Set<String> reached = new HashSet<String>();
+        for (PExp goal : vc.getConsequent()) {
+            reached.addAll(getVariables(goal));
+        }
+
+        List<PExp> givens = new ArrayList<PExp>();
+        List<Set<String>> givenVariables = new ArrayList<Set<String>>();
+        for (PExp given : vc.getAntecedent()) {
+            givens.add(given);
+            givenVariables.add(getVariables(given));
+        }
+
+        //A goal with no variables, such as false, can only be proved from the
+        //givens as a whole, so in that case all of them are relevant
+        boolean[] relevant = new boolean[givens.size()];
+        for (int i = 0; i < relevant.length; i++) {
+            relevant[i] = reached.isEmpty() || givenVariables.get(i).isEmpty();
+        }
+
+        Set<String> newlyReached = new HashSet<String>();
+        boolean progress = true;
+        for (int depth = 0; depth < myDepth && progress; depth++) {
+            newlyReached.clear();
+
+            for (int i = 0; i < relevant.length; i++) {
+                if (!relevant[i] && mentionsAny(givenVariables.get(i), reached)) {
+                    relevant[i] = true;
+                    newlyReached.addAll(givenVariables.get(i));
+                }
+            }
+
+            progress = reached.addAll(newlyReached);
+        }
+
+        VC result = vc;
+
+        List<PExp> kept = new ArrayList<PExp>();
+        List<PExp> pruned = new ArrayList<PExp>(vc.getPrunedAntecedents());
+        for (int i = 0; i < relevant.length; i++) {
+            if (relevant[i]) {
+                kept.add(givens.get(i));
+            }
+            else {
+                pruned.add(givens.get(i));
+            }
+        }
+
+        if (kept.size() < givens.size()) {
+            result =
+                    new VC(vc.getSourceName(), new Antecedent(kept), vc
+                            .getConsequent(), false, pruned);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns a description, suitable for a proof file, of the givens
+     * <code>pruned</code> from some VC, or the empty string if there were
+     * none.</p>
+     */
+    public static String describePruned(List<PExp> pruned) {
+        StringBuilder result = new StringBuilder();
+
+        if (!pruned.isEmpty()) {
+            result.append("Givens pruned as irrelevant to the goal:\n\n");
+
+            for (PExp given : pruned) {
+                result.append("  ");
+                result.append(given);
+                result.append("\n");
+            }
+
+            result.append("\n");
+        }
+
+        return result.toString();
+    }
+
+    private static boolean mentionsAny(Set<String> variables,
+            Set<String> reached) {
+
+        boolean result = false;
+
+        for (String variable : variables) {
+            if (reached.contains(variable)) {
+                result = true;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private static Set<String> getVariables(PExp e) {
+        Set<String> result = new HashSet<String>();
+
+        addVariables(e, result);
+
+        return result;
+    }
+
+    private static void addVariables(PExp e, Set<String> accumulator) {
+        if (e instanceof PSymbol) {
+            PSymbol eAsPSymbol = (PSymbol) e;
+
+            if (eAsPSymbol.arguments.size() == 0
+                    && eAsPSymbol.quantification == Quantification.NONE
+                    && !eAsPSymbol.isLiteral()
+                    && !eAsPSymbol.name.equals("true")
+                    && !eAsPSymbol.name.equals("false")) {
+
+                accumulator.add(eAsPSymbol.name);
+            }
+        }
+
+        for (PExp subexpression : e.getSubExpressions()) {
+            addVariables(subexpression, accumulator);
+        }
+    }
+}
@@ -17,6 +17,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import edu.clemson.cs.r2jt.absyn.BetweenExp;
 import edu.clemson.cs.r2jt.absyn.DotExp;
@@ -45,8 +46,18 @@ import edu.clemson.cs.r2jt.type.Type;
  */
 public class Utilities {
 
-    private static boolean genericBindWarningPrinted = false;
-    private static boolean myBindDebugFlag = false;
+    /**
+     * <p>Whether the warning about binding a generic class has been printed.
+     * It is printed once per process, whichever thread binds one first.</p>
+     */
+    private static final AtomicBoolean genericBindWarningPrinted =
+            new AtomicBoolean();
+
+    /**
+     * <p>Set from the debug options window, on the GUI thread, and read by
+     * whatever threads are proving.</p>
+     */
+    private static volatile boolean myBindDebugFlag = false;
 
     public static void setBindDebugFlag(boolean f) {
         myBindDebugFlag = f;
@@ -71,6 +82,17 @@ public class Utilities {
     }
 
     public static VC convertToImmutableVC(VerificationCondition vc) {
+        return convertToImmutableVC(vc, null);
+    }
+
+    /**
+     * <p>Converts <code>vc</code> as {@link #convertToImmutableVC}, then, if
+     * <code>relevanceFilter</code> isn't <code>null</code>, uses it to prune
+     * any givens irrelevant to the goal, so that this needn't be done by each
+     * prover.</p>
+     */
+    public static VC convertToImmutableVC(VerificationCondition vc,
+            RelevanceFilter relevanceFilter) {
 
         java.util.List<PExp> newAntecedents = new LinkedList<PExp>();
 
@@ -90,6 +112,10 @@ public class Utilities {
                 new VC(vc.getName(), new Antecedent(newAntecedents),
                         new Consequent(newConsequents));
 
+        if (relevanceFilter != null) {
+            retval = relevanceFilter.filter(retval);
+        }
+
         return retval;
     }
 
@@ -533,11 +559,10 @@ public class Utilities {
         }
         else {
 
-            if (!genericBindWarningPrinted) {
+            if (genericBindWarningPrinted.compareAndSet(false, true)) {
                 System.out.println("WARNING: Binding generic class "
                         + pattern.getClass() + " by subexpressions only in "
                         + "proving.Utilities.bind.");
-                genericBindWarningPrinted = true;
             }
 
             if (pattern.getClass().equals(e.getClass())) {
@@ -763,11 +788,10 @@ public class Utilities {
         }
         else {
 
-            if (!genericBindWarningPrinted) {
+            if (genericBindWarningPrinted.compareAndSet(false, true)) {
                 System.out.println("WARNING: Binding generic class "
                         + pattern.getClass() + " by subexpressions only in "
                         + "proving.Utilities.bind.");
-                genericBindWarningPrinted = true;
             }
 
             if (pattern.getClass().equals(e.getClass())) {
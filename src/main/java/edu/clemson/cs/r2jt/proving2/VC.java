@@ -13,6 +13,8 @@
 package edu.clemson.cs.r2jt.proving2;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -48,17 +50,33 @@ public class VC {
     private final Antecedent myAntecedent;
     private final Consequent myConsequent;
 
+    /**
+     * <p>Givens of the original VC that were judged irrelevant to its goal and
+     * left out of <code>myAntecedent</code>, kept so that they can be
+     * reported.</p>
+     */
+    private final List<PExp> myPrunedAntecedents;
+
     public VC(String name, Antecedent antecedent, Consequent consequent) {
         this(name, antecedent, consequent, false);
     }
 
     public VC(String name, Antecedent antecedent, Consequent consequent,
             boolean derived) {
+        this(name, antecedent, consequent, derived, Collections
+                .<PExp> emptyList());
+    }
+
+    public VC(String name, Antecedent antecedent, Consequent consequent,
+            boolean derived, List<PExp> prunedAntecedents) {
 
         myName = name;
         myAntecedent = antecedent;
         myConsequent = consequent;
         myDerivedFlag = derived;
+        myPrunedAntecedents =
+                Collections.unmodifiableList(new ArrayList<PExp>(
+                        prunedAntecedents));
     }
 
     public String getName() {
@@ -83,6 +101,14 @@ public class VC {
         return myConsequent;
     }
 
+    /**
+     * <p>Returns those givens of the original VC that were left out of this
+     * one's antecedent as irrelevant to proving it.</p>
+     */
+    public List<PExp> getPrunedAntecedents() {
+        return myPrunedAntecedents;
+    }
+
     @Override
     public String toString() {
 
@@ -0,0 +1,194 @@
+/**
+ * VCScheduler.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving2;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+
+/**
+ * <p>Divides a single proving budget for a whole module among its VCs, rather
+ * than giving each VC the same fixed timeout.</p>
+ *
+ * <p>VCs are handed out in order of their estimated difficulty, easiest first,
+ * and each receives a slice of whatever budget remains in proportion to its
+ * share of the difficulty of the VCs still to come.  So easy VCs get short
+ * slices, and whatever part of a slice goes unused because its VC was proved
+ * early is spread over the remaining, harder, VCs.  A VC's difficulty is
+ * estimated from its size and the number of distinct symbols it mentions.</p>
+ *
+ * <p>Typical use is:</p>
+ *
+ * <pre>
+ * while (scheduler.hasNext()) {
+ *     int index = scheduler.next();
+ *     if (scheduler.hasSlice()) {
+ *         long slice = scheduler.getSlice();
+ *         ... try to prove VC number index for at most slice milliseconds ...
+ *         scheduler.finished(elapsedMilliseconds);
+ *     }
+ *     else {
+ *         ... report VC number index as skipped, not as unproved ...
+ *     }
+ * }
+ * </pre>
+ *
+ * <p>Since VCs are handed out out of order, callers should store each result
+ * at its index so that they may be reported in the order the VCs were
+ * given.</p>
+ */
+public class VCScheduler {
+
+    private final List<Integer> myOrder;
+    private final long[] myDifficulties;
+
+    private long myRemainingBudget;
+    private long myRemainingDifficulty;
+
+    /**
+     * <p>The most any one VC may be given, regardless of the budget.</p>
+     */
+    private final long myMaximumSlice;
+
+    private int myNextPosition;
+    private int myCurrentIndex = -1;
+    private long myCurrentSlice;
+
+    /**
+     * <p>Creates a scheduler that will divide <code>budget</code> milliseconds
+     * among <code>vcs</code>, giving no one VC more than
+     * <code>maximumSlice</code>.</p>
+     */
+    public VCScheduler(List<VC> vcs, long budget, long maximumSlice) {
+        myDifficulties = new long[vcs.size()];
+        myOrder = new ArrayList<Integer>(vcs.size());
+
+        for (int i = 0; i < myDifficulties.length; i++) {
+            myDifficulties[i] = estimateDifficulty(vcs.get(i));
+            myRemainingDifficulty += myDifficulties[i];
+            myOrder.add(i);
+        }
+
+        //The sort is stable, so equally difficult VCs keep their order
+        Collections.sort(myOrder, new Comparator<Integer>() {
+
+            @Override
+            public int compare(Integer o1, Integer o2) {
+                long d1 = myDifficulties[o1];
+                long d2 = myDifficulties[o2];
+
+                return (d1 < d2) ? -1 : ((d1 == d2) ? 0 : 1);
+            }
+        });
+
+        myRemainingBudget = budget;
+        myMaximumSlice = maximumSlice;
+    }
+
+    public boolean hasNext() {
+        return myNextPosition < myOrder.size();
+    }
+
+    /**
+     * <p>Returns the index, in the list of VCs this scheduler was created
+     * with, of the next VC to attempt, and sets aside its slice of the
+     * budget.</p>
+     */
+    public int next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        myCurrentIndex = myOrder.get(myNextPosition);
+        myNextPosition++;
+
+        long difficulty = myDifficulties[myCurrentIndex];
+        double share = (double) difficulty / myRemainingDifficulty;
+        myCurrentSlice =
+                Math.min((long) (getRemainingBudget() * share), myMaximumSlice);
+
+        myRemainingDifficulty -= difficulty;
+
+        return myCurrentIndex;
+    }
+
+    /**
+     * <p>Returns the number of milliseconds the VC most recently returned from
+     * {@link #next()} may be worked on.  This is zero once the budget has been
+     * spent.</p>
+     */
+    public long getSlice() {
+        return myCurrentSlice;
+    }
+
+    /**
+     * <p>Returns whether the VC most recently returned from {@link #next()}
+     * was given any time at all.  If not, the budget ran out before it was
+     * reached, and it should be reported as skipped rather than attempted and
+     * failed.</p>
+     */
+    public boolean hasSlice() {
+        return myCurrentSlice > 0;
+    }
+
+    /**
+     * <p>Records that the VC most recently returned from {@link #next()} took
+     * <code>elapsed</code> milliseconds, so that any part of its slice it
+     * didn't use may go to those still to come.</p>
+     */
+    public void finished(long elapsed) {
+        myRemainingBudget -= elapsed;
+    }
+
+    public long getRemainingBudget() {
+        return Math.max(myRemainingBudget, 0);
+    }
+
+    /**
+     * <p>Returns a rough measure of how hard <code>vc</code> will be to prove:
+     * the number of nodes in its expressions plus the number of distinct
+     * symbols among them.  Always positive.</p>
+     */
+    public static long estimateDifficulty(VC vc) {
+        long size = 1;
+        Set<String> symbols = new HashSet<String>();
+
+        for (PExp e : vc.getAntecedent()) {
+            size += countNodes(e);
+            symbols.addAll(e.getSymbolNames());
+        }
+
+        for (PExp e : vc.getConsequent()) {
+            size += countNodes(e);
+            symbols.addAll(e.getSymbolNames());
+        }
+
+        return size + symbols.size();
+    }
+
+    private static long countNodes(PExp e) {
+        long result = 1;
+
+        for (PExp subexpression : e.getSubExpressions()) {
+            result += countNodes(subexpression);
+        }
+
+        return result;
+    }
+}
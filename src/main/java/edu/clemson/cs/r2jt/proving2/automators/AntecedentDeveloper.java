@@ -12,6 +12,7 @@
  */
 package edu.clemson.cs.r2jt.proving2.automators;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.proving2.model.Theorem;
 import edu.clemson.cs.r2jt.proving2.applications.Application;
 import edu.clemson.cs.r2jt.proving2.model.PerVCProverModel;
@@ -19,7 +20,6 @@ import edu.clemson.cs.r2jt.proving2.transformations.ExpandAntecedentByImplicatio
 import edu.clemson.cs.r2jt.proving2.transformations.ExpandAntecedentBySubstitution;
 import edu.clemson.cs.r2jt.proving2.transformations.Transformation;
 import edu.clemson.cs.r2jt.proving2.utilities.AddsSomethingNewPredicate;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
 import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -61,7 +61,7 @@ public class AntecedentDeveloper implements Automator {
     @Override
     public void step(Deque<Automator> stack, PerVCProverModel model) {
         if (myRemainingRounds > 0) {
-            if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+            if (!model.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("AntecedentDeveloper got the heartbeat.");
             }
             stack.push(new AntecedentDeveloperRound(model));
@@ -134,7 +134,7 @@ public class AntecedentDeveloper implements Automator {
                         && myProbationaryApplication.changeStuck()) {
                     myDevelopmentCount++;
                 }
-                if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+                if (!model.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                     System.out
                             .println("AntecedentDeveloperRound - adding development - "
                                     + myDevelopmentCount);
@@ -20,6 +20,7 @@ import edu.clemson.cs.r2jt.proving2.model.Theorem;
 import edu.clemson.cs.r2jt.proving2.applications.Application;
 import edu.clemson.cs.r2jt.proving2.model.PerVCProverModel;
 import edu.clemson.cs.r2jt.proving2.transformations.Transformation;
+import edu.clemson.cs.r2jt.proving2.utilities.ConsequentTransformationIndex;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -51,6 +52,7 @@ public class MainProofLevel implements Automator {
     private final PerVCProverModel myModel;
     private final int myTetherLength;
     private final Iterable<Transformation> myTransformations;
+    private final ConsequentTransformationIndex myIndex;
 
     private Iterator<Transformation> myTransformationsIterator;
     private Transformation myCurrentTransformation;
@@ -66,16 +68,31 @@ public class MainProofLevel implements Automator {
 
     public MainProofLevel(PerVCProverModel model, int tetherLength,
             Iterable<Transformation> transformations) {
-        this(model, tetherLength, transformations, new HashSet<Integer>());
+        this(model, tetherLength, transformations, null);
+    }
+
+    /**
+     * <p>As {@link #MainProofLevel(PerVCProverModel, int, Iterable)}, but
+     * skipping at each level those of <code>transformations</code> that
+     * <code>index</code> says cannot apply.  <code>index</code> may be
+     * <code>null</code>, in which case every transformation is tried.</p>
+     */
+    public MainProofLevel(PerVCProverModel model, int tetherLength,
+            Iterable<Transformation> transformations,
+            ConsequentTransformationIndex index) {
+        this(model, tetherLength, transformations, index,
+                new HashSet<Integer>());
     }
 
     public MainProofLevel(PerVCProverModel model, int tetherLength,
             Iterable<Transformation> transformations,
+            ConsequentTransformationIndex index,
             Set<Integer> previousProofStates) {
 
         myModel = model;
         myTetherLength = tetherLength;
         myTransformations = transformations;
+        myIndex = index;
         myPreviousProofStates = previousProofStates;
 
         myCurrentApplications =
@@ -96,9 +113,15 @@ public class MainProofLevel implements Automator {
             }
         }
 
+        Iterable<Transformation> libraryTransformations = myTransformations;
+        if (myIndex != null) {
+            libraryTransformations =
+                    myIndex.getApplicableTo(myModel, myTransformations);
+        }
+
         myTransformationsIterator =
                 new ChainingIterator<Transformation>(localTransformations
-                        .iterator(), myTransformations.iterator());
+                        .iterator(), libraryTransformations.iterator());
     }
 
     /**
@@ -152,7 +175,7 @@ public class MainProofLevel implements Automator {
 
             if (myTetherLength > 0 && !myDetectedCycleFlag) {
                 stack.push(new MainProofLevel(myModel, myTetherLength - 1,
-                        myTransformations, myPreviousProofStates));
+                        myTransformations, myIndex, myPreviousProofStates));
             }
             break;
         default:
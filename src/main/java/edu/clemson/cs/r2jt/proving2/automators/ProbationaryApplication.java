@@ -12,11 +12,11 @@
  */
 package edu.clemson.cs.r2jt.proving2.automators;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.proving2.applications.Application;
 import edu.clemson.cs.r2jt.proving2.model.PerVCProverModel;
 import edu.clemson.cs.r2jt.proving2.proofsteps.ProofStep;
 import edu.clemson.cs.r2jt.proving2.utilities.Predicate;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
 import java.util.Deque;
 
 /**
@@ -51,7 +51,7 @@ public class ProbationaryApplication implements Automator {
             if (!myPredicate.test(model.getLastProofStep())) {
                 model.undoLastProofStep();
                 myChangeStuckFlag = false;
-                if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+                if (!model.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                     System.out
                             .println("ProbationaryApplication - Rolling back change");
                 }
@@ -12,9 +12,9 @@
  */
 package edu.clemson.cs.r2jt.proving2.gui;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.proving2.model.PerVCProverModel;
 import edu.clemson.cs.r2jt.proving2.proofsteps.ProofStep;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
 import java.awt.BorderLayout;
 import javax.swing.DefaultListModel;
 import javax.swing.JList;
@@ -94,7 +94,7 @@ public class JProofDisplay extends JPanel {
 
         @Override
         public void stateChanged(ChangeEvent e) {
-            if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+            if (!myModel.isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out.println("JProofDisplay - stateChanged()");
             }
             refreshProofSteps();
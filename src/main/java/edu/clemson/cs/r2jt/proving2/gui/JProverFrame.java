@@ -12,6 +12,7 @@
  */
 package edu.clemson.cs.r2jt.proving2.gui;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
 import edu.clemson.cs.r2jt.proving.immutableadts.EmptyImmutableList;
@@ -33,7 +34,6 @@ import edu.clemson.cs.r2jt.typeandpopulate.MTType;
 import edu.clemson.cs.r2jt.typeandpopulate.MathSymbolTableBuilder;
 import edu.clemson.cs.r2jt.utilities.FlagDependencies;
 import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
 import java.awt.Color;
@@ -265,7 +265,8 @@ public class JProverFrame extends JFrame {
         }
         m.addElement(new DummyTheorem(ExistentialInstantiation.INSTANCE));
         myTheoremList.setModel(m);
-        if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+        if (!myProverStateDisplay.getModel().isFlagSet(
+                ResolveCompiler.FLAG_NO_DEBUG)) {
             System.out.println("setGlobalTheorems");
         }
         prepForTheoremSelection();
@@ -698,7 +699,8 @@ public class JProverFrame extends JFrame {
 
         @Override
         public void stateChanged(ChangeEvent e) {
-            if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+            if (!myProverStateDisplay.getModel().isFlagSet(
+                    ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out
                         .println("JProverFrame.EnterTheoremSelectionOnModelChange - enter");
             }
@@ -706,18 +708,21 @@ public class JProverFrame extends JFrame {
 
                 @Override
                 public void run() {
-                    if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+                    if (!myProverStateDisplay.getModel().isFlagSet(
+                            ResolveCompiler.FLAG_NO_DEBUG)) {
                         System.out
                                 .println("JProverFrame.EnterTheoremSelectionOnModelChange - enterJob");
                     }
                     prepForTheoremSelection();
-                    if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+                    if (!myProverStateDisplay.getModel().isFlagSet(
+                            ResolveCompiler.FLAG_NO_DEBUG)) {
                         System.out
                                 .println("JProverFrame.EnterTheoremSelectionOnModelChange - exitJob");
                     }
                 }
             });
-            if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+            if (!myProverStateDisplay.getModel().isFlagSet(
+                    ResolveCompiler.FLAG_NO_DEBUG)) {
                 System.out
                         .println("JProverFrame.EnterTheoremSelectionOnModelChange - exit");
             }
@@ -12,6 +12,8 @@
  */
 package edu.clemson.cs.r2jt.proving2.model;
 
+import edu.clemson.cs.r2jt.ResolveCompiler;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.proving.ChainingIterator;
 import edu.clemson.cs.r2jt.proving.DummyIterator;
 import edu.clemson.cs.r2jt.proving.LazyMappingIterator;
@@ -35,7 +37,7 @@ import edu.clemson.cs.r2jt.proving2.utilities.InductiveSiteIteratorIterator;
 import edu.clemson.cs.r2jt.proving2.utilities.SimpleArrayList;
 import edu.clemson.cs.r2jt.proving2.utilities.UnsafeIteratorLinkedList;
 import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
-import edu.clemson.cs.r2jt.utilities.FlagManager;
+import edu.clemson.cs.r2jt.utilities.Flag;
 import edu.clemson.cs.r2jt.utilities.Mapping;
 import java.io.IOException;
 import java.util.Collections;
@@ -169,11 +171,24 @@ public final class PerVCProverModel {
      */
     private AutomatedProver myAutomatedProver;
     private ChangeEventMode myChangeEventMode = ChangeEventMode.INTERMITTENT;
+    /**
+     * <p>The environment of the compilation this model is proving a VC for,
+     * or <code>null</code> if it was created outside of any compilation.</p>
+     */
+    private final CompileEnvironment myInstanceEnvironment;
 
     public PerVCProverModel(TypeGraph g, String proofFor,
             List<PExp> antecedents, List<PExp> consequents,
             ImmutableList<Theorem> theoremLibrary) {
+        this(g, proofFor, antecedents, consequents, theoremLibrary, null);
+    }
+
+    public PerVCProverModel(TypeGraph g, String proofFor,
+            List<PExp> antecedents, List<PExp> consequents,
+            ImmutableList<Theorem> theoremLibrary,
+            CompileEnvironment environment) {
 
+        myInstanceEnvironment = environment;
         myTheoremName = proofFor;
 
         for (PExp assumption : antecedents) {
@@ -192,8 +207,29 @@ public final class PerVCProverModel {
 
     public PerVCProverModel(TypeGraph g, String proofFor, VC vc,
             ImmutableList<Theorem> theoremLibrary) {
+        this(g, proofFor, vc, theoremLibrary, null);
+    }
+
+    public PerVCProverModel(TypeGraph g, String proofFor, VC vc,
+            ImmutableList<Theorem> theoremLibrary,
+            CompileEnvironment environment) {
         this(g, proofFor, listFromIterable(vc.getAntecedent()),
-                listFromIterable(vc.getConsequent()), theoremLibrary);
+                listFromIterable(vc.getConsequent()), theoremLibrary,
+                environment);
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong> <code>f</code> is set
+     * for the compilation this model belongs to.  A model created outside of
+     * any compilation has no flags set.</p>
+     *
+     * @param f The flag to check.
+     *
+     * @return <code>true</code> <strong>iff</strong> the flag is set.
+     */
+    public boolean isFlagSet(Flag f) {
+        return myInstanceEnvironment != null
+                && myInstanceEnvironment.flags.isFlagSet(f);
     }
 
     public String getTheoremName() {
@@ -284,7 +320,7 @@ public final class PerVCProverModel {
 
             @Override
             public void run() {
-                if (!FlagManager.getInstance().isFlagSet("nodebug")) {
+                if (!isFlagSet(ResolveCompiler.FLAG_NO_DEBUG)) {
                     System.out
                             .println("PerVCProverModel - Alerting Change Listeners");
 
@@ -86,6 +86,10 @@ public class ReplaceTheoremInConsequentWithTrue implements Transformation {
         return Collections.singleton("true");
     }
 
+    public PExp getPattern() {
+        return myTheoremAssertion;
+    }
+
     @Override
     public Equivalence getEquivalence() {
         return Equivalence.EQUIVALENT;
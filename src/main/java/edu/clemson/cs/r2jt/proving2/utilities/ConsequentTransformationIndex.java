@@ -0,0 +1,112 @@
+/**
+ * ConsequentTransformationIndex.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving2.utilities;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PExpDiscriminationTree;
+import edu.clemson.cs.r2jt.proving2.model.Consequent;
+import edu.clemson.cs.r2jt.proving2.model.PerVCProverModel;
+import edu.clemson.cs.r2jt.proving2.model.Theorem;
+import edu.clemson.cs.r2jt.proving2.transformations.ReplaceTheoremInConsequentWithTrue;
+import edu.clemson.cs.r2jt.proving2.transformations.SubstituteInPlaceInConsequent;
+import edu.clemson.cs.r2jt.proving2.transformations.Transformation;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>An index over the match patterns of those transformations of a theorem
+ * library that bind a single pattern somewhere in the consequent, so that, for
+ * a given state of a proof, the transformations with no hope of applying may be
+ * skipped without searching the consequent for a binding.</p>
+ *
+ * <p>The patterns are kept in a
+ * {@link PExpDiscriminationTree PExpDiscriminationTree}, which retrieves those
+ * that might bind anywhere in a consequent in a single walk over it.  Since a
+ * <code>Theorem</code> builds new transformations each time it is asked for
+ * them, but always from the same assertion, the index is keyed on patterns
+ * rather than on transformations, and may be built once for a module's theorem
+ * library and consulted for each of its VCs.</p>
+ */
+public class ConsequentTransformationIndex {
+
+    private final PExpDiscriminationTree<PExp> myPatterns =
+            new PExpDiscriminationTree<PExp>();
+
+    /**
+     * <p>Those patterns that appear in <code>myPatterns</code>.</p>
+     */
+    private final Set<PExp> myIndexedPatterns = new HashSet<PExp>();
+
+    public ConsequentTransformationIndex(Iterable<Theorem> library) {
+        for (Theorem theorem : library) {
+            for (Transformation t : theorem.getTransformations()) {
+                PExp pattern = getIndexablePattern(t);
+
+                if (pattern != null && myIndexedPatterns.add(pattern)) {
+                    myPatterns.add(pattern, pattern);
+                }
+            }
+        }
+    }
+
+    /**
+     * <p>Returns, in order, those of <code>transformations</code> that might
+     * apply to the current state of <code>m</code>.  Any transformation whose
+     * pattern wasn't indexed is assumed to apply.</p>
+     */
+    public List<Transformation> getApplicableTo(PerVCProverModel m,
+            Iterable<Transformation> transformations) {
+
+        Set<PExp> candidates = new HashSet<PExp>();
+        for (Consequent c : m.getConsequentList()) {
+            myPatterns.collectCandidatesWithin(c.getExpression(), candidates);
+        }
+
+        List<Transformation> result = new LinkedList<Transformation>();
+        PExp pattern;
+        for (Transformation t : transformations) {
+            pattern = getIndexablePattern(t);
+
+            if (pattern == null || candidates.contains(pattern)
+                    || !myIndexedPatterns.contains(pattern)) {
+                result.add(t);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns the single pattern <code>t</code> must bind somewhere in the
+     * consequent in order to apply, or <code>null</code> if there's no such
+     * pattern we know of.</p>
+     */
+    private static PExp getIndexablePattern(Transformation t) {
+        PExp result = null;
+
+        if (t instanceof SubstituteInPlaceInConsequent) {
+            result = ((SubstituteInPlaceInConsequent) t).getPattern();
+        }
+        else if (t instanceof ReplaceTheoremInConsequentWithTrue) {
+            result = ((ReplaceTheoremInConsequentWithTrue) t).getPattern();
+        }
+
+        if (result != null && !PExpDiscriminationTree.discriminates(result)) {
+            result = null;
+        }
+
+        return result;
+    }
+}
@@ -104,7 +104,7 @@ public abstract class AbstractTranslator extends TreeWalkerStackVisitor {
      * <code>ProgramDotExp</code>. Once we are done walking the
      * <code>ProgramDotExp</code>, its value becomes Null again.</p>
      */
-    private PosSymbol myFacilityQualifier;
+    protected PosSymbol myFacilityQualifier;
 
     public AbstractTranslator(CompileEnvironment env, ScopeRepository repo) {
         myInstanceEnvironment = env;
@@ -848,15 +848,21 @@ public abstract class AbstractTranslator extends TreeWalkerStackVisitor {
     public void outputCode(File outputFile) {
         if (!myInstanceEnvironment.flags.isFlagSet(ResolveCompiler.FLAG_WEB)
                 || myInstanceEnvironment.flags.isFlagSet(Archiver.FLAG_ARCHIVE)) {
-            outputAsFile(outputFile.getAbsolutePath(), myActiveTemplates.peek()
-                    .render());
+            outputAsFile(outputFile.getAbsolutePath(), getOutput());
             // System.out.println(myActiveTemplates.peek().render());
         }
         else {
-            outputToReport(myActiveTemplates.peek().render());
+            outputToReport(getOutput());
         }
     }
 
+    /**
+     * <p>Returns the translated code, without writing it anywhere.</p>
+     */
+    public String getOutput() {
+        return myActiveTemplates.peek().render();
+    }
+
     private void outputToReport(String fileContents) {
         CompileReport report = myInstanceEnvironment.getCompileReport();
         report.setTranslateSuccess();
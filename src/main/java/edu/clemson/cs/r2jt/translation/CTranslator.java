@@ -70,7 +70,7 @@ public class CTranslator extends AbstractTranslator {
 
     public CTranslator(CompileEnvironment env, ScopeRepository repo) {
         super(env, repo);
-        myGroup = new STGroupFile("templates/C.stg");
+        myGroup = TemplateGroupCache.getGroup(env, "templates/C.stg");
     }
 
     //-------------------------------------------------------------------
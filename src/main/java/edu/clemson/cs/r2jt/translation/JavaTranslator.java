@@ -43,6 +43,24 @@ public class JavaTranslator extends AbstractTranslator {
     private static final String FLAG_DESC_TRANSLATE_CLEAN =
             "Regenerates Java code for all supporting RESOLVE files.";
 
+    /**
+     * <p>The <code>Std_Boolean_Fac</code> operations that are translated to
+     * Java's own boolean operators when they appear in the condition of a
+     * <code>while</code> or <code>if</code>, mapped to the templates that do
+     * so.</p>
+     */
+    private static final Map<String, String> UNBOXED_BOOLEAN_OPERATIONS;
+
+    static {
+        Map<String, String> operations = new HashMap<String, String>();
+
+        operations.put("And", "boolean_and");
+        operations.put("Or", "boolean_or");
+        operations.put("Not", "boolean_not");
+
+        UNBOXED_BOOLEAN_OPERATIONS = Collections.unmodifiableMap(operations);
+    }
+
     /**
      * <p>The main translator flag.  Tells the compiler convert
      * RESOLVE source code to Java source code.</p>
@@ -85,11 +103,26 @@ public class JavaTranslator extends AbstractTranslator {
      * <code>EnhancementBodyItem</code> being walked.</p>
      */
     private ModuleParameterization myCurrentEnhancement = null;
-    private ST myBaseInstantiation, myBaseEnhancement;
+    private ST myBaseInstantiation;
+
+    /**
+     * <p>The names of the <code>enhanced_facility_class</code>es already
+     * generated for the current module, so that facilities enhanced with
+     * the same capabilities share a single class.</p>
+     */
+    private Set<String> myEnhancedFacilityClasses = new HashSet<String>();
+
+    /**
+     * <p>The unboxed boolean operation templates created for the current
+     * module. Any other template reaching a condition or an unboxed
+     * operation is a boxed <code>Std_Boolean_Realiz.Boolean</code>.</p>
+     */
+    private Set<ST> myUnboxedOperations =
+            Collections.newSetFromMap(new IdentityHashMap<ST, Boolean>());
 
     public JavaTranslator(CompileEnvironment env, ScopeRepository repo) {
         super(env, repo);
-        myGroup = new STGroupFile("templates/Java.stg");
+        myGroup = TemplateGroupCache.getGroup(env, "templates/Java.stg");
     }
 
     //-------------------------------------------------------------------
@@ -165,7 +198,6 @@ public class JavaTranslator extends AbstractTranslator {
     public void preEnhancementBodyModuleDec(EnhancementBodyModuleDec node) {
 
         addPackageTemplate(node);
-        addReflectionImportTemplates();
 
         List<ProgramParameterEntry> formals =
                 getModuleFormalParameters(node.getConceptName());
@@ -177,7 +209,6 @@ public class JavaTranslator extends AbstractTranslator {
 
         enhancementBody.add("implement", node.getEnhancementName().getName());
         enhancementBody.add("implement", node.getConceptName().getName());
-        enhancementBody.add("implement", "InvocationHandler");
 
         myActiveTemplates.push(enhancementBody);
 
@@ -186,15 +217,6 @@ public class JavaTranslator extends AbstractTranslator {
         }
     }
 
-    private void addReflectionImportTemplates() {
-
-        ST imp =
-                myGroup.getInstanceOf("include").add("directories",
-                        "java.lang.reflect");
-
-        myActiveTemplates.firstElement().add("includes", imp);
-    }
-
     /**
      * <p>This is where we give the enhancement body all the functionality
      * defined in the base concept. This is done via a set of functions
@@ -203,49 +225,7 @@ public class JavaTranslator extends AbstractTranslator {
      */
     @Override
     public void postEnhancementBodyModuleDec(EnhancementBodyModuleDec node) {
-
-        try {
-            ModuleScope conceptScope =
-                    myBuilder.getModuleScope(new ModuleIdentifier(node
-                            .getConceptName().getName()));
-
-            List<OperationEntry> conceptOperations =
-                    conceptScope.query(new EntryTypeQuery<OperationEntry>(
-                            OperationEntry.class, ImportStrategy.IMPORT_NONE,
-                            FacilityStrategy.FACILITY_IGNORE));
-
-            List<ProgramTypeDefinitionEntry> conceptTypes =
-                    conceptScope
-                            .query(new EntryTypeQuery<ProgramTypeDefinitionEntry>(
-                                    ProgramTypeDefinitionEntry.class,
-                                    ImportStrategy.IMPORT_NONE,
-                                    FacilityStrategy.FACILITY_IGNORE));
-
-            for (OperationEntry o : conceptOperations) {
-                PTType returnType =
-                        (o.getReturnType() instanceof PTVoid) ? null : o
-                                .getReturnType();
-
-                addEnhancementConceptualFunction(returnType, o.getName(), o
-                        .getParameters());
-            }
-
-            for (ProgramParameterEntry p : getModuleFormalParameters(node
-                    .getConceptName())) {
-
-                addEnhancementConceptualFunction(p.getDeclaredType(), (p
-                        .getDeclaredType() instanceof PTElement) ? "getType"
-                        + p.getName() : "get" + p.getName(), null);
-            }
-
-            for (ProgramTypeDefinitionEntry e : conceptTypes) {
-                addEnhancementConceptualFunction(e.getProgramType(), "create"
-                        + e.getName(), null);
-            }
-        }
-        catch (NoSuchSymbolException nsse) {
-            noSuchModule(node.getConceptName());
-        }
+        addDelegatingFunctions("conceptfunctions", "con", node.getConceptName());
     }
 
     @Override
@@ -343,8 +323,6 @@ public class JavaTranslator extends AbstractTranslator {
         List<ModuleParameterization> enhancements =
                 myCurrentFacilityEntry.getEnhancements();
 
-        boolean proxied = myCurrentFacilityEntry.getEnhancements().size() > 1;
-
         if (myBaseInstantiation.getAttribute("arguments") instanceof ST) {
             singleArg = ((ST) myBaseInstantiation.getAttribute("arguments"));
         }
@@ -365,7 +343,7 @@ public class JavaTranslator extends AbstractTranslator {
         }
 
         myActiveTemplates.push(myGroup.getInstanceOf("facility_init"));
-        myActiveTemplates.peek().add("isProxied", proxied).add("realization",
+        myActiveTemplates.peek().add("realization",
                 node.getBodyName().getName());
 
         if (myBaseInstantiation.getAttribute("arguments") instanceof ST) {
@@ -376,35 +354,23 @@ public class JavaTranslator extends AbstractTranslator {
         }
     }
 
+    /**
+     * <p>A facility with a single enhancement is simply an instance of the
+     * enhancement's realization wrapped around the base realization. With
+     * two or more, every enhancement wraps the same base instance, which is
+     * stored in a variable of its own (see
+     * {@link #postFacilityDec(FacilityDec)}).</p>
+     */
     @Override
     public void postEnhancementBodyItem(EnhancementBodyItem node) {
 
-        String curName = node.getBodyName().getName();
-
-        List<ModuleParameterization> enhancements =
-                myCurrentFacilityEntry.getEnhancements();
-
-        ModuleParameterization first = enhancements.get(0);
-        ModuleParameterization last = enhancements.get(enhancements.size() - 1);
-
-        String firstBodyName =
-                myCurrentFacilityEntry.getEnhancementRealization(first)
-                        .getModuleIdentifier().toString();
-
-        String lastBodyName =
-                myCurrentFacilityEntry.getEnhancementRealization(last)
-                        .getModuleIdentifier().toString();
-
-        if (curName.equals(lastBodyName)) {
+        if (myCurrentFacilityEntry.getEnhancements().size() == 1) {
             myActiveTemplates.peek().add("arguments",
                     myBaseInstantiation.render());
         }
-
-        if (curName.equals(firstBodyName)) {
-            myBaseEnhancement = myActiveTemplates.peek();
-        }
         else {
-            myBaseEnhancement.add("arguments", myActiveTemplates.peek());
+            myActiveTemplates.peek().add("arguments",
+                    getBaseInstantiationName(myCurrentFacilityEntry.getName()));
         }
     }
 
@@ -420,12 +386,20 @@ public class JavaTranslator extends AbstractTranslator {
         // instantiation.. THEN push on the formed (enhanced) rhs.
         if (myActiveTemplates.peek() != myBaseInstantiation) {
 
+            LinkedList<ST> enhancements = new LinkedList<ST>();
             for (ModuleParameterization p : myCurrentFacilityEntry
                     .getEnhancements()) {
-                myActiveTemplates.pop();
+                enhancements.addFirst(myActiveTemplates.pop());
             }
             myActiveTemplates.pop();
-            myActiveTemplates.push(myBaseEnhancement);
+
+            if (enhancements.size() == 1) {
+                myActiveTemplates.push(enhancements.getFirst());
+            }
+            else {
+                myActiveTemplates.push(getEnhancedFacilityInit(node,
+                        enhancements));
+            }
         }
 
         // TODO : Figure out why the hell node.getEnhancements().size() is 0
@@ -640,6 +614,60 @@ public class JavaTranslator extends AbstractTranslator {
         myActiveTemplates.push(callStmt);
     }
 
+    /**
+     * <p>Conditions built from <code>Std_Boolean_Fac</code>'s
+     * <code>And</code>, <code>Or</code> and <code>Not</code> are translated
+     * directly to Java boolean expressions over the unboxed values of their
+     * operands, rather than to facility calls that each allocate a new
+     * <code>Boolean</code> just to have it unboxed again.</p>
+     */
+    @Override
+    public void preProgramParamExp(ProgramParamExp node) {
+
+        if (isUnboxedBooleanOperation(node)) {
+            ST operation =
+                    myGroup.getInstanceOf(UNBOXED_BOOLEAN_OPERATIONS.get(node
+                            .getName().getName()));
+
+            myUnboxedOperations.add(operation);
+            myActiveTemplates.push(operation);
+        }
+        else {
+            super.preProgramParamExp(node);
+        }
+    }
+
+    @Override
+    public void postProgramParamExp(ProgramParamExp node) {
+
+        if (myUnboxedOperations.contains(myActiveTemplates.peek())) {
+            ST operation = myActiveTemplates.pop();
+
+            // Operands arrive as 'arguments' like any others, but only
+            // the ones that aren't unboxed operations themselves still
+            // need unboxing.
+            for (Object operand : getAttributeList(operation, "arguments")) {
+                if (!myUnboxedOperations.contains(operand)) {
+                    operand =
+                            myGroup.getInstanceOf("unboxed_boolean").add("exp",
+                                    operand);
+                }
+                operation.add("operands", operand);
+            }
+            operation.remove("arguments");
+
+            if (myUnboxedOperations.contains(myActiveTemplates.peek())) {
+                myActiveTemplates.peek().add("arguments", operation);
+            }
+            else {
+                myActiveTemplates.peek().add("condition", operation);
+            }
+        }
+        else {
+            super.postProgramParamExp(node);
+        }
+    }
+
     @Override
     public void preRepresentationDec(RepresentationDec node) {
 
@@ -899,31 +927,216 @@ public class JavaTranslator extends AbstractTranslator {
     }
 
     /**
-     * <p>This method is only intended to be called when translating
-     * <code>enhancementBodyModuleDec</code>s. It is used to construct and add
-     * a 'dummy method' that simply uses 'con' to call the actual method.</p>
+     * <p>Returns the right hand side of a <code>FacilityDec</code> enhanced
+     * with two or more capabilities: an instance of an
+     * <code>enhanced_facility_class</code> that implements the concept and
+     * each of the enhancements, and statically hands every call to the
+     * appropriate realization. The base realization is instantiated into a
+     * variable of its own, so that every enhancement can wrap it.</p>
+     *
+     * <p>For example, <code>Stack_Fac</code> enhanced by
+     * <code>Reverse_Capability</code> and <code>Print_Capability</code>
+     * becomes :
+     * <pre>
+     *     Stack_Template Stack_Fac_Base = new Array_Realiz(...);
+     *     Stack_Template Stack_Fac =
+     *         new Enhanced_Stack_Template_Reverse_Capability_Print_Capability(
+     *             Stack_Fac_Base,
+     *             new Obvious_Reverse_Realiz(..., Stack_Fac_Base),
+     *             new Obvious_Print_Realiz(..., Stack_Fac_Base));
+     * </pre>
+     * </p>
+     *
+     * @param node The enhanced <code>FacilityDec</code>.
+     * @param enhancements The instantiations of each enhancement realization,
+     *                     in the order the enhancements were declared.
+     *
+     * @return The <code>enhanced_facility_init</code> template.
+     */
+    private ST getEnhancedFacilityInit(FacilityDec node, List<ST> enhancements) {
+
+        String conceptName = node.getConceptName().getName();
+        String baseName = getBaseInstantiationName(node.getName().getName());
+
+        List<PosSymbol> enhancementNames = new LinkedList<PosSymbol>();
+        String className = "Enhanced_" + conceptName;
+        for (EnhancementBodyItem e : node.getEnhancementBodies()) {
+            enhancementNames.add(e.getName());
+            className += "_" + e.getName().getName();
+        }
+
+        if (myEnhancedFacilityClasses.add(className)) {
+            myActiveTemplates.get(1).add(
+                    "classes",
+                    getEnhancedFacilityClass(className, node.getConceptName(),
+                            enhancementNames));
+        }
+
+        ST base =
+                myGroup.getInstanceOf("var_decl").add("type", conceptName).add(
+                        "name", baseName).add("init", myBaseInstantiation);
+
+        myActiveTemplates.peek().add("variables", base);
+
+        return myGroup.getInstanceOf("enhanced_facility_init").add("classname",
+                className).add("base", baseName).add("enhancements",
+                enhancements);
+    }
+
+    private ST getEnhancedFacilityClass(String className, PosSymbol concept,
+            List<PosSymbol> enhancements) {
+
+        ST result =
+                myGroup.getInstanceOf("enhanced_facility_class").add("name",
+                        className).add("conceptname", concept.getName());
+
+        myActiveTemplates.push(result);
+        addDelegatingFunctions("functions", "con", concept);
+
+        int enhancementNum = 0;
+        for (PosSymbol e : enhancements) {
+            result.add("enhancements", e.getName());
+            addDelegatingFunctions("functions", "e" + enhancementNum, e);
+            enhancementNum++;
+        }
+
+        return myActiveTemplates.pop();
+    }
+
+    /**
+     * <p>Returns <code>true</code> iff <code>node</code> is a call to one of
+     * the {@link #UNBOXED_BOOLEAN_OPERATIONS} of <code>Std_Boolean_Fac</code>
+     * whose value is needed only as a Java <code>boolean</code>: either it
+     * is the condition of a <code>while</code> or <code>if</code>, or an
+     * operand of another such call.</p>
+     */
+    private boolean isUnboxedBooleanOperation(ProgramParamExp node) {
+
+        ST parent = myActiveTemplates.peek();
+
+        boolean unboxedContext = myUnboxedOperations.contains(parent);
+        if (!unboxedContext
+                && (parent.getName().equals("/while") || parent.getName()
+                        .equals("/if"))) {
+            unboxedContext =
+                    parent.getAttribute("arguments") == null
+                            && parent.getAttribute("condition") == null;
+        }
+
+        return unboxedContext
+                && UNBOXED_BOOLEAN_OPERATIONS.containsKey(node.getName()
+                        .getName())
+                && "Std_Boolean_Fac".equals(getCallQualifier(
+                        myFacilityQualifier, node.getName(), node
+                                .getArguments()));
+    }
+
+    private List<Object> getAttributeList(ST template, String attribute) {
+
+        List<Object> result = new LinkedList<Object>();
+        Object value = template.getAttribute(attribute);
+
+        if (value instanceof List) {
+            result.addAll((List<?>) value);
+        }
+        else if (value != null) {
+            result.add(value);
+        }
+
+        return result;
+    }
+
+    private String getBaseInstantiationName(String facilityName) {
+        return facilityName + "_Base";
+    }
+
+    /**
+     * <p>Adds to the <code>attribute</code> of the active template a
+     * 'dummy method' for every operation, type and formal parameter of module
+     * <code>moduleName</code>, each of which simply uses
+     * <code>delegate</code> to call the actual method.</p>
+     *
+     * @param attribute The attribute to which the methods should be added.
+     * @param delegate The name of the object implementing the module.
+     * @param moduleName The name of a concept or enhancement.
+     */
+    private void addDelegatingFunctions(String attribute, String delegate,
+            PosSymbol moduleName) {
+
+        try {
+            ModuleScope moduleScope =
+                    myBuilder.getModuleScope(new ModuleIdentifier(moduleName
+                            .getName()));
+
+            List<OperationEntry> operations =
+                    moduleScope.query(new EntryTypeQuery<OperationEntry>(
+                            OperationEntry.class, ImportStrategy.IMPORT_NONE,
+                            FacilityStrategy.FACILITY_IGNORE));
+
+            List<ProgramTypeDefinitionEntry> types =
+                    moduleScope
+                            .query(new EntryTypeQuery<ProgramTypeDefinitionEntry>(
+                                    ProgramTypeDefinitionEntry.class,
+                                    ImportStrategy.IMPORT_NONE,
+                                    FacilityStrategy.FACILITY_IGNORE));
+
+            for (OperationEntry o : operations) {
+                PTType returnType =
+                        (o.getReturnType() instanceof PTVoid) ? null : o
+                                .getReturnType();
+
+                addDelegatingFunction(attribute, delegate, returnType, o
+                        .getName(), o.getParameters());
+            }
+
+            List<ProgramParameterEntry> formals =
+                    getModuleFormalParameters(moduleName);
+
+            for (ProgramParameterEntry p : formals) {
+
+                addDelegatingFunction(attribute, delegate, p.getDeclaredType(),
+                        (p.getDeclaredType() instanceof PTElement) ? "getType"
+                                + p.getName() : "get" + p.getName(), null);
+            }
+
+            for (ProgramTypeDefinitionEntry e : types) {
+                addDelegatingFunction(attribute, delegate, e.getProgramType(),
+                        "create" + e.getName(), null);
+            }
+        }
+        catch (NoSuchSymbolException nsse) {
+            noSuchModule(moduleName);
+        }
+    }
+
+    /**
+     * <p>Constructs and adds a 'dummy method' that simply uses
+     * <code>delegate</code> to call the actual method.</p>
      *
-     * <p>For example, given <code>type</code> = null,
-     * <code>name</code> = 'Pop', and <code>parameters</code> = [R,
-     * S]; is method returns :
+     * <p>For example, given <code>delegate</code> = 'con',
+     * <code>type</code> = null, <code>name</code> = 'Pop', and
+     * <code>parameters</code> = [R, S]; this method adds :
      * <pre>
      *     public void Pop(RType R, Stack_Template.Stack S) {
      *         con.Pop(R, S);
      *     }
      * </pre>
      * </p>
+     * @param attribute The attribute to which the method should be added.
+     * @param delegate The name of the object implementing the method.
      * @param type A <code>PTType</code> for the function's return type.
      * @param name The name.
      *
      * @param parameters A list of <code>ProgramParameterEntries</code>
      *                   representing the function's formal parameters.
      */
-    private void addEnhancementConceptualFunction(PTType type, String name,
+    private void addDelegatingFunction(String attribute, String delegate,
+            PTType type, String name,
             ImmutableList<ProgramParameterEntry> parameters) {
 
         ST singleLine =
-                myGroup.getInstanceOf("enhanced_stmt").add("returns", type)
-                        .add("name", name);
+                myGroup.getInstanceOf("delegated_stmt").add("returns", type)
+                        .add("delegate", delegate).add("name", name);
 
         ST operation = getOperationLikeTemplate(type, name, true);
         myActiveTemplates.push(operation);
@@ -936,7 +1149,7 @@ public class JavaTranslator extends AbstractTranslator {
             }
         }
         ST result = myActiveTemplates.pop().add("stmts", singleLine);
-        myActiveTemplates.peek().add("conceptfunctions", result);
+        myActiveTemplates.peek().add(attribute, result);
     }
 
     /**
@@ -0,0 +1,190 @@
+/**
+ * TemplateGroupCache.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.translation;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+import org.stringtemplate.v4.compiler.CompiledST;
+
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.utilities.Flag;
+
+/**
+ * <p>A <code>TemplateGroupCache</code> loads each StringTemplate group file
+ * (<code>Java.stg</code>, <code>C.stg</code>, and the <code>Base.stg</code>
+ * they import) once per process, and shares the loaded group between every
+ * translator that asks for it, rather than having each translator parse and
+ * compile the group again for every module it translates.</p>
+ *
+ * <p>Groups are loaded completely before they are shared.  Even so, a loaded
+ * group isn't read-only: looking up a template it doesn't have records the
+ * miss in the group, and ST4 doesn't guard that against other threads.  So
+ * the groups handed out here serialize their template lookups, which lets a
+ * single group be used by translators on several threads at once.  Lookups
+ * are cheap next to rendering, which isn't serialized.</p>
+ *
+ * <p>While working on the templates themselves, the
+ * <code>reloadTemplates</code> flag makes the cache check whether any group
+ * file in a group's directory has changed since it was loaded, and reload the
+ * group if so, so that edits take effect without restarting the compiler.
+ * This only works for groups loaded from the file system rather than from a
+ * jar.</p>
+ */
+public class TemplateGroupCache {
+
+    // ===========================================================
+    // Flags
+    // ===========================================================
+
+    private static final String FLAG_SECTION_NAME = "Translation";
+
+    private static final String FLAG_DESC_RELOAD_TEMPLATES =
+            "Reload the translation templates whenever they change.";
+
+    /**
+     * <p>Tells the compiler to reload translation templates that have changed
+     * since they were loaded.</p>
+     */
+    public static final Flag FLAG_RELOAD_TEMPLATES =
+            new Flag(FLAG_SECTION_NAME, "reloadTemplates",
+                    FLAG_DESC_RELOAD_TEMPLATES, Flag.Type.HIDDEN);
+
+    // ===========================================================
+    // Variables
+    // ===========================================================
+
+    private static final Map<String, LoadedGroup> GROUPS =
+            new HashMap<String, LoadedGroup>();
+
+    // ===========================================================
+    // Public Methods
+    // ===========================================================
+
+    public static final void setUpFlags() {
+
+    }
+
+    /**
+     * <p>Returns the fully loaded group in the group file at
+     * <code>path</code> on the class path, loading it only if it hasn't been
+     * loaded before, or, if <code>env</code> has the
+     * <code>reloadTemplates</code> flag set, if it has changed since.</p>
+     *
+     * @param env The environment of the translator using the group.
+     * @param path The class path location of the group file.
+     *
+     * @return The shared group.
+     */
+    public static STGroup getGroup(CompileEnvironment env, String path) {
+        boolean reload = env.flags.isFlagSet(FLAG_RELOAD_TEMPLATES);
+
+        synchronized (GROUPS) {
+            LoadedGroup result = GROUPS.get(path);
+
+            if (result == null || (reload && result.myStamp != getStamp(path))) {
+                result = new LoadedGroup(path);
+                GROUPS.put(path, result);
+            }
+
+            return result.myGroup;
+        }
+    }
+
+    // ===========================================================
+    // Private Methods
+    // ===========================================================
+
+    /**
+     * <p>Returns the latest modification time of any group file in the
+     * directory of the group file at <code>path</code>, which includes any
+     * groups it imports, or <code>0</code> if it doesn't live on the file
+     * system.</p>
+     */
+    private static long getStamp(String path) {
+        long result = 0;
+
+        URL url = TemplateGroupCache.class.getClassLoader().getResource(path);
+        if (url != null && url.getProtocol().equals("file")) {
+            try {
+                File[] files =
+                        new File(url.toURI()).getParentFile().listFiles();
+
+                if (files != null) {
+                    for (File file : files) {
+                        if (file.getName().endsWith(".stg")) {
+                            result = Math.max(result, file.lastModified());
+                        }
+                    }
+                }
+            }
+            catch (URISyntaxException use) {
+                result = 0;
+            }
+        }
+
+        return result;
+    }
+
+    private static class LoadedGroup {
+
+        public final STGroup myGroup;
+
+        public final long myStamp;
+
+        public LoadedGroup(String path) {
+            myStamp = getStamp(path);
+
+            myGroup = new LockedGroupFile(path);
+            load(myGroup);
+        }
+
+        /**
+         * <p>Groups are otherwise loaded lazily, on first lookup, so load
+         * them and everything they import up front, before they're
+         * shared.</p>
+         */
+        private static void load(STGroup group) {
+            group.load();
+
+            for (STGroup imported : group.getImportedGroups()) {
+                load(imported);
+            }
+        }
+    }
+
+    /**
+     * <p>A group file whose template lookups, including those
+     * <code>getInstanceOf()</code> makes and those made while rendering,
+     * happen one at a time.  Lookups that fall through to an imported group
+     * happen under the same lock.</p>
+     */
+    private static class LockedGroupFile extends STGroupFile {
+
+        public LockedGroupFile(String path) {
+            super(path);
+        }
+
+        @Override
+        public CompiledST lookupTemplate(String name) {
+            synchronized (this) {
+                return super.lookupTemplate(name);
+            }
+        }
+    }
+}
@@ -20,11 +20,16 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * <p>A helper class to factor out some logic repeated in 
  * <code>ScopeBuilder</code> and <code>Scope</code> and remove the temptation
  * to muck about with the entry map directly.</p>
+ * 
+ * <p>A table created as an immutable copy may hand out iterators directly over
+ * its internal lists, since there is no danger of them being modified during
+ * iteration.  Mutable tables must copy.</p>
  */
 class BaseSymbolTable implements SymbolTable {
 
@@ -33,14 +38,39 @@ class BaseSymbolTable implements SymbolTable {
     private Map<Class<?>, List<SymbolTableEntry>> myEntriesByType =
             new HashMap<Class<?>, List<SymbolTableEntry>>();
 
-    public BaseSymbolTable() {}
+    private final boolean myImmutableFlag;
+
+    public BaseSymbolTable() {
+        myImmutableFlag = false;
+    }
 
     public BaseSymbolTable(BaseSymbolTable source) {
-        putAll(source.myEntries);
+        this(source, false);
+    }
+
+    /**
+     * <p>Creates a copy of <code>source</code>.  If <code>immutable</code> is
+     * <code>true</code>, the copy may not subsequently be modified.</p>
+     */
+    public BaseSymbolTable(BaseSymbolTable source, boolean immutable) {
+        myImmutableFlag = immutable;
+
+        for (Map.Entry<String, SymbolTableEntry> entry : source.myEntries
+                .entrySet()) {
+            bind(entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
     public void put(String name, SymbolTableEntry entry) {
+        if (myImmutableFlag) {
+            throw new UnsupportedOperationException("Immutable table.");
+        }
+
+        bind(name, entry);
+    }
+
+    private void bind(String name, SymbolTableEntry entry) {
         myEntries.put(name, entry);
 
         boolean foundTopLevel = false;
@@ -78,6 +108,23 @@ class BaseSymbolTable implements SymbolTable {
         return myEntries.containsKey(name);
     }
 
+    /**
+     * <p>Returns the names bound in this table.</p>
+     * 
+     * @return An unmodifiable view of the bound names.
+     */
+    public Set<String> names() {
+        return Collections.unmodifiableSet(myEntries.keySet());
+    }
+
+    /**
+     * <p>Returns <code>true</code> <strong>iff</strong>
+     * <code>iterateByType(type)</code> would return at least one entry.</p>
+     */
+    public boolean containsType(Class<?> type) {
+        return myEntriesByType.containsKey(type);
+    }
+
     @Override
     public Iterator<SymbolTableEntry> iterator() {
         return Collections.unmodifiableCollection(myEntries.values())
@@ -85,8 +132,19 @@ class BaseSymbolTable implements SymbolTable {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T extends SymbolTableEntry> Iterator<T> iterateByType(Class<T> type) {
 
+        if (myImmutableFlag) {
+            List<T> typeList = (List<T>) myEntriesByType.get(type);
+
+            if (typeList == null) {
+                typeList = Collections.emptyList();
+            }
+
+            return Collections.unmodifiableList(typeList).iterator();
+        }
+
         List<Class<T>> types = new LinkedList<Class<T>>();
         types.add(type);
 
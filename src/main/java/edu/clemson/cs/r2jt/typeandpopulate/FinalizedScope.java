@@ -37,6 +37,6 @@ public class FinalizedScope extends SyntacticScope {
             BaseSymbolTable bindings) {
 
         super(source, definingElement, parent, enclosingModule,
-                new BaseSymbolTable(bindings));
+                new BaseSymbolTable(bindings, true));
     }
 }
@@ -0,0 +1,165 @@
+/**
+ * ImportClosureIndex.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.typeandpopulate;
+
+import edu.clemson.cs.r2jt.typeandpopulate.searchers.EntryTypeSearcher;
+import edu.clemson.cs.r2jt.typeandpopulate.searchers.NameSearcher;
+import edu.clemson.cs.r2jt.typeandpopulate.searchers.TableSearcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>An <code>ImportClosureIndex</code> is a precomputed view of the
+ * transitive closure of the modules imported by some root module of a sealed
+ * {@link MathSymbolTable MathSymbolTable}.  The closure is stored in exactly
+ * the order a depth-first walk of the import graph would first encounter each
+ * module, so searching it front-to-back is equivalent to the walk performed by
+ * {@link UnqualifiedPath UnqualifiedPath}, without repeating the walk.</p>
+ *
+ * <p>In addition, the index maps each symbol name and each entry type to the
+ * (ordered) sublist of modules in the closure that could possibly contribute a
+ * match, so that {@link NameSearcher NameSearcher}s and
+ * {@link EntryTypeSearcher EntryTypeSearcher}s need only visit those.</p>
+ *
+ * <p>Since a <code>MathSymbolTable</code> is immutable, an index never needs to
+ * be invalidated.  Instances are safe for use by multiple threads.</p>
+ */
+class ImportClosureIndex {
+
+    private final List<FinalizedModuleScope> myModules;
+
+    private final Map<String, List<FinalizedModuleScope>> myModulesByName =
+            new HashMap<String, List<FinalizedModuleScope>>();
+
+    private final Map<Class<?>, List<FinalizedModuleScope>> myModulesByType =
+            new HashMap<Class<?>, List<FinalizedModuleScope>>();
+
+    public ImportClosureIndex(ModuleIdentifier root, MathSymbolTable table) {
+        List<FinalizedModuleScope> modules =
+                new ArrayList<FinalizedModuleScope>();
+        Set<ModuleIdentifier> visited = new HashSet<ModuleIdentifier>();
+        visited.add(root);
+
+        addImports(root, table, modules, visited);
+        myModules = Collections.unmodifiableList(modules);
+
+        for (FinalizedModuleScope module : myModules) {
+            for (String name : module.myBindings.names()) {
+                List<FinalizedModuleScope> definers = myModulesByName.get(name);
+
+                if (definers == null) {
+                    definers = new ArrayList<FinalizedModuleScope>(1);
+                    myModulesByName.put(name, definers);
+                }
+
+                definers.add(module);
+            }
+        }
+    }
+
+    /**
+     * <p>Returns the modules in the import closure, in depth-first order.</p>
+     *
+     * @return An immutable list of modules.
+     */
+    public List<FinalizedModuleScope> getModules() {
+        return myModules;
+    }
+
+    /**
+     * <p>Returns the ordered sublist of {@link #getModules() getModules()}
+     * that could possibly contain a match for <code>searcher</code>.  Modules
+     * not included in the result are guaranteed to contribute no matches.</p>
+     *
+     * @param searcher The searcher about to be applied to the closure.
+     *
+     * @return An immutable list of candidate modules.
+     */
+    public List<FinalizedModuleScope> getCandidates(TableSearcher<?> searcher) {
+        List<FinalizedModuleScope> result;
+
+        if (searcher instanceof NameSearcher) {
+            result =
+                    myModulesByName.get(((NameSearcher) searcher)
+                            .getSearchString());
+
+            if (result == null) {
+                result = Collections.emptyList();
+            }
+        }
+        else if (searcher instanceof EntryTypeSearcher) {
+            result =
+                    getModulesByType(((EntryTypeSearcher<?>) searcher)
+                            .getTargetClass());
+        }
+        else {
+            result = myModules;
+        }
+
+        return result;
+    }
+
+    private synchronized List<FinalizedModuleScope> getModulesByType(
+            Class<?> type) {
+
+        List<FinalizedModuleScope> result = myModulesByType.get(type);
+
+        if (result == null) {
+            result = new ArrayList<FinalizedModuleScope>();
+
+            for (FinalizedModuleScope module : myModules) {
+                if (module.myBindings.containsType(type)) {
+                    result.add(module);
+                }
+            }
+
+            result = Collections.unmodifiableList(result);
+            myModulesByType.put(type, result);
+        }
+
+        return result;
+    }
+
+    private static void addImports(ModuleIdentifier module,
+            MathSymbolTable table, List<FinalizedModuleScope> accumulator,
+            Set<ModuleIdentifier> visited) {
+
+        FinalizedModuleScope moduleScope;
+        try {
+            moduleScope = table.getModuleScope(module);
+        }
+        catch (NoSuchSymbolException nsse) {
+            //Not possible--sealing would have failed
+            throw new RuntimeException(nsse);
+        }
+
+        for (ModuleIdentifier imported : moduleScope.getImports()) {
+            if (visited.add(imported)) {
+                try {
+                    accumulator.add(table.getModuleScope(imported));
+                }
+                catch (NoSuchSymbolException nsse) {
+                    //Not possible--sealing would have failed
+                    throw new RuntimeException(nsse);
+                }
+
+                addImports(imported, table, accumulator, visited);
+            }
+        }
+    }
+}
@@ -21,21 +21,32 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.Map;
 
+/**
+ * <p>An <code>InstantiatedSymbolTable</code> presents a view of some base
+ * {@link SymbolTable SymbolTable} in which each entry has had its generics
+ * instantiated.  Instantiated entries are memoized in an
+ * {@link InstantiationCache.Instantiation Instantiation} that may be shared
+ * between several views.</p>
+ */
 public class InstantiatedSymbolTable implements SymbolTable {
 
     private final GenericInstantiatingMapping<SymbolTableEntry> INSTANTIATOR =
             new GenericInstantiatingMapping<SymbolTableEntry>();
 
     private final SymbolTable myBaseTable;
-    private final Map<String, PTType> myGenericInstantiations;
-    private final FacilityEntry myInstantiatingFacility;
+    private final InstantiationCache.Instantiation myInstantiation;
 
     public InstantiatedSymbolTable(SymbolTable base,
             Map<String, PTType> genericInstantiations,
             FacilityEntry instantiatingFacility) {
+        this(base, new InstantiationCache.Instantiation(genericInstantiations,
+                instantiatingFacility));
+    }
+
+    /*package private*/InstantiatedSymbolTable(SymbolTable base,
+            InstantiationCache.Instantiation instantiation) {
         myBaseTable = base;
-        myGenericInstantiations = genericInstantiations;
-        myInstantiatingFacility = instantiatingFacility;
+        myInstantiation = instantiation;
     }
 
     @Override
@@ -86,8 +97,7 @@ public class InstantiatedSymbolTable implements SymbolTable {
         @SuppressWarnings("unchecked")
         @Override
         public T map(T input) {
-            return (T) input.instantiateGenerics(myGenericInstantiations,
-                    myInstantiatingFacility);
+            return (T) myInstantiation.instantiate(input);
         }
     }
 }
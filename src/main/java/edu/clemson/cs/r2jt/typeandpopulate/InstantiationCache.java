@@ -0,0 +1,170 @@
+/**
+ * InstantiationCache.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.typeandpopulate;
+
+import edu.clemson.cs.r2jt.typeandpopulate.entry.FacilityEntry;
+import edu.clemson.cs.r2jt.typeandpopulate.entry.SymbolTableEntry;
+import edu.clemson.cs.r2jt.typeandpopulate.programtypes.PTType;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>An <code>InstantiationCache</code> memoizes the work of viewing the
+ * contents of a module through a facility with its generics instantiated.
+ * Searches that pass through a facility with the
+ * {@link MathSymbolTable.FacilityStrategy#FACILITY_INSTANTIATE
+ *     FACILITY_INSTANTIATE} strategy would otherwise build a fresh
+ * {@link InstantiatedScope InstantiatedScope}, a fresh
+ * {@link InstantiatedSymbolTable InstantiatedSymbolTable} and call
+ * {@link SymbolTableEntry#instantiateGenerics instantiateGenerics()} on every
+ * entry they return, every time they are performed.</p>
+ *
+ * <p>Each {@link ScopeRepository ScopeRepository} owns exactly one
+ * <code>InstantiationCache</code>, and a {@link MathSymbolTable
+ * MathSymbolTable} inherits the cache of the
+ * {@link MathSymbolTableBuilder MathSymbolTableBuilder} that sealed it, so
+ * cached instantiations live exactly as long as the symbol table.</p>
+ *
+ * <p>All keys are compared by identity.  Symbol table entries are immutable
+ * once created, and the generic instantiation maps handed to
+ * <code>Scope.addMatches()</code> are owned by the (cached)
+ * <code>InstantiatedScope</code> that produced them, so identity is both
+ * sufficient and cheaper than structural comparison--which
+ * {@link PTType PTType} doesn't support in a hash-friendly way anyway.</p>
+ */
+public class InstantiationCache {
+
+    private final Map<ModuleParameterization, Scope> myInstantiatedScopes =
+            new IdentityHashMap<ModuleParameterization, Scope>();
+
+    private final Map<FacilityEntry, Map<Map<String, PTType>, Instantiation>> myInstantiations =
+            new IdentityHashMap<FacilityEntry, Map<Map<String, PTType>, Instantiation>>();
+
+    /**
+     * <p>Returns the instantiated scope for the given module parameterization,
+     * building it with <code>parameterization</code> only the first time it is
+     * requested.</p>
+     *
+     * @param parameterization The parameterization whose instantiated scope
+     *            should be returned.
+     *
+     * @return The (possibly cached) instantiated scope.
+     */
+    public Scope getInstantiatedScope(ModuleParameterization parameterization) {
+        Scope result = myInstantiatedScopes.get(parameterization);
+
+        if (result == null) {
+            result = parameterization.buildInstantiatedScope();
+            myInstantiatedScopes.put(parameterization, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns a view of <code>base</code> in which every entry has had its
+     * generics instantiated according to <code>genericInstantiations</code>
+     * and <code>instantiatingFacility</code>.  The same view is returned for
+     * the same arguments, and the instantiated entries it returns are shared
+     * between every view with the same instantiation.</p>
+     *
+     * @param base The table to view.
+     * @param genericInstantiations A mapping from generic names to their
+     *            instantiated types.
+     * @param instantiatingFacility The facility performing the instantiation.
+     *
+     * @return The instantiated view of <code>base</code>.
+     */
+    public SymbolTable getInstantiatedTable(SymbolTable base,
+            Map<String, PTType> genericInstantiations,
+            FacilityEntry instantiatingFacility) {
+
+        return getInstantiation(genericInstantiations, instantiatingFacility)
+                .getView(base);
+    }
+
+    private Instantiation getInstantiation(
+            Map<String, PTType> genericInstantiations,
+            FacilityEntry instantiatingFacility) {
+
+        Map<Map<String, PTType>, Instantiation> facilityInstantiations =
+                myInstantiations.get(instantiatingFacility);
+
+        if (facilityInstantiations == null) {
+            facilityInstantiations =
+                    new IdentityHashMap<Map<String, PTType>, Instantiation>();
+            myInstantiations.put(instantiatingFacility, facilityInstantiations);
+        }
+
+        Instantiation result =
+                facilityInstantiations.get(genericInstantiations);
+
+        if (result == null) {
+            result =
+                    new Instantiation(genericInstantiations,
+                            instantiatingFacility);
+            facilityInstantiations.put(genericInstantiations, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>The memoized state of a single (instantiating facility, generic
+     * instantiations) pair.</p>
+     */
+    /*package private*/static class Instantiation {
+
+        private final Map<String, PTType> myGenericInstantiations;
+        private final FacilityEntry myInstantiatingFacility;
+
+        private final Map<SymbolTableEntry, SymbolTableEntry> myEntries =
+                new IdentityHashMap<SymbolTableEntry, SymbolTableEntry>();
+        private final Map<SymbolTable, SymbolTable> myViews =
+                new IdentityHashMap<SymbolTable, SymbolTable>();
+
+        public Instantiation(Map<String, PTType> genericInstantiations,
+                FacilityEntry instantiatingFacility) {
+            myGenericInstantiations = genericInstantiations;
+            myInstantiatingFacility = instantiatingFacility;
+        }
+
+        public SymbolTable getView(SymbolTable base) {
+            SymbolTable result = myViews.get(base);
+
+            if (result == null) {
+                result = new InstantiatedSymbolTable(base, this);
+                myViews.put(base, result);
+            }
+
+            return result;
+        }
+
+        public SymbolTableEntry instantiate(SymbolTableEntry entry) {
+            SymbolTableEntry result = null;
+
+            if (entry != null) {
+                result = myEntries.get(entry);
+
+                if (result == null) {
+                    result =
+                            entry.instantiateGenerics(myGenericInstantiations,
+                                    myInstantiatingFacility);
+                    myEntries.put(entry, result);
+                }
+            }
+
+            return result;
+        }
+    }
+}
@@ -163,13 +163,20 @@ public class MathSymbolTable extends ScopeRepository {
     private final Map<ModuleIdentifier, FinalizedModuleScope> myModuleScopes =
             new HashMap<ModuleIdentifier, FinalizedModuleScope>();
 
+    private final Map<ModuleIdentifier, ImportClosureIndex> myImportClosures =
+            new HashMap<ModuleIdentifier, ImportClosureIndex>();
+
     private final TypeGraph myTypeGraph;
 
+    private final InstantiationCache myInstantiationCache;
+
     /*package private*/MathSymbolTable(TypeGraph typeGraph,
+            InstantiationCache instantiationCache,
             Map<ResolveConceptualElement, ScopeBuilder> scopes,
             ScopeBuilder root) throws NoSuchModuleException {
 
         myTypeGraph = typeGraph;
+        myInstantiationCache = instantiationCache;
 
         List<ImportRequest> importedModules = new LinkedList<ImportRequest>();
 
@@ -228,6 +235,11 @@ public class MathSymbolTable extends ScopeRepository {
         return myTypeGraph;
     }
 
+    @Override
+    public InstantiationCache getInstantiationCache() {
+        return myInstantiationCache;
+    }
+
     /**
      * <p>Returns the <code>Scope</code> associated with <code>e</code>.  If
      * there is not associated scope, throws a 
@@ -278,6 +290,33 @@ public class MathSymbolTable extends ScopeRepository {
         return myModuleScopes.get(module);
     }
 
+    /**
+     * <p>Returns the precomputed index of the transitive closure of modules
+     * imported by <code>module</code>, building it the first time it is
+     * requested.</p>
+     * 
+     * @param module The root module of the closure.
+     * 
+     * @return The index.
+     * 
+     * @throws NoSuchSymbolException If there is no module by that name.
+     */
+    /*package private*/synchronized ImportClosureIndex getImportClosure(
+            ModuleIdentifier module) throws NoSuchSymbolException {
+
+        ImportClosureIndex result = myImportClosures.get(module);
+
+        if (result == null) {
+            //Fails fast with the appropriate exception if there's no module
+            getModuleScope(module);
+
+            result = new ImportClosureIndex(module, this);
+            myImportClosures.put(module, result);
+        }
+
+        return result;
+    }
+
     private static class ImportRequest {
 
         public final ModuleIdentifier sourceModule;
@@ -50,6 +50,23 @@ public class MathSymbolTableBuilder extends ScopeRepository {
 
     private final TypeGraph myTypeGraph;
 
+    private final InstantiationCache myInstantiationCache =
+            new InstantiationCache();
+
+    /**
+     * <p>The number of entries of each name that have been added to any scope
+     * of this builder.</p>
+     */
+    private final Map<String, Integer> myBindingCounts =
+            new HashMap<String, Integer>();
+
+    /**
+     * <p>The number of imports and generic type parameters that have been
+     * added to any scope of this builder.  Either may change what a search
+     * for any name finds.</p>
+     */
+    private int mySearchPathChanges = 0;
+
     /**
      * <p>Creates a new, empty <code>MathSymbolTableBuilder</code> with no
      * open scopes.</p>
@@ -80,6 +97,11 @@ public class MathSymbolTableBuilder extends ScopeRepository {
         return myTypeGraph;
     }
 
+    @Override
+    public InstantiationCache getInstantiationCache() {
+        return myInstantiationCache;
+    }
+
     /**
      * <p>Opens a new working module scope defined by the given 
      * <code>ModuleDec</code>.</p>
@@ -238,6 +260,71 @@ public class MathSymbolTableBuilder extends ScopeRepository {
         return myLexicalScopeStack.peek();
     }
 
+    /**
+     * <p>Returns the nearest open scope, searching outward from the innermost
+     * active scope, that binds either <code>name</code> or a generic type
+     * parameter itself, or the open module scope if no scope nested inside it
+     * does.  Searching for <code>name</code>, or for the generics in context,
+     * from any two active scopes with the same such scope will find the same
+     * entries.</p>
+     *
+     * @param name The name that would be searched for.
+     *
+     * @return The scope that decides what <code>name</code> means here.
+     *
+     * @throws IllegalStateException If no module scope is currently open.
+     */
+    public ScopeBuilder getInnermostActiveScopeDeciding(String name) {
+        checkModuleScopeOpen();
+
+        ScopeBuilder result = myCurModuleScope;
+
+        for (ScopeBuilder s : myLexicalScopeStack) {
+            if (s == myCurModuleScope) {
+                break;
+            }
+
+            if (s.myBindings.containsKey(name) || s.bindsGeneric()) {
+                result = s;
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns a number that changes whenever an entry named
+     * <code>name</code> is added to any scope of this builder, or an import or
+     * a generic type parameter is added anywhere, and thus whenever a search
+     * for <code>name</code> might start finding something it didn't before.
+     * Clients that memoize the results of such searches can use it to tell
+     * when to forget them.</p>
+     *
+     * @param name The name of interest.
+     *
+     * @return The current generation of <code>name</code>.
+     */
+    public int getBindingGeneration(String name) {
+        Integer count = myBindingCounts.get(name);
+
+        return mySearchPathChanges + ((count == null) ? 0 : count);
+    }
+
+    /*package private*/void bindingAdded(String name, boolean generic) {
+        Integer count = myBindingCounts.get(name);
+
+        myBindingCounts.put(name, (count == null) ? 1 : count + 1);
+
+        if (generic) {
+            mySearchPathChanges++;
+        }
+    }
+
+    /*package private*/void importAdded() {
+        mySearchPathChanges++;
+    }
+
     /**
      * <p>Returns an immutable snapshot of the working symbol table represented
      * by this <code>MathSymbolTableBuilder</code> as a
@@ -255,8 +342,8 @@ public class MathSymbolTableBuilder extends ScopeRepository {
             throw new IllegalStateException("There are open scopes.");
         }
 
-        return new MathSymbolTable(myTypeGraph, myScopes, myLexicalScopeStack
-                .peek());
+        return new MathSymbolTable(myTypeGraph, myInstantiationCache, myScopes,
+                myLexicalScopeStack.peek());
     }
 
     private void checkModuleScopeOpen() {
@@ -66,58 +66,75 @@ public class ModuleParameterization {
         return Collections.unmodifiableList(myParameters);
     }
 
+    /**
+     * <p>Returns the scope of the parameterized module.  If
+     * <code>instantiated</code> is <code>true</code>, the scope will present
+     * its symbols with generics instantiated according to this
+     * parameterization.  Instantiated scopes are memoized in the source
+     * repository's {@link InstantiationCache InstantiationCache}.</p>
+     * 
+     * @param instantiated Whether or not generics should be instantiated.
+     * 
+     * @return The scope.
+     */
     public Scope getScope(boolean instantiated) {
 
         Scope result;
 
-        try {
-            ModuleScope originalScope =
-                    mySourceRepository.getModuleScope(myModule);
-            result = originalScope;
-
-            if (instantiated) {
-                Map<String, PTType> genericInstantiations;
-
-                // YS Edits
-                // If the scope we are looking at is a enhancement module dec,
-                // then we will need to obtain the generic instantiations
-                // from our concept module dec.
-                //
-                // Ex: Facility Foo_Fac is Alpha_Template(Integer)
-                //           realized by ...
-                //           enhanced by Beta_Capability ...
-                //
-                // The instantiation of the type will be Integer and
-                // we need that information for our searchers to work.
-                if (originalScope.getDefiningElement() instanceof EnhancementModuleDec) {
-                    ModuleParameterization conceptParameterization =
-                            myInstantiatingFacility.getFacility()
-                                    .getSpecification();
-                    ModuleIdentifier conceptID =
-                            conceptParameterization.getModuleIdentifier();
-                    ModuleScope conceptScope =
-                            mySourceRepository.getModuleScope(conceptID);
-                    genericInstantiations =
-                            getGenericInstantiations(conceptScope,
-                                    conceptParameterization.getParameters());
-                }
-                else {
-                    genericInstantiations =
-                            getGenericInstantiations(originalScope,
-                                    myParameters);
-                }
+        if (instantiated) {
+            result =
+                    mySourceRepository.getInstantiationCache()
+                            .getInstantiatedScope(this);
+        }
+        else {
+            result = getModuleScope(myModule);
+        }
 
-                result =
-                        new InstantiatedScope(originalScope,
-                                genericInstantiations, myInstantiatingFacility);
-            }
+        return result;
+    }
+
+    /*package private*/Scope buildInstantiatedScope() {
+        ModuleScope originalScope = getModuleScope(myModule);
+        Map<String, PTType> genericInstantiations;
+
+        // YS Edits
+        // If the scope we are looking at is a enhancement module dec,
+        // then we will need to obtain the generic instantiations
+        // from our concept module dec.
+        //
+        // Ex: Facility Foo_Fac is Alpha_Template(Integer)
+        //           realized by ...
+        //           enhanced by Beta_Capability ...
+        //
+        // The instantiation of the type will be Integer and
+        // we need that information for our searchers to work.
+        if (originalScope.getDefiningElement() instanceof EnhancementModuleDec) {
+            ModuleParameterization conceptParameterization =
+                    myInstantiatingFacility.getFacility().getSpecification();
+            ModuleScope conceptScope =
+                    getModuleScope(conceptParameterization
+                            .getModuleIdentifier());
+            genericInstantiations =
+                    getGenericInstantiations(conceptScope,
+                            conceptParameterization.getParameters());
+        }
+        else {
+            genericInstantiations =
+                    getGenericInstantiations(originalScope, myParameters);
+        }
+
+        return new InstantiatedScope(originalScope, genericInstantiations,
+                myInstantiatingFacility);
+    }
+
+    private ModuleScope getModuleScope(ModuleIdentifier module) {
+        try {
+            return mySourceRepository.getModuleScope(module);
         }
         catch (NoSuchSymbolException nsse) {
             //Shouldn't be possible--we'd have caught it by now
             throw new RuntimeException(nsse);
         }
-
-        return result;
     }
 
     private Map<String, PTType> getGenericInstantiations(
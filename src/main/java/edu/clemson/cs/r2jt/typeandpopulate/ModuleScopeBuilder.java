@@ -59,6 +59,7 @@ public class ModuleScopeBuilder extends ScopeBuilder implements ModuleScope {
     public void addImport(ModuleIdentifier i) {
         if (!myImportedModules.contains(i) && !myRootModule.equals(i)) {
             myImportedModules.add(i);
+            myWorkingSymbolTable.importAdded();
         }
     }
 
@@ -59,6 +59,14 @@ public class ScopeBuilder extends SyntacticScope {
 
     private final TypeGraph myTypeGraph;
 
+    private final MathSymbolTableBuilder myBuilder;
+
+    /**
+     * <p>Whether a generic type parameter is bound directly in this
+     * scope.</p>
+     */
+    private boolean myBindsGeneric = false;
+
     ScopeBuilder(MathSymbolTableBuilder b, TypeGraph g,
             ResolveConceptualElement definingElement, Scope parent,
             ModuleIdentifier enclosingModule) {
@@ -67,6 +75,7 @@ public class ScopeBuilder extends SyntacticScope {
                 new BaseSymbolTable());
 
         myTypeGraph = g;
+        myBuilder = b;
     }
 
     void setParent(Scope parent) {
@@ -96,7 +105,7 @@ public class ScopeBuilder extends SyntacticScope {
                 new ProgramVariableEntry(name, definingElement, myRootModule,
                         type);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -113,7 +122,7 @@ public class ScopeBuilder extends SyntacticScope {
         FacilityEntry entry =
                 new FacilityEntry(facility, myRootModule, getSourceRepository());
 
-        myBindings.put(facility.getName().getName(), entry);
+        bind(facility.getName().getName(), entry);
 
         return entry;
     }
@@ -129,7 +138,7 @@ public class ScopeBuilder extends SyntacticScope {
                 new OperationEntry(name, definingElement, myRootModule,
                         returnType, params);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -146,7 +155,7 @@ public class ScopeBuilder extends SyntacticScope {
                 new OperationProfileEntry(name, definingElement, myRootModule,
                         correspondingOperation);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -162,7 +171,7 @@ public class ScopeBuilder extends SyntacticScope {
                 new ProcedureEntry(name, definingElement, myRootModule,
                         correspondingOperation);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -180,7 +189,7 @@ public class ScopeBuilder extends SyntacticScope {
                                 myTypeGraph, representationType, definition),
                         convention, correspondence);
 
-        myBindings.put(name, result);
+        bind(name, result);
 
         return result;
     }
@@ -214,7 +223,7 @@ public class ScopeBuilder extends SyntacticScope {
                                 initEnsures, finalizationRequires,
                                 finalizationEnsures), exemplarEntry);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -227,7 +236,7 @@ public class ScopeBuilder extends SyntacticScope {
                 new TheoremEntry(myTypeGraph, name, definingElement,
                         myRootModule);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -242,7 +251,7 @@ public class ScopeBuilder extends SyntacticScope {
                 new ProgramParameterEntry(myTypeGraph, name, definingElement,
                         myRootModule, type, mode);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -281,7 +290,7 @@ public class ScopeBuilder extends SyntacticScope {
                         type, typeValue, schematicTypes,
                         genericsInDefiningContext, myRootModule);
 
-        myBindings.put(name, entry);
+        bind(name, entry);
 
         return entry;
     }
@@ -309,6 +318,27 @@ public class ScopeBuilder extends SyntacticScope {
                 definingElement, type);
     }
 
+    /*package private*/boolean bindsGeneric() {
+        return myBindsGeneric;
+    }
+
+    /**
+     * <p>Adds <code>entry</code> to this scope under <code>name</code>,
+     * letting our builder know that lookups of <code>name</code> may now
+     * turn up something new.</p>
+     */
+    private void bind(String name, SymbolTableEntry entry) {
+        myBindings.put(name, entry);
+
+        boolean generic =
+                entry instanceof ProgramParameterEntry
+                        && ((ProgramParameterEntry) entry).getParameterMode()
+                                .equals(ParameterMode.TYPE);
+
+        myBindsGeneric |= generic;
+        myBuilder.bindingAdded(name, generic);
+    }
+
     private void sanityCheckBindArguments(String name,
             ResolveConceptualElement definingElement, Object type)
             throws DuplicateSymbolException {
@@ -69,4 +69,13 @@ public abstract class ScopeRepository {
      * @return The <code>TypeGraph</code>.
      */
     public abstract TypeGraph getTypeGraph();
+
+    /**
+     * <p>Returns the {@link InstantiationCache InstantiationCache} that
+     * memoizes facility instantiations of the scopes and entries found in this
+     * <code>ScopeRepository</code>.</p>
+     * 
+     * @return The <code>InstantiationCache</code>.
+     */
+    public abstract InstantiationCache getInstantiationCache();
 }
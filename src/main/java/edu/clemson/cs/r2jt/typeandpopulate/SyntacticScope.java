@@ -134,8 +134,9 @@ public abstract class SyntacticScope extends AbstractScope {
 
             if (instantiatingFacility != null) {
                 symbolTableView =
-                        new InstantiatedSymbolTable(myBindings,
-                                genericInstantiations, instantiatingFacility);
+                        mySource.getInstantiationCache().getInstantiatedTable(
+                                myBindings, genericInstantiations,
+                                instantiatingFacility);
             }
 
             finished = searcher.addMatches(symbolTableView, matches, l);
@@ -44,6 +44,12 @@ import java.util.Set;
  * 		</ul>
  * </ol>
  *
+ * <p>When searching a sealed {@link MathSymbolTable MathSymbolTable} with the
+ * <code>IMPORT_RECURSIVE</code> strategy, the depth-first walk of the imports
+ * is replaced by a lookup in the table's precomputed
+ * {@link ImportClosureIndex ImportClosureIndex}, which visits the same modules
+ * in the same order.</p>
+ *
  * <p>Instance of this class can be parameterized to search only direct imports
  * or to exclude all imports, as well as to exclude searching facilities, or 
  * change how generics are handled when searching facilities.</p>
@@ -111,6 +117,18 @@ public class UnqualifiedPath implements ScopeSearchPath {
 
             SyntacticScope sourceAsSyntacticScope = (SyntacticScope) source;
 
+            if (repo instanceof MathSymbolTable
+                    && importStrategy == ImportStrategy.IMPORT_RECURSIVE
+                    && !myLocalPriorityFlag) {
+
+                //A sealed table can't change, so rather than walking the
+                //import graph we consult its precomputed closure
+                return searchImportClosure(searcher, sourceAsSyntacticScope
+                        .getRootModule(), (MathSymbolTable) repo, results,
+                        searchedScopes, genericInstantiations,
+                        instantiatingFacility, finished);
+            }
+
             try {
                 ModuleScope module =
                         repo.getModuleScope(sourceAsSyntacticScope
@@ -138,6 +156,54 @@ public class UnqualifiedPath implements ScopeSearchPath {
         return finished;
     }
 
+    private <E extends SymbolTableEntry> boolean searchImportClosure(
+            TableSearcher<E> searcher, ModuleIdentifier rootModule,
+            MathSymbolTable repo, List<E> results, Set<Scope> searchedScopes,
+            Map<String, PTType> genericInstantiations,
+            FacilityEntry instantiatingFacility, boolean finished)
+            throws DuplicateSymbolException {
+
+        ImportClosureIndex closure;
+        try {
+            closure = repo.getImportClosure(rootModule);
+        }
+        catch (NoSuchSymbolException nsse) {
+            //This shouldn't be possible--we'd've caught it by now
+            throw new RuntimeException(nsse);
+        }
+
+        List<FinalizedModuleScope> modules;
+        boolean searchFacilities =
+                myFacilityStrategy != FacilityStrategy.FACILITY_IGNORE;
+        if (searchFacilities) {
+            //Facilities in any module may contribute matches, so every module
+            //in the closure must be visited
+            modules = closure.getModules();
+        }
+        else {
+            modules = closure.getCandidates(searcher);
+        }
+
+        Iterator<FinalizedModuleScope> modulesIter = modules.iterator();
+        FinalizedModuleScope module;
+        while (!finished && modulesIter.hasNext()) {
+            module = modulesIter.next();
+
+            finished =
+                    module.addMatches(searcher, results, searchedScopes,
+                            genericInstantiations, instantiatingFacility,
+                            SearchContext.SOURCE_MODULE);
+
+            if (!finished && searchFacilities) {
+                finished =
+                        searchFacilities(searcher, results, module,
+                                genericInstantiations, searchedScopes, repo);
+            }
+        }
+
+        return finished;
+    }
+
     public <E extends SymbolTableEntry> boolean searchFacilities(
             TableSearcher<E> searcher, List<E> result, Scope source,
             Map<String, PTType> genericInstantiations,
@@ -32,6 +32,10 @@ public class EntryTypeSearcher<E extends SymbolTableEntry>
         myTargetClass = targetClass;
     }
 
+    public Class<E> getTargetClass() {
+        return myTargetClass;
+    }
+
     @Override
     public boolean addMatches(SymbolTable entries, List<E> matches,
             SearchContext l) {
@@ -35,6 +35,10 @@ public class NameSearcher implements MultimatchTableSearcher<SymbolTableEntry> {
         this(searchString, true);
     }
 
+    public String getSearchString() {
+        return mySearchString;
+    }
+
     @Override
     public boolean addMatches(SymbolTable entries,
             List<SymbolTableEntry> matches, SearchContext l) {
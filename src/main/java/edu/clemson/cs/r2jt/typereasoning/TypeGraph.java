@@ -659,8 +659,8 @@ public class TypeGraph {
         //We'd like to force the presence of the destination node
         getTypeNode(destinationCanonicalResult.canonicalType);
 
-        Populator.emitDebug("Added relationship to type node ["
-                + sourceCanonicalResult.canonicalType + "]: " + relationship);
+        Populator.emitDebug("Added relationship to type node [",
+                sourceCanonicalResult.canonicalType, "]: ", relationship);
     }
 
     private Exp safeVariableNameUpdate(Exp original,
@@ -62,6 +62,17 @@ public class FlagManager {
         }
     }
 
+    /**
+     * <p>Returns the <code>FlagManager</code> of the first compilation in this
+     * process.  Since a single process may run several compilations, each with
+     * its own flags, this is almost never the right flags to consult--use
+     * those of the compilation's own <code>CompileEnvironment</code>
+     * instead.</p>
+     *
+     * @deprecated Retained only for compatibility with outside code.  Consult
+     *             <code>CompileEnvironment.flags</code> instead.
+     */
+    @Deprecated
     public static FlagManager getInstance() {
         return global_instance;
     }
@@ -0,0 +1,121 @@
+/**
+ * ThreadOutput.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.utilities;
+
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+
+/**
+ * <p>Keeps track of where each thread's output belongs, for a host--the
+ * compile server, say--that runs several compilations in one process and
+ * routes <code>System.out</code> and <code>System.err</code> to whichever one
+ * the printing thread is working on.</p>
+ *
+ * <p>A thread's output stream is not inherited by threads it starts, so work
+ * the compiler hands off to threads of its own should be wrapped with
+ * {@link #inheritOutput(Runnable)} or {@link #inheritOutput(Callable)}.  When
+ * no host is routing output, these simply return the task they are
+ * given.</p>
+ */
+public class ThreadOutput {
+
+    /**
+     * <p>Where <code>System.out</code> and <code>System.err</code> go for
+     * each thread, or <code>null</code> if they go wherever they would
+     * anyway.</p>
+     */
+    private static final ThreadLocal<OutputStream> OUTPUT =
+            new ThreadLocal<OutputStream>();
+
+    /**
+     * <p>Returns where the current thread's output goes, or <code>null</code>
+     * if it hasn't been routed anywhere.</p>
+     */
+    public static OutputStream get() {
+        return OUTPUT.get();
+    }
+
+    /**
+     * <p>Routes the current thread's output to <code>output</code>, until
+     * {@link #remove()} is called.</p>
+     */
+    public static void set(OutputStream output) {
+        OUTPUT.set(output);
+    }
+
+    /**
+     * <p>Stops routing the current thread's output anywhere in
+     * particular.</p>
+     */
+    public static void remove() {
+        OUTPUT.remove();
+    }
+
+    /**
+     * <p>Returns a task that runs <code>task</code> with its output routed to
+     * wherever the calling thread's goes, if anywhere.</p>
+     */
+    public static Runnable inheritOutput(final Runnable task) {
+        final OutputStream output = OUTPUT.get();
+        Runnable result = task;
+
+        if (output != null) {
+            result = new Runnable() {
+
+                public void run() {
+                    OutputStream previous = OUTPUT.get();
+                    OUTPUT.set(output);
+                    try {
+                        task.run();
+                    }
+                    finally {
+                        OUTPUT.set(previous);
+                    }
+                }
+            };
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Returns a task that calls <code>task</code> with its output routed
+     * to wherever the calling thread's goes, if anywhere.</p>
+     */
+    public static <T> Callable<T> inheritOutput(final Callable<T> task) {
+        final OutputStream output = OUTPUT.get();
+        Callable<T> result = task;
+
+        if (output != null) {
+            result = new Callable<T>() {
+
+                public T call() throws Exception {
+                    T callResult;
+
+                    OutputStream previous = OUTPUT.get();
+                    OUTPUT.set(output);
+                    try {
+                        callResult = task.call();
+                    }
+                    finally {
+                        OUTPUT.set(previous);
+                    }
+
+                    return callResult;
+                }
+            };
+        }
+
+        return result;
+    }
+}
@@ -25,8 +25,6 @@ import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.proving.absyn.PExp;
 import edu.clemson.cs.r2jt.type.*;
 
-import java.util.Hashtable;
-
 public class AssertiveCode implements Cloneable {
 
     private ModuleID mySourceModule;
@@ -39,14 +37,8 @@ public class AssertiveCode implements Cloneable {
     Iterator<VerificationStatement> iter = assertive_code.iterator();
     private CompileEnvironment env;
     int count = 0;
-    static int section = 0;
     String name = "";
     private boolean finalAssertion;
-    static private boolean provePart = false;
-
-    static public List<ConcType> currVars;
-    static public Hashtable<String, Boolean> currVarHash =
-            new Hashtable<String, Boolean>();
 
     public AssertiveCode(CompileEnvironment env) {
         this.env = env;
@@ -66,17 +58,6 @@ public class AssertiveCode implements Cloneable {
         this.err = err;
     }
 
-    /**
-     * <p>Allows the VC numbering to be reset in cases where the compiler is not
-     * being repeatedly instantiated for each VC generation job--e.g., when the
-     * compiler is part of a web service and remains instantiated for the length
-     * of the servlet's lifetime.</p> 
-     *
-     */
-    public static void resetVCNumbering() {
-        section = 0;
-    }
-
     /**
      * <p>Returns the <code>ModuleID</code> of the module that this assertive
      * code is meant to represent.</p>
@@ -91,9 +72,23 @@ public class AssertiveCode implements Cloneable {
         this.name = name;
     }
 
+    /**
+     * <p>Returns a copy of this assertive code, to be developed separately.
+     * The copy starts out sharing this code's statements and final confirm
+     * rather than copying them, so cloning costs the same however much code
+     * there is.  A shared statement is only copied when it is actually taken
+     * by {@link #getLastAssertion() getLastAssertion()}, and only if some
+     * other <code>AssertiveCode</code> still holds it.  So once the original is
+     * {@link #release() released}, the last branch to get to each statement
+     * takes it without copying it at all.</p>
+     *
+     * <p>The final confirm needn't be copied, since it is never modified in
+     * place--{@link #getFinalConfirm() getFinalConfirm()} hands out
+     * copies.</p>
+     */
     public Object clone() {
         AssertiveCode clone = new AssertiveCode(env);
-        clone.setFinalConfirm((Exp) Exp.clone(confirm));
+        clone.setFinalConfirm(confirm);
         clone.setIter(iter);
 
         Iterator<ConcType> k = freeVars2.iterator();
@@ -104,38 +99,133 @@ public class AssertiveCode implements Cloneable {
         Iterator<VerificationStatement> j = assertive_code.iterator();
         while (j.hasNext()) {
             VerificationStatement tmp = j.next();
-            if ((tmp.getType()) == VerificationStatement.ASSUME) {
-                clone.addAssume(Exp.copy(((Exp) tmp.getAssertion())));
-            }
-            else if (tmp.getType() == VerificationStatement.CONFIRM) {
-                clone.addConfirm(Exp.copy(((Exp) tmp.getAssertion())));
-            }
-            else if (tmp.getType() == VerificationStatement.CODE) {
-                clone.addCode((Statement) ((Statement) tmp.getAssertion())
-                        .clone());
+            tmp.addOwner();
+            clone.assertive_code.add(tmp);
+        }
+
+        return clone;
+    }
+
+    /**
+     * <p>Indicates that this assertive code will not be developed any
+     * further--typically because it has been cloned into each of the branches
+     * that replace it--so that it no longer holds on to its statements, and
+     * a branch taking the last hold on one needn't copy it.</p>
+     */
+    public void release() {
+        Iterator<VerificationStatement> j = assertive_code.iterator();
+        while (j.hasNext()) {
+            j.next().removeOwner();
+        }
+
+        assertive_code = new List<VerificationStatement>();
+        iter = assertive_code.iterator();
+    }
+
+    public VerificationStatement getLastAssertion() {
+        while (!assertive_code.isEmpty()) {
+            VerificationStatement result =
+                    own(assertive_code.remove(assertive_code.size() - 1));
+
+            if (result != null) {
+                return result;
             }
-            else if (tmp.getType() == VerificationStatement.VARIABLE) {
-                clone.addVariableDec((VarDec) ((VarDec) tmp.getAssertion())
-                        .clone());
+        }
+
+        return new VerificationStatement();
+    }
+
+    /**
+     * <p>Returns the statements of this assertive code, first to last, after
+     * replacing any still shared with another <code>AssertiveCode</code> by
+     * a private copy, so that they may be modified or built into other
+     * expressions freely.</p>
+     */
+    List<VerificationStatement> getOwnStatements() {
+        List<VerificationStatement> owned = new List<VerificationStatement>();
+
+        Iterator<VerificationStatement> j = assertive_code.iterator();
+        while (j.hasNext()) {
+            VerificationStatement tmp = j.next();
+            if (tmp.removeOwner()) {
+                tmp = copyStatement(tmp);
             }
-            else if (tmp.getType() == VerificationStatement.REMEMBER) {
-                clone.addRemember();
+            else {
+                tmp.addOwner();
             }
-            else if (tmp.getType() == VerificationStatement.CHANGE
-                    && tmp.getAssertion() instanceof List<?>) {
-                clone.addChange((List<?>) (((List<?>) tmp.getAssertion())
-                        .clone()));
+
+            if (tmp != null) {
+                owned.add(tmp);
             }
         }
 
-        return clone;
+        assertive_code = owned;
+        return owned;
     }
 
-    public VerificationStatement getLastAssertion() {
-        if (!assertive_code.isEmpty())
-            return assertive_code.remove(assertive_code.size() - 1);
-        else
-            return new VerificationStatement();
+    /**
+     * <p>Gives up this code's hold on <code>statement</code>, returning it if
+     * nothing else holds it, and otherwise a copy of it--or
+     * <code>null</code>, if it's of a kind that has never survived
+     * cloning.</p>
+     */
+    private VerificationStatement own(VerificationStatement statement) {
+        VerificationStatement result = statement;
+
+        if (statement.removeOwner()) {
+            result = copyStatement(statement);
+        }
+
+        return result;
+    }
+
+    private VerificationStatement copyStatement(VerificationStatement tmp) {
+        VerificationStatement result = null;
+
+        if ((tmp.getType()) == VerificationStatement.ASSUME) {
+            Exp assume = Exp.copy(((Exp) tmp.getAssertion()));
+            if (assume != null) {
+                AssumeStmt stmt = new AssumeStmt();
+                stmt.setAssertion(assume);
+                result =
+                        new VerificationStatement(VerificationStatement
+                                .getCodeType(), stmt);
+            }
+        }
+        else if (tmp.getType() == VerificationStatement.CONFIRM) {
+            Exp confirm = Exp.copy(((Exp) tmp.getAssertion()));
+            if (confirm != null) {
+                ConfirmStmt stmt = new ConfirmStmt();
+                stmt.setAssertion(confirm);
+                result =
+                        new VerificationStatement(VerificationStatement
+                                .getCodeType(), stmt);
+            }
+        }
+        else if (tmp.getType() == VerificationStatement.CODE) {
+            result =
+                    new VerificationStatement(VerificationStatement
+                            .getCodeType(), ((Statement) tmp.getAssertion())
+                            .clone());
+        }
+        else if (tmp.getType() == VerificationStatement.VARIABLE) {
+            result =
+                    new VerificationStatement(VerificationStatement.VARIABLE,
+                            ((VarDec) tmp.getAssertion()).clone());
+        }
+        else if (tmp.getType() == VerificationStatement.REMEMBER) {
+            result =
+                    new VerificationStatement(VerificationStatement
+                            .getRememberType());
+        }
+        else if (tmp.getType() == VerificationStatement.CHANGE
+                && tmp.getAssertion() instanceof List<?>) {
+            result =
+                    new VerificationStatement(VerificationStatement.CHANGE,
+                            ((List<?>) tmp.getAssertion()).clone());
+        }
+
+        return result;
     }
 
     public void setAssertiveCode(List<VerificationStatement> assertive_code) {
@@ -160,7 +250,7 @@ public class AssertiveCode implements Cloneable {
     }
 
     public int getSection() {
-        return section;
+        return env.getAssertiveCodeContext().getSection();
     }
 
     public List<ConcType> getFreeVars2() {
@@ -178,20 +268,14 @@ public class AssertiveCode implements Cloneable {
         return null;
     }
 
+    /**
+     * <p>Returns the free variable called <code>name</code> of the VC being
+     * printed by this thread, the first time it is asked for in that VC, and
+     * <code>null</code> otherwise or if no VC is being printed.</p>
+     */
     static public ConcType getCurrVar(PosSymbol name) {
-        Iterator<ConcType> k = currVars.iterator();
-        while (k.hasNext()) {
-            ConcType tmp = k.next();
-            if (tmp.getName().toString().equals(name.toString())) {
-                if (currVarHash.get(name.toString()) == null
-                        || currVarHash.get(name.toString()) == false) {
-                    currVarHash.put(name.toString(), true);
-                    return tmp;
-                }
-
-            }
-        }
-        return null;
+        AssertiveCodeContext context = AssertiveCodeContext.getCurrent();
+        return (context == null) ? null : context.getCurrVar(name);
     }
 
     public void addVariableDec(VarDec variables) {
@@ -285,8 +369,7 @@ public class AssertiveCode implements Cloneable {
         Iterator<VerificationStatement> i = assertive_code.iterator();
         String str = new String();
 
-        currVars = freeVars2;
-        currVarHash.clear();
+        env.getAssertiveCodeContext().setCurrVars(freeVars2);
 
         // Check to see if we want to output an XML file
         Boolean XMLfile = env.flags.isFlagSet(ResolveCompiler.FLAG_XML_OUT);
@@ -369,12 +452,23 @@ public class AssertiveCode implements Cloneable {
         this.finalAssertion = false;
         //	count = 0;
         if (finalAssert) {
-            section++;
+            env.getAssertiveCodeContext().nextSection();
         }//count = ((count / 10) + 1) * 10;    	
         return output;
     }
 
     String assertionToString() {
+        AssertiveCodeContext enclosing =
+                AssertiveCodeContext.setCurrent(env.getAssertiveCodeContext());
+        try {
+            return assertionToStringInContext();
+        }
+        finally {
+            AssertiveCodeContext.setCurrent(enclosing);
+        }
+    }
+
+    private String assertionToStringInContext() {
         Iterator<ConcType> freeVar2Iter = freeVars2.iterator();
         Iterator<VerificationStatement> i = assertive_code.iterator();
         String str = new String();
@@ -400,7 +494,7 @@ public class AssertiveCode implements Cloneable {
         }
 
         str = str.concat("\n");
-        provePart = true;
+        env.getAssertiveCodeContext().setProvePart(true);
 
         while (i.hasNext()) {
             VerificationStatement cur = i.next();
@@ -441,7 +535,7 @@ public class AssertiveCode implements Cloneable {
         }
 
         str = str.concat("Confirm \n" + expToString((Exp) confirm) + ";");
-        provePart = false;
+        env.getAssertiveCodeContext().setProvePart(false);
 
         return str;
     }
@@ -506,8 +600,11 @@ public class AssertiveCode implements Cloneable {
         // Check to see if we want to output an XML file
         Boolean XMLfile = env.flags.isFlagSet(ResolveCompiler.FLAG_XML_OUT);
 
+        AssertiveCodeContext context = env.getAssertiveCodeContext();
+        int section = context.getSection();
+
         while (it.hasNext()) {
-            currVarHash.clear();
+            context.clearTypedCurrVars();
 
             InfixExp tmpInf = (InfixExp) it.next();
             if (env.flags.isFlagSet(Verifier.FLAG_ISABELLE_VC)) {
@@ -527,15 +624,15 @@ public class AssertiveCode implements Cloneable {
                             + " \n|] ");
                 }
                 sb.append("\n==> \n");
-                provePart = true;
+                context.setProvePart(true);
                 sb.append(printer.clearAndVisitAssertion(tmpInf.getRight()));
 
-                provePart = false;
+                context.setProvePart(false);
                 sb.append("\"\n" +
                 //	"apply (((simp only: simp_thms), clarify?)+)?;\n" +
                         "apply auto;\n" + "done\n\n");
 
-                currVarHash.clear();
+                context.clearTypedCurrVars();
 
             }
             else {
@@ -592,7 +689,7 @@ public class AssertiveCode implements Cloneable {
                 //tb.append("Confirm: " + tmpInf.toString(0) + "\n");
                 /* Stuff inside the goal tag */
                 tb.append("Goal:\n");
-                provePart = true;
+                context.setProvePart(true);
                 tb.append(printer.clearAndVisitAssertion(tmpInf.getRight()));
                 /* end goal tag */
 
@@ -608,7 +705,7 @@ public class AssertiveCode implements Cloneable {
                 //if(XMLfile) sb.append("</vcGoal>");
                 if (XMLfile)
                     sb.append("\",");
-                provePart = false;
+                context.setProvePart(false);
                 //if(XMLfile) sb.append("<vcGiven>");
                 if (XMLfile)
                     sb.append("\"vcGivens\":\"");
@@ -725,8 +822,13 @@ public class AssertiveCode implements Cloneable {
         return sb.toString();
     }
 
+    /**
+     * <p>Returns whether the goal of a VC is being printed by this
+     * thread.</p>
+     */
     static public boolean isProvePart() {
-        return provePart;
+        AssertiveCodeContext context = AssertiveCodeContext.getCurrent();
+        return context != null && context.isProvePart();
     }
 
     @Override
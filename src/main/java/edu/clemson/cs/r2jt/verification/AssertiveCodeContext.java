@@ -0,0 +1,143 @@
+/**
+ * AssertiveCodeContext.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.verification;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.clemson.cs.r2jt.collections.Iterator;
+import edu.clemson.cs.r2jt.collections.List;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.type.ConcType;
+
+/**
+ * <p>The state shared by every {@link AssertiveCode AssertiveCode} of a single
+ * compilation while its VCs are printed: the number of the current section
+ * of VCs, whether the goal of a VC is being printed, and the free variables of
+ * the VC being printed, along with which of them have already had their types
+ * given.  Each <code>CompileEnvironment</code> has its own, so compilations
+ * running on different threads can't disturb one another's VC names or
+ * variable lists.</p>
+ *
+ * <p>Expressions consult this state while they print themselves, but have no
+ * way of reaching the environment they belong to, so while an
+ * <code>AssertiveCode</code> is being printed its context is also made
+ * {@link #getCurrent() current} for the printing thread.</p>
+ */
+public class AssertiveCodeContext {
+
+    private static final ThreadLocal<AssertiveCodeContext> CURRENT =
+            new ThreadLocal<AssertiveCodeContext>();
+
+    private int mySection = 0;
+
+    private boolean myProvePart = false;
+
+    private List<ConcType> myCurrVars = new List<ConcType>();
+
+    /**
+     * <p>The names of those of <code>myCurrVars</code> whose types have
+     * already been given in the VC being printed.</p>
+     */
+    private final Map<String, Boolean> myTypedCurrVars =
+            new HashMap<String, Boolean>();
+
+    /**
+     * <p>Returns the context of the <code>AssertiveCode</code> being printed
+     * by this thread, or <code>null</code> if there isn't one.</p>
+     */
+    public static AssertiveCodeContext getCurrent() {
+        return CURRENT.get();
+    }
+
+    /**
+     * <p>Makes <code>context</code> current for this thread, returning the
+     * context it replaces (possibly <code>null</code>) so that it can be
+     * restored afterwards.</p>
+     */
+    static AssertiveCodeContext setCurrent(AssertiveCodeContext context) {
+        AssertiveCodeContext result = CURRENT.get();
+
+        if (context == null) {
+            CURRENT.remove();
+        }
+        else {
+            CURRENT.set(context);
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Allows the VC numbering to be reset in cases where the compiler is not
+     * being repeatedly instantiated for each VC generation job--e.g., when the
+     * compiler is part of a web service and remains instantiated for the length
+     * of the servlet's lifetime.</p>
+     */
+    public void resetVCNumbering() {
+        mySection = 0;
+    }
+
+    public int getSection() {
+        return mySection;
+    }
+
+    void nextSection() {
+        mySection++;
+    }
+
+    public boolean isProvePart() {
+        return myProvePart;
+    }
+
+    void setProvePart(boolean provePart) {
+        myProvePart = provePart;
+    }
+
+    /**
+     * <p>Sets the free variables of the VCs about to be printed, none of
+     * which has had its type given yet.</p>
+     */
+    void setCurrVars(List<ConcType> currVars) {
+        myCurrVars = currVars;
+        myTypedCurrVars.clear();
+    }
+
+    /**
+     * <p>Forgets which free variables have had their types given, as at the
+     * start of a new VC.</p>
+     */
+    void clearTypedCurrVars() {
+        myTypedCurrVars.clear();
+    }
+
+    /**
+     * <p>Returns the free variable called <code>name</code>, but only the
+     * first time it is asked for in the current VC, so that its type is only
+     * given once.  Otherwise returns <code>null</code>.</p>
+     */
+    public ConcType getCurrVar(PosSymbol name) {
+        Iterator<ConcType> k = myCurrVars.iterator();
+        while (k.hasNext()) {
+            ConcType tmp = k.next();
+            if (tmp.getName().toString().equals(name.toString())) {
+                if (myTypedCurrVars.get(name.toString()) == null) {
+                    myTypedCurrVars.put(name.toString(), true);
+                    return tmp;
+                }
+
+            }
+        }
+        return null;
+    }
+}
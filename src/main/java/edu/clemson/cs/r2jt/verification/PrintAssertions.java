@@ -19,7 +19,7 @@ import edu.clemson.cs.r2jt.absyn.*;
 import edu.clemson.cs.r2jt.type.*;
 import edu.clemson.cs.r2jt.collections.List;
 import edu.clemson.cs.r2jt.collections.Iterator; // import
-// edu.clemson.cs.r2jt.errors.*;
+import edu.clemson.cs.r2jt.data.PosSymbol; // edu.clemson.cs.r2jt.errors.*;
 import edu.clemson.cs.r2jt.init.CompileEnvironment;
 import edu.clemson.cs.r2jt.errors.ErrorHandler;
 
@@ -304,13 +304,12 @@ public class PrintAssertions extends ResolveConceptualVisitor {
 
             if (exp.getOpName() != null) {
 
-                if (!AssertiveCode.isProvePart()
-                        && exp.getOpName().toString().equals("and")
+                if (!isProvePart() && exp.getOpName().toString().equals("and")
                         && !single_line) {
                     if (!single_line)
                         sb.append(exp.getOpName().toString() + "\n");
                 }
-                else if (AssertiveCode.isProvePart()
+                else if (isProvePart()
                         && exp.getOpName().toString().equals("and")) {
                     sb.append(" " + exp.getOpName().toString() + " ");
                 }
@@ -444,8 +443,7 @@ public class PrintAssertions extends ResolveConceptualVisitor {
         }
 
         if (exp.getOpName() != null) {
-            if (!AssertiveCode.isProvePart()
-                    && exp.getOpName().toString().equals("and")) {
+            if (!isProvePart() && exp.getOpName().toString().equals("and")) {
                 sb.append("\n");
             }
             else
@@ -522,7 +520,7 @@ public class PrintAssertions extends ResolveConceptualVisitor {
             }
             else {
                 if (exp.getOpName().toString().equals("and")) {
-                    if (AssertiveCode.isProvePart()) {
+                    if (isProvePart()) {
                         visitAssertion(exp.getRight());
                     }
                     else {
@@ -591,8 +589,7 @@ public class PrintAssertions extends ResolveConceptualVisitor {
         }
 
         if (exp.getOpName() != null) {
-            if (AssertiveCode.isProvePart()
-                    || !exp.getOpName().toString().equals("and")) {
+            if (isProvePart() || !exp.getOpName().toString().equals("and")) {
                 int count = mycount.intValue();
                 count++;
                 mycount.set(count);
@@ -676,12 +673,10 @@ public class PrintAssertions extends ResolveConceptualVisitor {
         }
 
         if (exp.getOpName() != null) {
-            if (!AssertiveCode.isProvePart()
-                    && exp.getOpName().toString().equals("and")) {
+            if (!isProvePart() && exp.getOpName().toString().equals("and")) {
                 sb.append(";\n");
             }
-            else if (AssertiveCode.isProvePart()
-                    && exp.getOpName().toString().equals("and")) {
+            else if (isProvePart() && exp.getOpName().toString().equals("and")) {
                 sb.append(" & ");
             }
             else if (exp.getOpName().toString().equals("implies")) {
@@ -881,7 +876,7 @@ public class PrintAssertions extends ResolveConceptualVisitor {
                 Type type = null;
                 String typeStr = null;
                 if (type == null) {
-                    type = AssertiveCode.getCurrVar(exp.getName()).getType();
+                    type = getCurrVar(exp.getName()).getType();
                     typeStr = type.asString();
 
                 }
@@ -969,7 +964,7 @@ public class PrintAssertions extends ResolveConceptualVisitor {
                 Type type = null;
                 String typeStr = null;
                 if (type == null) {
-                    type = AssertiveCode.getCurrVar(exp.getName()).getType();
+                    type = getCurrVar(exp.getName()).getType();
                     typeStr = type.asString();
 
                 }
@@ -1146,7 +1141,7 @@ public class PrintAssertions extends ResolveConceptualVisitor {
                     if (myInstanceEnvironment.flags
                             .isFlagSet(Verifier.FLAG_LISTVCS_VC))
                         sb.append(" and ");
-                    else if (!AssertiveCode.isProvePart())
+                    else if (!isProvePart())
                         sb.append("and\n");
                     else
                         sb.append(" and ");
@@ -1161,7 +1156,7 @@ public class PrintAssertions extends ResolveConceptualVisitor {
             while (i.hasNext()) {
                 sb.append(i.next().toString(0));
                 if (i.hasNext()) {
-                    if (!AssertiveCode.isProvePart())
+                    if (!isProvePart())
                         sb.append(";\n");
                     else
                         sb.append(" & ");
@@ -1351,6 +1346,14 @@ public class PrintAssertions extends ResolveConceptualVisitor {
 
     }
 
+    private boolean isProvePart() {
+        return myInstanceEnvironment.getAssertiveCodeContext().isProvePart();
+    }
+
+    private ConcType getCurrVar(PosSymbol name) {
+        return myInstanceEnvironment.getAssertiveCodeContext().getCurrVar(name);
+    }
+
     private void varSegmentsToString(List<VariableExp> segments) {
 
         if (segments != null) {
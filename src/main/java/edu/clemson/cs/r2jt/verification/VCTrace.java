@@ -0,0 +1,105 @@
+/**
+ * VCTrace.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.verification;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>A <code>VCTrace</code> carries the step-by-step account of the rules
+ * the {@link Verifier Verifier} applies--each rule's name followed by the
+ * assertive code it produced--to whatever sinks want it: the buffer behind
+ * the <code>verbose</code> output, a trace file, and so on.</p>
+ *
+ * <p>Printing assertive code is expensive, and a long procedure produces a
+ * trace whose size is quadratic in its length, so nothing is rendered unless
+ * at least one sink has been added.  Without any, every method returns at
+ * once.</p>
+ */
+public class VCTrace {
+
+    private final List<Appendable> mySinks = new ArrayList<Appendable>();
+
+    /**
+     * <p>Sends every subsequent step of the trace to <code>sink</code>.  If
+     * <code>sink</code> is <code>Closeable</code>, it will be closed along
+     * with this trace.</p>
+     */
+    public void addSink(Appendable sink) {
+        mySinks.add(sink);
+    }
+
+    /**
+     * <p>Returns whether anything is listening to this trace, and thus
+     * whether it's worth building any text to append to it.</p>
+     */
+    public boolean isEnabled() {
+        return !mySinks.isEmpty();
+    }
+
+    public VCTrace append(String text) {
+        if (!mySinks.isEmpty()) {
+            write(text);
+        }
+
+        return this;
+    }
+
+    /**
+     * <p>Appends the current state of <code>assertion</code>, which is only
+     * printed if something is listening.</p>
+     */
+    public VCTrace append(AssertiveCode assertion) {
+        if (!mySinks.isEmpty()) {
+            write(assertion.assertionToString());
+        }
+
+        return this;
+    }
+
+    /**
+     * <p>Closes every <code>Closeable</code> sink and stops tracing.</p>
+     */
+    public void close() {
+        for (Appendable sink : mySinks) {
+            if (sink instanceof Closeable) {
+                try {
+                    ((Closeable) sink).close();
+                }
+                catch (IOException ioe) {
+                    System.err.println("Error closing VC trace: "
+                            + ioe.getMessage());
+                }
+            }
+        }
+
+        mySinks.clear();
+    }
+
+    private void write(String text) {
+        Iterator<Appendable> sinks = mySinks.iterator();
+        while (sinks.hasNext()) {
+            try {
+                sinks.next().append(text);
+            }
+            catch (IOException ioe) {
+                System.err.println("Error writing VC trace: "
+                        + ioe.getMessage());
+                sinks.remove();
+            }
+        }
+    }
+}
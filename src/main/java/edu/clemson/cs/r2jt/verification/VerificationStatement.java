@@ -22,6 +22,11 @@ public class VerificationStatement implements Cloneable {
     private int type;
     private Object assertion;
 
+    /* The number of AssertiveCodes holding this statement, which is more than
+     * one once an AssertiveCode has been cloned, until all but one of them
+     * have taken their own copy. */
+    private int owners = 1;
+
     static final public int ASSUME = 1;
     static final public int CODE = 2;
     static final public int VARIABLE = 3;
@@ -134,6 +139,19 @@ public class VerificationStatement implements Cloneable {
         return assertion;
     }
 
+    void addOwner() {
+        owners++;
+    }
+
+    /**
+     * <p>Drops one of the holds on this statement, returning whether anything
+     * else still holds it.</p>
+     */
+    boolean removeOwner() {
+        owners--;
+        return owners > 0;
+    }
+
     /**
      * <p>I need a convenient way of printing out a full piece of assertive
      * code, but I'm hesitant to change toString() since, knowing this code
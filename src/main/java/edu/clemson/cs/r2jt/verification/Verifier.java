@@ -68,9 +68,13 @@ public class Verifier extends ResolveConceptualVisitor {
 
     private boolean isInInterface = false;
 
-    // This buffer holds the verbose data
+    // This buffer holds the verbose data, if it was asked for
     private StringBuffer VCBuffer;
 
+    // The rules applied, step by step, rendered only if the verbose data or a
+    // trace file was asked for
+    private final VCTrace myTrace = new VCTrace();
+
     // This buffer holds just the VCs
     private StringBuffer assrtBuf = new StringBuffer();
 
@@ -101,6 +105,9 @@ public class Verifier extends ResolveConceptualVisitor {
 
     private static final String FLAG_DESC_LISTVCS_VC = "";
 
+    private static final String FLAG_DESC_TRACE_VC =
+            "Write each step taken by the VC generator to a .trace file.";
+
     /**
      * <p></p>
      */
@@ -157,6 +164,14 @@ public class Verifier extends ResolveConceptualVisitor {
             new Flag(FLAG_SECTION_NAME, "listVCs", FLAG_DESC_LISTVCS_VC,
                     Flag.Type.HIDDEN);
 
+    /**
+     * <p>Tells the VC generator to write the rules it applies, and the
+     * assertive code each produces, to a trace file beside the VCs, without
+     * changing the VCs themselves.</p>
+     */
+    public static final Flag FLAG_TRACE_VC =
+            new Flag(FLAG_SECTION_NAME, "traceVCs", FLAG_DESC_TRACE_VC);
+
     final static List<DotExp> myRememberedExp = new List<DotExp>();
 
     private final MathSymbolTableBuilder myRealSymbolTable;
@@ -184,6 +199,7 @@ public class Verifier extends ResolveConceptualVisitor {
         FlagDependencies.addRequires(FLAG_ISABELLE_VC, FLAG_VERIFY_VC);
         FlagDependencies.addRequires(FLAG_SIMPLIFY_VC, FLAG_VERIFY_VC);
         FlagDependencies.addRequires(FLAG_LISTVCS_VC, FLAG_VERIFY_VC);
+        FlagDependencies.addRequires(FLAG_TRACE_VC, FLAG_VERIFY_VC);
         // --ny
         //FlagDependencies.addRequires(FLAG_PERF_VC, FLAG_VERIFY_VC);				
         FlagDependencies.addImplies(Verifier.FLAG_PERF_VC,
@@ -224,11 +240,26 @@ public class Verifier extends ResolveConceptualVisitor {
         	System.err.println("Something went wrong when creating output file");
         }*/
 
-        VCBuffer = new StringBuffer(buildHeaderComment());
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)) {
+            VCBuffer = new StringBuffer(buildHeaderComment());
+            myTrace.addSink(VCBuffer);
+        }
+
+        if (myInstanceEnvironment.flags.isFlagSet(FLAG_TRACE_VC)) {
+            String traceFileName = getTraceFileName();
+            try {
+                myTrace.addSink(new BufferedWriter(
+                        new FileWriter(traceFileName)));
+            }
+            catch (IOException ex) {
+                System.err.println("File I/O error when writing: "
+                        + traceFileName);
+            }
+        }
 
-        //Reset some static variables in AssertiveCode, in case the compiler
-        //has not been re-instantiated since the last Verification attempt.
-        AssertiveCode.resetVCNumbering();
+        //Reset the VC numbering, in case the compiler has not been
+        //re-instantiated since the last Verification attempt.
+        myInstanceEnvironment.getAssertiveCodeContext().resetVCNumbering();
 
     }
 
@@ -385,9 +416,9 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) assume.getAssertion() instanceof VarExp
                 && ((VarExp) assume.getAssertion()).getName().toString()
                         .equals(getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nAssume Rule Applied and Simplified: \n");
+            myTrace.append(assertion);
         }
         else {
             Exp conf = assertion.getFinalConfirm();
@@ -401,9 +432,9 @@ public class Verifier extends ResolveConceptualVisitor {
             newConf.setOpName(opName);
             newConf.setRight(conf);
             assertion.setFinalConfirm(newConf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nAssume Rule Applied: \n");
+            myTrace.append(assertion);
         }
     }
 
@@ -414,9 +445,9 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.addCode(i.next());
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nAux_Code Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nAux_Code Rule Applied: \n");
+        myTrace.append(assertion);
 
     }
 
@@ -453,9 +484,9 @@ public class Verifier extends ResolveConceptualVisitor {
             }
         }
         assertion.setFinalConfirm(finalConf);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nChange Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nChange Rule Applied: \n");
+        myTrace.append(assertion);
     }
 
     private void applyConfirmRule(VerificationStatement confirm,
@@ -463,9 +494,9 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) confirm.getAssertion() instanceof VarExp
                 && ((VarExp) confirm.getAssertion()).getName().toString()
                         .equals(getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nConfirm Rule Applied and Simplified: \n");
+            myTrace.append(assertion);
         }
         else {
 
@@ -481,9 +512,9 @@ public class Verifier extends ResolveConceptualVisitor {
             newConf.setRight(conf);
 
             assertion.setFinalConfirm(newConf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nConfirm Rule Applied: \n");
+            myTrace.append(assertion);
         }
 
     }
@@ -492,9 +523,9 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) stmt.getAssertion() instanceof VarExp
                 && ((VarExp) stmt.getAssertion()).getName().toString().equals(
                         getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nAssume Rule Applied and Simplified: \n");
+            myTrace.append(assertion);
         }
         else {
             Exp conf = assertion.getFinalConfirm();
@@ -512,9 +543,9 @@ public class Verifier extends ResolveConceptualVisitor {
             }
             else
                 assertion.setFinalConfirm(conf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nAssume Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nAssume Rule Applied: \n");
+            myTrace.append(assertion);
         }
     }
 
@@ -592,9 +623,9 @@ public class Verifier extends ResolveConceptualVisitor {
         }
         else {
             ensures = getTrueVarExp();
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nSpec not found \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nSpec not found \n");
+            myTrace.append(assertion);
 
             System.err.println("Error passed operation not found: "
                     + stmt.getName().asString(1, 1));
@@ -640,8 +671,8 @@ public class Verifier extends ResolveConceptualVisitor {
         /*List<ParameterVarDec> paramsRea = containsReassigns(opDec);
         if(!paramsRea.isEmpty()){   
         	if(!inSimpleForm(ensures, paramsRea)){
-            //	VCBuffer.append("\n_____________________ \n");
-            //	VCBuffer.append("\nInappropriate Use of Reassigns: \n");
+            //	myTrace.append("\n_____________________ \n");
+            //	myTrace.append("\nInappropriate Use of Reassigns: \n");
         	}
         	else {
         		
@@ -650,14 +681,14 @@ public class Verifier extends ResolveConceptualVisitor {
         			(CallStmt)stmt.clone(), paramsRea, assertion);
         
         	assertion.setFinalConfirm(simpleConf);   	
-        	VCBuffer.append("\n_____________________ \n");
-        	VCBuffer.append("\nSimple Operation Call Rule Applied: \n");
-        	VCBuffer.append(assertion.assertionToString());
+        	myTrace.append("\n_____________________ \n");
+        	myTrace.append("\nSimple Operation Call Rule Applied: \n");
+        	myTrace.append(assertion);
         	return;
         	}
         }*/
 
-        VCBuffer.append("\n");
+        myTrace.append("\n");
 
         /* General Call Rule */
 
@@ -710,9 +741,9 @@ public class Verifier extends ResolveConceptualVisitor {
         }
 
         assertion.setFinalConfirm(conf);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nOperation Call Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nOperation Call Rule Applied: \n");
+        myTrace.append(assertion);
 
     }
 
@@ -721,17 +752,17 @@ public class Verifier extends ResolveConceptualVisitor {
         if ((Exp) stmt.getAssertion() instanceof VarExp
                 && ((VarExp) stmt.getAssertion()).getName().toString().equals(
                         getTrueVarExp().getName().toString())) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nConfirm Rule Applied and Simplified: \n");
+            myTrace.append(assertion);
         }
         else if (assertion.getFinalConfirm() instanceof VarExp
                 && ((VarExp) assertion.getFinalConfirm()).getName().toString()
                         .equals(getTrueVarExp().getName().toString())) {
             assertion.setFinalConfirm(stmt.getAssertion());
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied and Simplified: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nConfirm Rule Applied and Simplified: \n");
+            myTrace.append(assertion);
         }
         else {
 
@@ -748,9 +779,9 @@ public class Verifier extends ResolveConceptualVisitor {
             newConf.setRight(conf);
 
             assertion.setFinalConfirm(newConf);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nConfirm Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nConfirm Rule Applied: \n");
+            myTrace.append(assertion);
         }
 
     }
@@ -846,9 +877,9 @@ public class Verifier extends ResolveConceptualVisitor {
         conf = Exp.replace(conf, var, replacement);
 
         assertion.setFinalConfirm(conf);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nFunction Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nFunction Rule Applied: \n");
+        myTrace.append(assertion);
     }
 
     /**
@@ -991,15 +1022,15 @@ public class Verifier extends ResolveConceptualVisitor {
 
         assertion.setFinalConfirm(conf);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nSwap Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nSwap Rule Applied: \n");
+        myTrace.append(assertion);
     }
 
     private void applyEBWhileRuleStmt(WhileStmt stmt, AssertiveCode assertion) {
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nWhile Statement Rule: \n");
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nWhile Statement Rule: \n");
 
         /* I want to re-arrange this to convert the while rule into an if statement as does the latest version of the rule */
         /* Part One */
@@ -1008,7 +1039,7 @@ public class Verifier extends ResolveConceptualVisitor {
         /* Part Two */
         applyPartTwoWhileRule(stmt, assertion);
 
-        VCBuffer.append("\n\tEnd While Rule \n");
+        myTrace.append("\n\tEnd While Rule \n");
 
     }
 
@@ -1016,8 +1047,10 @@ public class Verifier extends ResolveConceptualVisitor {
 
         /* If Part */
         AssertiveCode ifAssertion = (AssertiveCode) assertion.clone();
-        appendToLocation(ifAssertion.confirm, " , If \"if\" condition at "
+        Exp ifConfirm = ifAssertion.getFinalConfirm();
+        appendToLocation(ifConfirm, " , If \"if\" condition at "
                 + stmt.getTest().getLocation().toString() + " is true");
+        ifAssertion.setFinalConfirm(ifConfirm);
 
         Exp conf =
                 (Exp) Exp.clone(invk_cond((ProgramExp) Exp
@@ -1051,18 +1084,20 @@ public class Verifier extends ResolveConceptualVisitor {
             ifAssertion.addCode(i.next());
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nIf Part Rule Applied: \n");
-        VCBuffer.append(ifAssertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nIf Part Rule Applied: \n");
+        myTrace.append(ifAssertion);
 
         applyEBRules(ifAssertion);
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\nIf Part Rule Completed \n");
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\n\nIf Part Rule Completed \n");
 
         /* Negation of If Part */
         AssertiveCode negifAssertion = (AssertiveCode) (assertion.clone());
-        appendToLocation(negifAssertion.confirm, " , If \"if\" condition at "
+        Exp negifConfirm = negifAssertion.getFinalConfirm();
+        appendToLocation(negifConfirm, " , If \"if\" condition at "
                 + stmt.getTest().getLocation().toString() + " is false");
+        negifAssertion.setFinalConfirm(negifConfirm);
 
         Exp cond = invk_cond((ProgramExp) Exp.clone(stmt.getTest()), assertion);
         if (cond != null) {
@@ -1098,14 +1133,17 @@ public class Verifier extends ResolveConceptualVisitor {
             }
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nNegation of If Part Rule Applied: \n");
-        VCBuffer.append(negifAssertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nNegation of If Part Rule Applied: \n");
+        myTrace.append(negifAssertion);
 
+        //Nothing more is done with the original, so let the last branch
+        //take its statements rather than copying them
+        assertion.release();
         applyEBRules(negifAssertion);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\n\nNegation of If Part Rule Completed\n");
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\n\n\nNegation of If Part Rule Completed\n");
 
     }
 
@@ -1132,9 +1170,9 @@ public class Verifier extends ResolveConceptualVisitor {
         }
 
         assertion.setFinalConfirm(getTrueVarExp());
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nIterate Statement Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nIterate Statement Rule Applied: \n");
+        myTrace.append(assertion);
 
     }
 
@@ -1257,13 +1295,13 @@ public class Verifier extends ResolveConceptualVisitor {
             part_one.setFinalConfirm(conf);
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\tPart One: \n");
-        VCBuffer.append(part_one.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\n\tPart One: \n");
+        myTrace.append(part_one);
 
         applyEBRules(part_one);
 
-        VCBuffer.append("\n\n\n\tEnd Part One \n");
+        myTrace.append("\n\n\n\tEnd Part One \n");
 
     }
 
@@ -1345,19 +1383,22 @@ public class Verifier extends ResolveConceptualVisitor {
         }
         part_two.addAssume(negateExp);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\n\tPart Two: \n");
-        VCBuffer.append(part_two.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\n\tPart Two: \n");
+        myTrace.append(part_two);
 
+        //Nothing more is done with the original, so let the last branch
+        //take its statements rather than copying them
+        assertion.release();
         applyEBRules(part_two);
 
-        VCBuffer.append("\n\n\n\tEnd Part Two \n");
+        myTrace.append("\n\n\n\tEnd Part Two \n");
 
     }
 
     private void applyProofRulesToAssertiveCode(Statement stmt,
             AssertiveCode assertion) {
-        VCBuffer.append("\t\t");
+        myTrace.append("\t\t");
 
         if (stmt instanceof FuncAssignStmt) {
             applyEBFuncAssignStmtRule((FuncAssignStmt) stmt, assertion);
@@ -1404,7 +1445,7 @@ public class Verifier extends ResolveConceptualVisitor {
             }
         }
 
-        VCBuffer.append("\n");
+        myTrace.append("\n");
     }
 
     /*
@@ -1417,9 +1458,9 @@ public class Verifier extends ResolveConceptualVisitor {
 
         assertion.setFinalConfirm(conf);
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nRemember Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nRemember Rule Applied: \n");
+        myTrace.append(assertion);
     }
 
     private Exp applySimpleCallRule(Exp requires, Exp ensures,
@@ -1508,9 +1549,9 @@ public class Verifier extends ResolveConceptualVisitor {
         if (!simplified.toString(1).equals(
                 assertion.getFinalConfirm().toString(1))) {
             assertion.setFinalConfirm(simplified);
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("Assertion Simplified:" + "\n\n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("Assertion Simplified:" + "\n\n");
+            myTrace.append(assertion);
         }
     }
 
@@ -1566,7 +1607,7 @@ public class Verifier extends ResolveConceptualVisitor {
 
                             /* Check if we have an assertive code that involves this variable expression */
                             Iterator<VerificationStatement> it =
-                                    assertion.assertive_code.iterator();
+                                    assertion.getOwnStatements().iterator();
                             while (it.hasNext()) {
                                 VerificationStatement st = it.next();
 
@@ -1641,10 +1682,10 @@ public class Verifier extends ResolveConceptualVisitor {
                         else {
                             assertion.setFinalConfirm(tmp);
                         }
-                        VCBuffer.append("\n_____________________ \n");
-                        VCBuffer
+                        myTrace.append("\n_____________________ \n");
+                        myTrace
                                 .append("\nVariable Declaration Rule Applied: \n");
-                        VCBuffer.append(assertion.assertionToString());
+                        myTrace.append(assertion);
                         return;
                     }
                 }
@@ -1686,9 +1727,9 @@ public class Verifier extends ResolveConceptualVisitor {
                 }
             }
 
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nVariable Declaration Rule Applied: \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nVariable Declaration Rule Applied: \n");
+            myTrace.append(assertion);
         }
 
     }
@@ -1769,7 +1810,7 @@ public class Verifier extends ResolveConceptualVisitor {
     public void clearMainBuffer() {
         if (myInstanceEnvironment.flags.isFlagSet(FLAG_VERBOSE_VC)) {
             //env.flags.isFlagSet(FLAG_FINALVERB_VC) || env.flags.isFlagSet(FLAG_VERIFY_VC)){
-            VCBuffer = new StringBuffer();
+            VCBuffer.setLength(0);
         }
         else {
             assrtBuf = new StringBuffer();
@@ -2108,9 +2149,9 @@ public class Verifier extends ResolveConceptualVisitor {
         }
         else {
             ensures = getTrueVarExp();
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nSpec not found \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nSpec not found \n");
+            myTrace.append(assertion);
 
             System.err.println("Error passed Function operation not found: "
                     + exp.getName().asString(1, 1));
@@ -2439,19 +2480,20 @@ public class Verifier extends ResolveConceptualVisitor {
                     assertion.setFinalConfirm(ens2);
                     assertion.addAssume(ens1);
 
-                    VCBuffer.append("\n Facility Dec Name:\t");
-                    VCBuffer.append(dec.getName().getSymbol().toString());
-                    VCBuffer.append("\n");
+                    myTrace.append("\n Facility Dec Name:\t");
+                    myTrace.append(dec.getName().getSymbol().toString());
+                    myTrace.append("\n");
 
-                    VCBuffer.append("\n_____________________ \n");
-                    VCBuffer
-                            .append("\nFacility Declaration Rule Applied for Operation parameter (requires): "
-                                    + dec2.getName() + "\n\n");
-                    VCBuffer.append(assertion.assertionToString());
+                    myTrace.append("\n_____________________ \n");
+                    myTrace.append("\nFacility Declaration Rule Applied "
+                            + "for Operation parameter (requires): ");
+                    myTrace.append(dec2.getName().toString());
+                    myTrace.append("\n\n");
+                    myTrace.append(assertion);
 
                     /* Applies Proof Rules */
                     applyEBRules(assertion);
-                    VCBuffer.append("\n_____________________ \n\n");
+                    myTrace.append("\n_____________________ \n\n");
 
                 }
                 //else if(((OperationDec)dec2).getEnsures() != null)
@@ -2511,19 +2553,20 @@ public class Verifier extends ResolveConceptualVisitor {
                     assertion2.setFinalConfirm(ens1);
                     assertion2.addAssume(ens2);
 
-                    VCBuffer.append("\n Facility Dec Name:\t");
-                    VCBuffer.append(dec.getName().getSymbol().toString());
-                    VCBuffer.append("\n");
+                    myTrace.append("\n Facility Dec Name:\t");
+                    myTrace.append(dec.getName().getSymbol().toString());
+                    myTrace.append("\n");
 
-                    VCBuffer.append("\n_____________________ \n");
-                    VCBuffer
-                            .append("\nFacility Declaration Rule Applied for Operation parameter (ensures): "
-                                    + dec2.getName() + ": \n\n");
-                    VCBuffer.append(assertion2.assertionToString());
+                    myTrace.append("\n_____________________ \n");
+                    myTrace.append("\nFacility Declaration Rule Applied "
+                            + "for Operation parameter (ensures): ");
+                    myTrace.append(dec2.getName().toString());
+                    myTrace.append(": \n\n");
+                    myTrace.append(assertion2);
 
                     /* Applies Proof Rules */
                     applyEBRules(assertion2);
-                    VCBuffer.append("\n_____________________ \n\n");
+                    myTrace.append("\n_____________________ \n\n");
                 }
             }
 
@@ -4687,6 +4730,29 @@ public class Verifier extends ResolveConceptualVisitor {
         return getMainFile();
     }
 
+    /**
+     * <p>Returns the name of the file the <code>traceVCs</code> flag writes
+     * to: the main file, but with a <code>.trace</code> extension.</p>
+     */
+    private String getTraceFileName() {
+        String result = getMainFile();
+
+        int extension = result.lastIndexOf('.');
+        if (extension > result.lastIndexOf(File.separatorChar)) {
+            result = result.substring(0, extension);
+        }
+
+        return result + ".trace";
+    }
+
+    /**
+     * <p>Finishes writing the step-by-step trace, if one was asked for.  Must
+     * be called once this verifier is done.</p>
+     */
+    public void closeTrace() {
+        myTrace.close();
+    }
+
     private Exp getMathTest(ProgramExp test, WhileStmt stmt,
             AssertiveCode assertion) {
         return getCorAssignPartExp(stmt.getTest(), assertion);
@@ -4889,9 +4955,9 @@ public class Verifier extends ResolveConceptualVisitor {
         }
 
         if (opDec == null) {
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nSpec not found \n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nSpec not found \n");
+            myTrace.append(assertion);
 
             System.err.println("Error passed operation not found: "
                     + exp.getName().asString(1, 1));
@@ -6471,9 +6537,9 @@ public class Verifier extends ResolveConceptualVisitor {
                     else {
                         sVar = new VarExp();
                         ((VarExp) sVar).setName(stateVar.getName());
-                        VCBuffer.append(" WHY IS "
-                                + ((VarExp) sVar).getName().toString()
-                                + "not in the Free Variable List?");
+                        myTrace.append(" WHY IS ");
+                        myTrace.append(((VarExp) sVar).getName().toString());
+                        myTrace.append("not in the Free Variable List?");
 
                     }
 
@@ -7141,9 +7207,9 @@ public class Verifier extends ResolveConceptualVisitor {
         typeParms = getTypeParms(cid);
         concParms = getConcParms(cid);
 
-        VCBuffer.append("Concept Name: ");
-        VCBuffer.append(dec.getName().toString());
-        VCBuffer.append("\n");
+        myTrace.append("Concept Name: ");
+        myTrace.append(dec.getName().toString());
+        myTrace.append("\n");
 
         visitProcedures(dec.getDecs());
 
@@ -7188,9 +7254,9 @@ public class Verifier extends ResolveConceptualVisitor {
         EnhancementModuleDec eDec =
                 (EnhancementModuleDec) myInstanceEnvironment.getModuleDec(eid);
 
-        VCBuffer.append("Enhancement Name: ");
-        VCBuffer.append(eDec.getName().toString());
-        VCBuffer.append("\n");
+        myTrace.append("Enhancement Name: ");
+        myTrace.append(eDec.getName().toString());
+        myTrace.append("\n");
 
         List<UsesItem> list = eDec.getUsesItems();
         list.addAll(dec.getUsesItems());
@@ -7520,17 +7586,17 @@ public class Verifier extends ResolveConceptualVisitor {
                 }
             }
 
-            VCBuffer.append("\n Facility Dec Name:\t");
-            VCBuffer.append(dec.getName().getSymbol().toString());
-            VCBuffer.append("\n");
+            myTrace.append("\n Facility Dec Name:\t");
+            myTrace.append(dec.getName().getSymbol().toString());
+            myTrace.append("\n");
 
-            VCBuffer.append("\n_____________________ \n");
-            VCBuffer.append("\nFacility Declaration Rule Applied: \n\n");
-            VCBuffer.append(assertion.assertionToString());
+            myTrace.append("\n_____________________ \n");
+            myTrace.append("\nFacility Declaration Rule Applied: \n\n");
+            myTrace.append(assertion);
 
             /* Applies Proof Rules */
             applyEBRules(assertion);
-            VCBuffer.append("\n_____________________ \n\n");
+            myTrace.append("\n_____________________ \n\n");
 
         }
 
@@ -7831,17 +7897,17 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.setFinalConfirm(ensures);
         }
 
-        VCBuffer.append("\n Procedure Name:\t");
-        VCBuffer.append(dec.getName().getSymbol().toString());
-        VCBuffer.append("\n");
+        myTrace.append("\n Procedure Name:\t");
+        myTrace.append(dec.getName().getSymbol().toString());
+        myTrace.append("\n");
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nProcedure Declaration Rule Applied: \n\n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nProcedure Declaration Rule Applied: \n\n");
+        myTrace.append(assertion);
 
         /* Applies Proof Rules */
         applyEBRules(assertion);
-        VCBuffer.append("\n_____________________ \n\n");
+        myTrace.append("\n_____________________ \n\n");
         table.endProcedureScope();
         table.endOperationScope();
     }
@@ -8295,17 +8361,17 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.setFinalConfirm(ensures);
         }
 
-        VCBuffer.append("\n Procedure Name:\t");
-        VCBuffer.append(dec.getName().getSymbol().toString());
-        VCBuffer.append("\n");
+        myTrace.append("\n Procedure Name:\t");
+        myTrace.append(dec.getName().getSymbol().toString());
+        myTrace.append("\n");
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nProcedure Declaration Rule Applied: \n\n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nProcedure Declaration Rule Applied: \n\n");
+        myTrace.append(assertion);
 
         /* Applies Proof Rules */
         applyEBRules(assertion);
-        VCBuffer.append("\n_____________________ \n\n");
+        myTrace.append("\n_____________________ \n\n");
         table.endProcedureScope();
         table.endOperationScope();
     }
@@ -8525,9 +8591,9 @@ public class Verifier extends ResolveConceptualVisitor {
             assertion.addAssume(convention);
         }
 
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nCorrespondence Rule Applied: \n");
-        VCBuffer.append(assertion.assertionToString());
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nCorrespondence Rule Applied: \n");
+        myTrace.append(assertion);
         applyEBRules(assertion);
 
         AssertiveCode initializeAssert =
@@ -8621,14 +8687,14 @@ public class Verifier extends ResolveConceptualVisitor {
             initializeAssert.addAssume(corrForInit);
         }
 
-        VCBuffer.append("\n_____________________ \n\n");
-        VCBuffer.append("\n_____________________ \n");
-        VCBuffer.append("\nInitialization Rule Applied: \n");
-        VCBuffer.append(initializeAssert.assertionToString());
+        myTrace.append("\n_____________________ \n\n");
+        myTrace.append("\n_____________________ \n");
+        myTrace.append("\nInitialization Rule Applied: \n");
+        myTrace.append(initializeAssert);
         initializationRule = true;
         applyEBRules(initializeAssert);
         initializationRule = false;
-        VCBuffer.append("\n_____________________ \n");
+        myTrace.append("\n_____________________ \n");
 
     }
 
@@ -0,0 +1,260 @@
+/**
+ * CompileServerTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * <p>Runs compilations concurrently in one server, to check that each sees
+ * only its own flags and output, and generates the same VCs as it would
+ * alone.</p>
+ */
+public class CompileServerTest {
+
+    private static final int REQUESTS = 16;
+
+    @Rule
+    public TemporaryFolder myWorkspace = new TemporaryFolder();
+
+    private final List<CompileServer> myServers =
+            new ArrayList<CompileServer>();
+
+    /**
+     * <p>Stops every server's threads and puts <code>System.out</code> and
+     * <code>System.err</code> back, so the tests that follow print where they
+     * expect to.</p>
+     */
+    @After
+    public void tearDown() {
+        for (CompileServer server : myServers) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testConcurrentRequestsWithDifferentFlags() throws IOException {
+        File theories = createWorkspace();
+
+        StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.append(i).append('\t').append(theories.getPath());
+            if (i % 2 == 0) {
+                requests.append("\t-nodebug");
+            }
+            requests.append("\t-nostdimport\t-ccprove\tB_Theory.mt\n");
+        }
+
+        ByteArrayOutputStream responses = new ByteArrayOutputStream();
+        byte[] input = requests.toString().getBytes("UTF-8");
+        newServer(4).serve(new ByteArrayInputStream(input), responses);
+
+        Map<String, String> outputs = readResponses(responses);
+        assertEquals(REQUESTS, outputs.size());
+
+        for (int i = 0; i < REQUESTS; i++) {
+            String output = outputs.get("" + i);
+
+            assertNotNull(output);
+            assertEquals("Request " + i + ":\n" + output, i % 2 != 0, output
+                    .contains("Construct record: B_Theory"));
+            assertEquals("Request " + i + ":\n" + output, i % 2 != 0, output
+                    .contains("Complete record: A_Theory"));
+
+            //The prover consults -nodebug itself, rather than through the
+            //error handler, to decide whether to print its summary
+            assertEquals("Request " + i + ":\n" + output, i % 2 != 0, output
+                    .contains("Proved Reflexive"));
+        }
+    }
+
+    @Test
+    public void testConcurrentVCsMatchSerialVCs() throws IOException {
+        File facilities = createVCWorkspace();
+
+        Map<String, String> serialVCs = generateVCs(facilities, 1);
+        Map<String, String> concurrentVCs = generateVCs(facilities, 4);
+
+        assertEquals(REQUESTS, serialVCs.size());
+        for (String vcs : serialVCs.values()) {
+            assertTrue(vcs, vcs.contains("VC: 2_2:"));
+        }
+
+        assertEquals(serialVCs, concurrentVCs);
+    }
+
+    /**
+     * <p>Generates the VCs of each facility in <code>facilities</code> with a
+     * server compiling <code>threads</code> requests at once, returning the
+     * VCs of each, by name, without the header naming the time they were
+     * generated.</p>
+     */
+    private Map<String, String> generateVCs(File facilities, int threads)
+            throws IOException {
+
+        StringBuilder requests = new StringBuilder();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.append(i).append('\t').append(facilities.getPath())
+                    .append("\t-nostdimport\t-VCs\tFoo_Fac_" + i + ".fa\n");
+        }
+
+        byte[] input = requests.toString().getBytes("UTF-8");
+        newServer(threads).serve(new ByteArrayInputStream(input),
+                new ByteArrayOutputStream());
+
+        Map<String, String> result = new HashMap<String, String>();
+        for (int i = 0; i < REQUESTS; i++) {
+            File vcFile = new File(facilities, "Foo_Fac_" + i + ".asrt");
+
+            if (vcFile.exists()) {
+                StringBuilder vcs = new StringBuilder();
+                BufferedReader reader =
+                        new BufferedReader(new FileReader(vcFile));
+                try {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.startsWith("//")) {
+                            vcs.append(line).append('\n');
+                        }
+                    }
+                }
+                finally {
+                    reader.close();
+                }
+                vcFile.delete();
+
+                result.put(vcFile.getName(), vcs.toString());
+            }
+        }
+
+        return result;
+    }
+
+    private CompileServer newServer(int threads) {
+        CompileServer result = new CompileServer(threads);
+        myServers.add(result);
+
+        return result;
+    }
+
+    private static Map<String, String> readResponses(
+            ByteArrayOutputStream responses) throws IOException {
+
+        Map<String, String> result = new HashMap<String, String>();
+        BufferedReader reader =
+                new BufferedReader(
+                        new StringReader(responses.toString("UTF-8")));
+
+        String header;
+        while ((header = reader.readLine()) != null) {
+            String[] fields = header.split("\t");
+            int lineCount = Integer.parseInt(fields[1]);
+
+            StringBuilder output = new StringBuilder();
+            for (int i = 0; i < lineCount; i++) {
+                output.append(reader.readLine()).append('\n');
+            }
+
+            result.put(fields[0], output.toString());
+        }
+
+        return result;
+    }
+
+    private File createWorkspace() throws IOException {
+        File theories =
+                new File(myWorkspace.getRoot(), "RESOLVE" + File.separator
+                        + "Main" + File.separator + "Theories");
+        theories.mkdirs();
+
+        write(new File(theories, "A_Theory.mt"),
+                "Theory A_Theory;\nend A_Theory;\n");
+        write(new File(theories, "B_Theory.mt"),
+                "Theory B_Theory;\n    uses A_Theory;\n\n"
+                        + "    Theorem Reflexive:\n        For all p : B,\n"
+                        + "            p = p;\nend B_Theory;\n");
+
+        return theories;
+    }
+
+    /**
+     * <p>Creates a workspace of identical facilities, but for their names,
+     * each of whose procedures calls those before it, and returns the
+     * directory holding them.</p>
+     */
+    private File createVCWorkspace() throws IOException {
+        File main =
+                new File(myWorkspace.getRoot(), "RESOLVE" + File.separator
+                        + "Main");
+        File theories = new File(main, "Theories");
+        File concepts = new File(main, "Concepts");
+        File facilities = new File(main, "Facilities");
+        theories.mkdirs();
+        concepts.mkdirs();
+        facilities.mkdirs();
+
+        write(new File(theories, "A_Theory.mt"), "Theory A_Theory;\n"
+                + "    Definition Nice(p : B) : B;\nend A_Theory;\n");
+
+        //Every facility implicitly uses these
+        for (String concept : new String[] { "Static_Array_Template",
+                "Location_Linking_Template_1" }) {
+            write(new File(concepts, concept + ".co"), "Concept " + concept
+                    + ";\nend " + concept + ";\n");
+        }
+
+        for (int i = 0; i < REQUESTS; i++) {
+            String name = "Foo_Fac_" + i;
+            write(new File(facilities, name + ".fa"), "Facility " + name
+                    + ";\n    uses A_Theory;\n\n" + "    Operation First();\n"
+                    + "        requires Nice(false) and Nice(true);\n"
+                    + "        ensures Nice(true);\n"
+                    + "    Procedure\n    end First;\n\n"
+                    + "    Operation Second();\n"
+                    + "        requires Nice(true);\n"
+                    + "        ensures Nice(false);\n" + "    Procedure\n"
+                    + "        First();\n        First();\n"
+                    + "    end Second;\n\n" + "    Operation Third();\n"
+                    + "        ensures Nice(false) and Nice(true);\n"
+                    + "    Procedure\n        Second();\n        First();\n"
+                    + "    end Third;\nend " + name + ";\n");
+        }
+
+        return facilities;
+    }
+
+    private static void write(File file, String contents) throws IOException {
+        FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(contents);
+        }
+        finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * SubstitutionIndexTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.absyn;
+
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SubstitutionIndexTest {
+
+    private PrintStream myOriginalOut;
+
+    /**
+     * <p>Keys like <code>CharExp</code> don't implement
+     * <code>equivalent()</code>, so trying one prints the expression and
+     * throws.  Keep the printing out of the test output.</p>
+     */
+    @Before
+    public void setUp() {
+        myOriginalOut = System.out;
+        System.setOut(new PrintStream(new ByteArrayOutputStream()));
+    }
+
+    @After
+    public void tearDown() {
+        System.setOut(myOriginalOut);
+    }
+
+    @Test
+    public void testMatchesLinearScanWithInterleavedKeys() {
+        //Indexed and unindexed keys, with two keys equivalent to x
+        Map<Exp, Exp> substitutions = new LinkedHashMap<Exp, Exp>();
+        substitutions.put(var(null, "a"), var(null, "a'"));
+        substitutions.put(var(null, "x"), var(null, "x'"));
+        substitutions.put(new CharExp(null, 'c'), var(null, "c'"));
+        substitutions.put(var(null, "x"), var(null, "x''"));
+        substitutions.put(var("Q", "b"), var(null, "b'"));
+        substitutions.put(new CharExp(null, 'd'), var(null, "d'"));
+        substitutions.put(var(null, "b"), var(null, "b''"));
+
+        SubstitutionIndex index = SubstitutionIndex.index(substitutions);
+
+        Exp[] probes =
+                { var(null, "a"), var(null, "x"), var(null, "b"),
+                        var("Q", "b"), var(null, "y") };
+        for (Exp probe : probes) {
+            assertEquals(probe.toString(1), linearFind(substitutions, probe),
+                    indexFind(index, probe));
+        }
+    }
+
+    @Test
+    public void testUnindexedKeysAfterAMatchAreNotTried() {
+        Map<Exp, Exp> substitutions = new LinkedHashMap<Exp, Exp>();
+        substitutions.put(var(null, "a"), var(null, "a'"));
+        substitutions.put(var(null, "x"), var(null, "x'"));
+        substitutions.put(new CharExp(null, 'c'), var(null, "c'"));
+        substitutions.put(new CharExp(null, 'd'), var(null, "d'"));
+
+        Map.Entry<Exp, Exp> match =
+                SubstitutionIndex.index(substitutions)
+                        .findMatch(var(null, "x"));
+
+        assertEquals("x'", ((VarExp) match.getValue()).getName().getName());
+    }
+
+    /**
+     * <p>Returns the value of the first key <code>equivalent()</code> to
+     * <code>e</code>, trying each in turn as <code>Exp.substitute()</code>
+     * did before it was indexed, or the exception trying one threw.</p>
+     */
+    private static Object linearFind(Map<Exp, Exp> substitutions, Exp e) {
+        Object result = null;
+
+        try {
+            for (Map.Entry<Exp, Exp> entry : substitutions.entrySet()) {
+                if (entry.getKey().equivalent(e)) {
+                    result = entry.getValue();
+                    break;
+                }
+            }
+        }
+        catch (UnsupportedOperationException uoe) {
+            result = uoe.getClass();
+        }
+
+        return result;
+    }
+
+    private static Object indexFind(SubstitutionIndex index, Exp e) {
+        Object result = null;
+
+        try {
+            Map.Entry<Exp, Exp> match = index.findMatch(e);
+            if (match != null) {
+                result = match.getValue();
+            }
+        }
+        catch (UnsupportedOperationException uoe) {
+            result = uoe.getClass();
+        }
+
+        return result;
+    }
+
+    private static VarExp var(String qualifier, String name) {
+        return new VarExp(null, symbol(qualifier), symbol(name));
+    }
+
+    private static PosSymbol symbol(String name) {
+        return (name == null) ? null : new PosSymbol(null, Symbol.symbol(name));
+    }
+}
@@ -0,0 +1,162 @@
+/**
+ * DiscriminationTreeTransformerIndexTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving;
+
+import edu.clemson.cs.r2jt.proving.absyn.BindingException;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol;
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol.Quantification;
+import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DiscriminationTreeTransformerIndexTest {
+
+    private static final String[] CONSTANTS = { "a", "b", "f", "g" };
+    private static final String[] VARIABLES = { "x", "y", "h" };
+
+    private final TypeGraph myTypeGraph = new TypeGraph();
+
+    @Test
+    public void testKeepsOrderAndUnindexedTransformers() {
+        //f(x, b), g(h(a)), x, and f(a)
+        VCTransformer fxb =
+                step(symbol("f", forAll("x"), symbol("b")), symbol("b"));
+        VCTransformer gha =
+                step(symbol("g", forAll("h", symbol("a"))), symbol("a"));
+        VCTransformer x = step(forAll("x"), forAll("x"));
+        VCTransformer fa = step(symbol("f", symbol("a")), symbol("a"));
+        VCTransformer foreign = step(symbol("g", symbol("b")), symbol("b"));
+
+        DiscriminationTreeTransformerIndex index =
+                new DiscriminationTreeTransformerIndex(Arrays.asList(fxb, gha,
+                        x, fa));
+        assertEquals(3, index.size());
+
+        DiscriminationTreeTransformerIndex.Ordering ordering =
+                index.order(Arrays.asList(fa, foreign, x, gha, fxb));
+
+        //g(f(a, b)) --> a
+        VC vc =
+                new VC("0_1", new Antecedent(symbol("g", symbol("f",
+                        symbol("a"), symbol("b")))),
+                        new Consequent(symbol("a")));
+
+        assertEquals(Arrays.asList(foreign, x, gha, fxb), ordering
+                .getApplicableTo(vc));
+    }
+
+    /**
+     * <p>Every transformer whose pattern <code>bindTo()</code> would bind to
+     * some subexpression of a VC must be among those the index offers for
+     * it.</p>
+     */
+    @Test
+    public void testNeverMissesAnApplicableTransformer() {
+        Random random = new Random(0);
+
+        List<VCTransformer> library = new ArrayList<VCTransformer>();
+        List<PExp> patterns = new ArrayList<PExp>();
+        for (int i = 0; i < 200; i++) {
+            PExp pattern = randomExp(random, 3, true);
+            patterns.add(pattern);
+            library.add(step(pattern, symbol("a")));
+        }
+
+        DiscriminationTreeTransformerIndex.Ordering ordering =
+                new DiscriminationTreeTransformerIndex(library).order(library);
+
+        int applicable = 0;
+        for (int i = 0; i < 200; i++) {
+            VC vc =
+                    new VC("0_" + i,
+                            new Antecedent(randomExp(random, 3, false)),
+                            new Consequent(randomExp(random, 3, false)));
+            List<VCTransformer> offered = ordering.getApplicableTo(vc);
+
+            for (int j = 0; j < library.size(); j++) {
+                if (bindsWithin(patterns.get(j), vc)) {
+                    applicable++;
+                    assertTrue(patterns.get(j) + " applies to " + vc, offered
+                            .contains(library.get(j)));
+                }
+            }
+        }
+
+        //Make sure the test isn't vacuous
+        assertTrue(applicable > 100);
+    }
+
+    private static boolean bindsWithin(PExp pattern, VC vc) {
+        boolean result = false;
+
+        for (PExp e : vc.getAntecedent()) {
+            result |= bindsWithin(pattern, e);
+        }
+
+        for (PExp e : vc.getConsequent()) {
+            result |= bindsWithin(pattern, e);
+        }
+
+        return result;
+    }
+
+    private static boolean bindsWithin(PExp pattern, PExp e) {
+        boolean result = true;
+
+        try {
+            pattern.bindTo(e);
+        }
+        catch (BindingException be) {
+            result = false;
+        }
+
+        for (PExp subexpression : e.getSubExpressions()) {
+            result |= bindsWithin(pattern, subexpression);
+        }
+
+        return result;
+    }
+
+    private PExp randomExp(Random random, int depth, boolean pattern) {
+        boolean quantified = pattern && random.nextInt(4) == 0;
+        String[] names = quantified ? VARIABLES : CONSTANTS;
+        String name = names[random.nextInt(names.length)];
+
+        int arity = (depth == 0) ? 0 : random.nextInt(3);
+        List<PExp> arguments = new ArrayList<PExp>();
+        for (int i = 0; i < arity; i++) {
+            arguments.add(randomExp(random, depth - 1, pattern));
+        }
+
+        return new PSymbol(myTypeGraph.Z, null, name, arguments,
+                quantified ? Quantification.FOR_ALL : Quantification.NONE);
+    }
+
+    private static VCTransformer step(PExp pattern, PExp replacement) {
+        return new MatchReplaceStep(new NewBindReplace(pattern, replacement));
+    }
+
+    private PSymbol symbol(String name, PExp... arguments) {
+        return new PSymbol(myTypeGraph.Z, null, name, Arrays.asList(arguments));
+    }
+
+    private PSymbol forAll(String name, PExp... arguments) {
+        return new PSymbol(myTypeGraph.Z, null, name, Arrays.asList(arguments),
+                Quantification.FOR_ALL);
+    }
+}
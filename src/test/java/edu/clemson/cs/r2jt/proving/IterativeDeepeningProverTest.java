@@ -0,0 +1,360 @@
+/**
+ * IterativeDeepeningProverTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving;
+
+import edu.clemson.cs.r2jt.Main;
+import edu.clemson.cs.r2jt.absyn.QuantExp;
+import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.init.CompileEnvironment;
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import edu.clemson.cs.r2jt.utilities.FlagDependencyException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IterativeDeepeningProverTest {
+
+    private final TypeGraph myTypeGraph = new TypeGraph();
+
+    private IterativeDeepeningProver myProver;
+
+    /**
+     * <p>Neither reduction nor development takes a step, so nothing consults
+     * the environment.</p>
+     */
+    @Before
+    public void setUp() {
+        myProver =
+                new IterativeDeepeningProver(null, new NoSuggestions(),
+                        new NoDevelopment(), new NoSuggestions(), "");
+    }
+
+    @Test
+    public void testSameStructureIsPreparedOnce() {
+        VC vc = buildVC("0_1", "a Z b Z ( = 2 i B", "c Z d Z ( = 2 i B");
+        VC same = buildVC("0_1", "a Z b Z ( = 2 i B", "c Z d Z ( = 2 i B");
+
+        assertSame(myProver.prepare(vc), myProver.prepare(same));
+        assertEquals(1, myProver.getPreparedVCCount());
+
+        //A different name gets a renamed copy of the same preparation
+        VC renamed = buildVC("0_2", "a Z b Z ( = 2 i B", "c Z d Z ( = 2 i B");
+        assertNotSame(myProver.prepare(vc), myProver.prepare(renamed));
+        assertEquals(1, myProver.getPreparedVCCount());
+    }
+
+    @Test
+    public void testConjunctOrderMatters() {
+        VC vc =
+                buildVC("0_1", "a Z b Z ( = 2 i B", "c Z d Z ( = 2 i B",
+                        "e Z f Z ( = 2 i B");
+        VC reordered =
+                buildVC("0_1", "a Z b Z ( = 2 i B", "e Z f Z ( = 2 i B",
+                        "c Z d Z ( = 2 i B");
+
+        assertNotSame(myProver.prepare(vc), myProver.prepare(reordered));
+        assertEquals(2, myProver.getPreparedVCCount());
+    }
+
+    @Test
+    public void testPreparedVCsAreBounded() {
+        int count = IterativeDeepeningProver.MAX_PREPARED_VCS * 3;
+        for (int i = 0; i < count; i++) {
+            myProver.prepare(buildVC("0_1", "a Z b Z ( = 2 i B", "x" + i
+                    + " Z y Z ( = 2 i B"));
+        }
+
+        assertEquals(IterativeDeepeningProver.MAX_PREPARED_VCS, myProver
+                .getPreparedVCCount());
+    }
+
+    /**
+     * <p>Proves the same VCs with the prover and with the strategy it
+     * replaces--a separate search for each round, from the developed VC--and
+     * checks that the two find the same proofs, step for step.  The
+     * rewrites prove one VC in each round and leave one unproved.</p>
+     */
+    @Test
+    public void testResumedRoundsFindTheSameProofs()
+            throws FlagDependencyException {
+
+        Main.setUpFlagDependencies();
+        CompileEnvironment env = new CompileEnvironment(new String[0]);
+
+        RewriteChooser reduction = new RewriteChooser("Reduction");
+        reduction.addRewrite("p", "s0");
+
+        //Two paths of four steps, which share a VC at depth two, and a dead
+        //end and a cycle to search along the way
+        RewriteChooser main = new RewriteChooser("Main");
+        main.addRewrite("s0", "a1");
+        main.addRewrite("s0", "b1");
+        main.addRewrite("a1", "x2");
+        main.addRewrite("a1", "m2");
+        main.addRewrite("b1", "m2");
+        main.addRewrite("m2", "a1");
+        main.addRewrite("m2", "m3");
+        main.addRewrite("m3", "goal");
+        main.addRewrite("c0", "c1");
+        main.addRewrite("c1", "c2");
+        main.addRewrite("c2", "goal");
+        main.addRewrite("d0", "goal");
+        main.addRewrite("e0", "e1");
+        main.addRewrite("e1", "e2");
+        main.addRewrite("e2", "e3");
+        main.addRewrite("e3", "e4");
+        main.addRewrite("e4", "goal");
+
+        VCTransformer developer = new Unchanged();
+        String failoverNote = "Developed.";
+
+        IterativeDeepeningProver resuming =
+                new IterativeDeepeningProver(env, reduction, developer, main,
+                        failoverNote);
+        MultiStrategyProver separate = new MultiStrategyProver();
+        int[][] rounds = { { 0, 2 }, { 3, 3 }, { 4, 4 } };
+        for (int[] round : rounds) {
+            resuming.addRound(round[0], round[1]);
+
+            TransformationChooser window =
+                    new LengthWindowTransformationChooser(main, round[0],
+                            round[1]);
+            TransformationChooser developAndProve =
+                    new FirstStepGivenTransformationChooser(window, developer);
+            separate.addStrategy(new AlternativeProver(env,
+                    new FailoverChooser(reduction, developAndProve,
+                            failoverNote)));
+        }
+
+        //The last VC is the first again, under another name, so that it is
+        //proved from a remembered preparation
+        String[] starts = { "p", "c0", "d0", "e0", "p" };
+        for (int i = 0; i < starts.length; i++) {
+            VerificationCondition vc =
+                    new VerificationCondition(variable("goal"),
+                            variable(starts[i]), "0_" + (i + 1));
+
+            String expected = prove(separate, vc);
+            if (starts[i].equals("e0")) {
+                assertEquals("Unable to prove.", expected);
+            }
+            else {
+                assertTrue(expected.startsWith("==== Proof for VC 0_"));
+            }
+
+            assertEquals(expected, prove(resuming, vc));
+        }
+    }
+
+    /**
+     * <p>Returns the proof <code>prover</code> finds for <code>vc</code>, or a
+     * note saying why it found none.</p>
+     */
+    private static String prove(VCProver prover, VerificationCondition vc) {
+        String result;
+
+        try {
+            prover.prove(vc, null, null, 0);
+            result = "Finished without an outcome.";
+        }
+        catch (VCProvedException e) {
+            result = e.toString();
+        }
+        catch (UnableToProveException e) {
+            result = "Unable to prove.";
+        }
+        catch (VCInconsistentException e) {
+            result = "Inconsistent.";
+        }
+
+        return result;
+    }
+
+    private VarExp variable(String name) {
+        PosSymbol symbol = new PosSymbol(null, Symbol.symbol(name));
+        VarExp result = new VarExp(null, null, symbol, QuantExp.NONE);
+        result.setMathType(myTypeGraph.BOOLEAN);
+
+        return result;
+    }
+
+    private VC buildVC(String name, String goal, String... givens) {
+        List<PExp> antecedents = new ArrayList<PExp>();
+        for (String given : givens) {
+            antecedents.add(PExp.buildPExp(given, myTypeGraph));
+        }
+
+        return new VC(name, new Antecedent(antecedents), new Consequent(PExp
+                .buildPExp(goal, myTypeGraph)));
+    }
+
+    private static class NoSuggestions implements TransformationChooser {
+
+        public void preoptimizeForVC(VC vc) {}
+
+        public Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
+                int curLength, Metrics metrics, ProofData d) {
+            return Collections.<ProofPathSuggestion> emptyList().iterator();
+        }
+    }
+
+    private static class NoDevelopment implements VCTransformer {
+
+        public Iterator<VC> transform(VC original) {
+            return Collections.<VC> emptyList().iterator();
+        }
+
+        public Antecedent getPattern() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Consequent getReplacementTemplate() {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean introducesQuantifiedVariables() {
+            return false;
+        }
+    }
+
+    /**
+     * <p>Suggests, for a VC whose first consequent is a variable, a step
+     * rewriting it to each variable added for it, in the order added.</p>
+     */
+    private class RewriteChooser implements TransformationChooser {
+
+        private final String myName;
+        private final Map<String, List<VCTransformer>> myRewrites =
+                new HashMap<String, List<VCTransformer>>();
+
+        public RewriteChooser(String name) {
+            myName = name;
+        }
+
+        public void addRewrite(String from, String to) {
+            List<VCTransformer> rewrites = myRewrites.get(from);
+            if (rewrites == null) {
+                rewrites = new ArrayList<VCTransformer>();
+                myRewrites.put(from, rewrites);
+            }
+
+            rewrites.add(new Rewrite(PExp.buildPExp(variable(from)), PExp
+                    .buildPExp(variable(to))));
+        }
+
+        public void preoptimizeForVC(VC vc) {}
+
+        public Iterator<ProofPathSuggestion> suggestTransformations(VC vc,
+                int curLength, Metrics metrics, ProofData d) {
+
+            List<ProofPathSuggestion> result =
+                    new ArrayList<ProofPathSuggestion>();
+
+            Consequent consequent = vc.getConsequent();
+            if (consequent.size() > 0) {
+                List<VCTransformer> rewrites =
+                        myRewrites.get(consequent.get(0).toString());
+
+                if (rewrites != null) {
+                    for (VCTransformer rewrite : rewrites) {
+                        result.add(new ProofPathSuggestion(rewrite, d));
+                    }
+                }
+            }
+
+            return result.iterator();
+        }
+
+        @Override
+        public String toString() {
+            return myName;
+        }
+    }
+
+    /**
+     * <p>Replaces the first consequent of a VC, if it is the given variable,
+     * with another.</p>
+     */
+    private static class Rewrite implements VCTransformer {
+
+        private final PExp myFrom, myTo;
+
+        public Rewrite(PExp from, PExp to) {
+            myFrom = from;
+            myTo = to;
+        }
+
+        public Iterator<VC> transform(VC original) {
+            List<VC> result = new ArrayList<VC>();
+
+            Consequent consequent = original.getConsequent();
+            if (consequent.size() > 0 && consequent.get(0).equals(myFrom)) {
+                result.add(new VC(original.getSourceName(), original
+                        .getAntecedent(), new Consequent(consequent
+                        .overwritten(0, myTo))));
+            }
+
+            return result.iterator();
+        }
+
+        public Antecedent getPattern() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Consequent getReplacementTemplate() {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean introducesQuantifiedVariables() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return myFrom + " ~> " + myTo;
+        }
+    }
+
+    private static class Unchanged implements VCTransformer {
+
+        public Iterator<VC> transform(VC original) {
+            return Collections.singletonList(original).iterator();
+        }
+
+        public Antecedent getPattern() {
+            throw new UnsupportedOperationException();
+        }
+
+        public Consequent getReplacementTemplate() {
+            throw new UnsupportedOperationException();
+        }
+
+        public boolean introducesQuantifiedVariables() {
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return "no development";
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * MetricsTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @Test
+    public void testProofsConsideredArePublishedPeriodically() {
+        final List<Long> reported = new ArrayList<Long>();
+
+        Metrics metrics = new Metrics();
+        metrics.progressListener = new ProverListener() {
+
+            public void progressUpdate(double progress) {}
+
+            public void proofsConsidered(long count) {
+                reported.add(count);
+            }
+        };
+
+        int interval = Metrics.PUBLISH_INTERVAL;
+        for (int i = 0; i < interval * 2 + 1; i++) {
+            metrics.incrementProofsConsidered();
+        }
+
+        assertEquals(interval * 2 + 1, metrics.getNumProofsConsidered());
+        assertEquals(interval * 2, metrics.pollProofsConsidered());
+        assertEquals(Arrays.asList((long) interval, (long) interval * 2),
+                reported);
+
+        metrics.clear();
+        assertEquals(0, metrics.pollProofsConsidered());
+    }
+
+    @Test
+    public void testAccumulatePublishesTheTotal() {
+        Metrics total = new Metrics();
+        Metrics part = new Metrics();
+        for (int i = 0; i < 10; i++) {
+            part.incrementProofsConsidered();
+        }
+
+        total.accumulate(part);
+        total.accumulate(part);
+
+        assertEquals(20, total.pollProofsConsidered());
+    }
+}
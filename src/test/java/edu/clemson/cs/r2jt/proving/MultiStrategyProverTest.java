@@ -0,0 +1,137 @@
+/**
+ * MultiStrategyProverTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving;
+
+import edu.clemson.cs.r2jt.absyn.EqualsExp;
+import edu.clemson.cs.r2jt.absyn.Exp;
+import edu.clemson.cs.r2jt.absyn.QuantExp;
+import edu.clemson.cs.r2jt.absyn.VarExp;
+import edu.clemson.cs.r2jt.data.PosSymbol;
+import edu.clemson.cs.r2jt.data.Symbol;
+import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * <p>Races strategies built over the same theorems, as the legacy prover does,
+ * to check that no strategy sees the bindings made by another.</p>
+ */
+public class MultiStrategyProverTest {
+
+    private static final int ROUNDS = 100000;
+
+    private final TypeGraph myTypeGraph = new TypeGraph();
+
+    @Test
+    public void testRacedStrategiesKeepTheirOwnBindings()
+            throws ProverException {
+
+        //For all p : B, p = p
+        Exp p = variable("p", QuantExp.FORALL);
+        List<Exp> theorems = new ArrayList<Exp>();
+        theorems.add(new EqualsExp(null, p, EqualsExp.EQUAL, Exp.copy(p)));
+        List<String> names = Collections.singletonList("Reflexivity");
+
+        VerificationCondition vc =
+                new VerificationCondition(variable("a", QuantExp.NONE),
+                        variable("b", QuantExp.NONE), "0_1");
+
+        MultiStrategyProver prover = new MultiStrategyProver(true);
+        List<BindingChecker> strategies = new ArrayList<BindingChecker>();
+        for (String name : new String[] { "x", "y" }) {
+            BindingChecker strategy =
+                    new BindingChecker(Prover.buildOldProverChooser(names,
+                            theorems, vc), variable(name, QuantExp.NONE));
+            strategies.add(strategy);
+            prover.addStrategy(strategy);
+        }
+
+        try {
+            prover.prove(vc, null, null, 0);
+            fail("Expected neither strategy to prove the VC.");
+        }
+        catch (UnableToProveException e) {
+            //Expected
+        }
+
+        for (BindingChecker strategy : strategies) {
+            assertEquals(ROUNDS, strategy.myMatches);
+            assertEquals(0, strategy.myForeignReplacements);
+        }
+    }
+
+    private VarExp variable(String name, int quantification) {
+        VarExp result =
+                new VarExp(null, null,
+                        new PosSymbol(null, Symbol.symbol(name)),
+                        quantification);
+        result.setMathType(myTypeGraph.BOOLEAN);
+
+        return result;
+    }
+
+    /**
+     * <p>A strategy that repeatedly matches its chooser's rules against an
+     * expression of its own, counting any replacement built from some other
+     * expression.</p>
+     */
+    private static class BindingChecker implements VCProver {
+
+        private final RuleProvider myChooser;
+        private final VarExp myExpression;
+
+        private int myMatches;
+        private int myForeignReplacements;
+
+        public BindingChecker(RuleProvider chooser, VarExp expression) {
+            myChooser = chooser;
+            myExpression = expression;
+        }
+
+        public void prove(VerificationCondition vC,
+                ProverListener progressListener,
+                ActionCanceller actionCanceller, long timeoutAt)
+                throws UnableToProveException {
+
+            Metrics metrics = new Metrics();
+
+            for (int round = 0; round < ROUNDS; round++) {
+                Iterator<MatchReplace> rules =
+                        myChooser.consider(vC, 0, metrics, null);
+                MatchReplace rule = rules.next();
+
+                if (rule.couldReplace(myExpression)) {
+                    myMatches++;
+
+                    Exp replacement = rule.getReplacement();
+                    if (!(replacement instanceof VarExp)
+                            || !((VarExp) replacement).getName().getName()
+                                    .equals(myExpression.getName().getName())) {
+                        myForeignReplacements++;
+                    }
+                }
+            }
+
+            throw new UnableToProveException(metrics);
+        }
+
+        public BigInteger getProofCountOrder() {
+            return BigInteger.ONE;
+        }
+    }
+}
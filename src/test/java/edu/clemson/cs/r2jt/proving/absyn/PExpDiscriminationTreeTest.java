@@ -0,0 +1,201 @@
+/**
+ * PExpDiscriminationTreeTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving.absyn;
+
+import edu.clemson.cs.r2jt.proving.absyn.PSymbol.Quantification;
+import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class PExpDiscriminationTreeTest {
+
+    private static final String[] CONSTANTS = { "a", "b", "f", "g" };
+    private static final String[] VARIABLES = { "x", "y", "h" };
+
+    private final TypeGraph myTypeGraph = new TypeGraph();
+
+    @Test
+    public void testVariablesMatchAnything() {
+        PExpDiscriminationTree<String> tree =
+                new PExpDiscriminationTree<String>();
+        tree.add(forAll("x"), "x");
+        tree.add(symbol("f", forAll("x"), forAll("x")), "f(x, x)");
+        tree.add(symbol("f", forAll("h", symbol("a")), symbol("b")),
+                "f(h(a), b)");
+
+        assertFalse(PExpDiscriminationTree.discriminates(forAll("x")));
+        assertTrue(PExpDiscriminationTree.discriminates(symbol("f",
+                forAll("x"), forAll("x"))));
+
+        assertCandidates(tree, symbol("a"), "x");
+
+        //Repeated variables and the arity of h are left to bindTo()
+        assertCandidates(tree, symbol("f", symbol("a"), symbol("b")), "x",
+                "f(x, x)", "f(h(a), b)");
+        assertCandidates(tree, symbol("f", symbol("g", symbol("b")),
+                symbol("b")), "x", "f(x, x)", "f(h(a), b)");
+    }
+
+    @Test
+    public void testArityMismatchesAreNotCandidates() {
+        PExpDiscriminationTree<String> tree =
+                new PExpDiscriminationTree<String>();
+        tree.add(symbol("f", symbol("a")), "f(a)");
+        tree.add(symbol("f", symbol("a"), forAll("y")), "f(a, y)");
+        tree.add(symbol("f"), "f");
+
+        assertCandidates(tree, symbol("f"), "f");
+        assertCandidates(tree, symbol("f", symbol("a")), "f(a)");
+        assertCandidates(tree, symbol("f", symbol("a"),
+                symbol("g", symbol("b"))), "f(a, y)");
+    }
+
+    @Test
+    public void testExistentialSymbolsAreMatchedByName() {
+        PExpDiscriminationTree<String> tree =
+                new PExpDiscriminationTree<String>();
+        tree.add(new PSymbol(myTypeGraph.Z, null, "a",
+                Quantification.THERE_EXISTS), "a");
+
+        assertCandidates(tree, symbol("a"), "a");
+        assertCandidates(tree, symbol("b"));
+    }
+
+    /**
+     * <p>Every pattern that <code>bindTo()</code> would bind to some
+     * subexpression of a target must be among the candidates the tree
+     * retrieves for it.</p>
+     */
+    @Test
+    public void testNeverMissesABinding() {
+        Random random = new Random(0);
+
+        List<PExp> patterns = new ArrayList<PExp>();
+        PExpDiscriminationTree<PExp> tree = new PExpDiscriminationTree<PExp>();
+        for (int i = 0; i < 300; i++) {
+            PExp pattern = randomExp(random, 3, true);
+            patterns.add(pattern);
+            tree.add(pattern, pattern);
+        }
+
+        int bindings = 0;
+        for (int i = 0; i < 300; i++) {
+            PExp target = randomExp(random, 4, false);
+
+            Set<PExp> exactCandidates = new HashSet<PExp>();
+            tree.collectCandidates(target, exactCandidates);
+
+            Set<PExp> candidatesWithin = new HashSet<PExp>();
+            tree.collectCandidatesWithin(target, candidatesWithin);
+
+            for (PExp pattern : patterns) {
+                if (binds(pattern, target)) {
+                    bindings++;
+                    assertTrue(pattern + " binds to " + target, exactCandidates
+                            .contains(pattern));
+                }
+
+                for (PExp subexpression : subexpressions(target)) {
+                    if (binds(pattern, subexpression)) {
+                        assertTrue(pattern + " binds within " + target,
+                                candidatesWithin.contains(pattern));
+                    }
+                }
+            }
+        }
+
+        //Make sure the test isn't vacuous
+        assertTrue(bindings > 100);
+    }
+
+    private void assertCandidates(PExpDiscriminationTree<String> tree,
+            PExp target, String... expected) {
+
+        Set<String> candidates = new HashSet<String>();
+        tree.collectCandidates(target, candidates);
+
+        Set<String> expectedSet = new HashSet<String>();
+        for (String e : expected) {
+            expectedSet.add(e);
+        }
+
+        assertEquals(expectedSet, candidates);
+    }
+
+    private static boolean binds(PExp pattern, PExp target) {
+        boolean result = true;
+
+        try {
+            pattern.bindTo(target);
+        }
+        catch (BindingException be) {
+            result = false;
+        }
+
+        return result;
+    }
+
+    private static List<PExp> subexpressions(PExp e) {
+        List<PExp> result = new ArrayList<PExp>();
+        result.add(e);
+
+        for (PExp subexpression : e.getSubExpressions()) {
+            result.addAll(subexpressions(subexpression));
+        }
+
+        return result;
+    }
+
+    /**
+     * <p>Builds a random expression over a small vocabulary, so that names
+     * are often shared and arities often differ.  Patterns may also include
+     * universally quantified variables and functions.</p>
+     */
+    private PExp randomExp(Random random, int depth, boolean pattern) {
+        boolean quantified = pattern && random.nextInt(4) == 0;
+        String[] names = quantified ? VARIABLES : CONSTANTS;
+        String name = names[random.nextInt(names.length)];
+
+        int arity = (depth == 0) ? 0 : random.nextInt(3);
+        List<PExp> arguments = new ArrayList<PExp>();
+        for (int i = 0; i < arity; i++) {
+            arguments.add(randomExp(random, depth - 1, pattern));
+        }
+
+        return new PSymbol(myTypeGraph.Z, null, name, arguments,
+                quantified ? Quantification.FOR_ALL : Quantification.NONE);
+    }
+
+    private PSymbol symbol(String name, PExp... arguments) {
+        return new PSymbol(myTypeGraph.Z, null, name, list(arguments));
+    }
+
+    private PSymbol forAll(String name, PExp... arguments) {
+        return new PSymbol(myTypeGraph.Z, null, name, list(arguments),
+                Quantification.FOR_ALL);
+    }
+
+    private static List<PExp> list(PExp... arguments) {
+        List<PExp> result = new ArrayList<PExp>();
+        for (PExp argument : arguments) {
+            result.add(argument);
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * RelevanceFilterTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving2;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class RelevanceFilterTest {
+
+    private final TypeGraph myTypeGraph = new TypeGraph();
+
+    @Test
+    public void testGroundGoalKeepsEveryGiven() {
+        //a = b, b = c, d = e  -->  false
+        VC vc =
+                buildVC(new String[] { "a Z b Z ( = 2 i B",
+                        "b Z c Z ( = 2 i B", "d Z e Z ( = 2 i B" }, "false B");
+
+        VC filtered = new RelevanceFilter(1).filter(vc);
+
+        assertSame(vc, filtered);
+        assertTrue(filtered.getPrunedAntecedents().isEmpty());
+    }
+
+    @Test
+    public void testChainWithinDepthIsKept() {
+        //a = b, b = c, c = d  -->  d = e
+        VC vc =
+                buildVC(new String[] { "a Z b Z ( = 2 i B",
+                        "b Z c Z ( = 2 i B", "c Z d Z ( = 2 i B" },
+                        "d Z e Z ( = 2 i B");
+
+        assertSame(vc, new RelevanceFilter(3).filter(vc));
+
+        //At depth 2, a = b is three steps from the goal
+        VC filtered = new RelevanceFilter(2).filter(vc);
+        assertEquals(givens("b Z c Z ( = 2 i B", "c Z d Z ( = 2 i B"), filtered
+                .getAntecedent().getMutableCopy());
+        assertEquals(givens("a Z b Z ( = 2 i B"), filtered
+                .getPrunedAntecedents());
+    }
+
+    @Test
+    public void testUnrelatedGivenIsPruned() {
+        //a = b, x = y, true  -->  a = c
+        VC vc =
+                buildVC(new String[] { "a Z b Z ( = 2 i B",
+                        "x Z y Z ( = 2 i B", "true B" }, "a Z c Z ( = 2 i B");
+
+        VC filtered = new RelevanceFilter(5).filter(vc);
+
+        assertEquals(givens("a Z b Z ( = 2 i B", "true B"), filtered
+                .getAntecedent().getMutableCopy());
+        assertEquals(givens("x Z y Z ( = 2 i B"), filtered
+                .getPrunedAntecedents());
+        assertEquals(vc.getConsequent(), filtered.getConsequent());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDepthMustBePositive() {
+        new RelevanceFilter(0);
+    }
+
+    private VC buildVC(String[] givens, String goal) {
+        return new VC("0_1", new Antecedent(givens(givens)), new Consequent(
+                PExp.buildPExp(goal, myTypeGraph)));
+    }
+
+    private List<PExp> givens(String... descriptions) {
+        List<PExp> result = new ArrayList<PExp>();
+
+        for (String description : descriptions) {
+            result.add(PExp.buildPExp(description, myTypeGraph));
+        }
+
+        return result;
+    }
+}
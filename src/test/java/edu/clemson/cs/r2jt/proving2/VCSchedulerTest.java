@@ -0,0 +1,111 @@
+/**
+ * VCSchedulerTest.java
+ * ---------------------------------
+ * Copyright (c) 2014
+ * RESOLVE Software Research Group
+ * School of Computing
+ * Clemson University
+ * All rights reserved.
+ * ---------------------------------
+ * This file is subject to the terms and conditions defined in
+ * file 'LICENSE.txt', which is part of this source code package.
+ */
+package edu.clemson.cs.r2jt.proving2;
+
+import edu.clemson.cs.r2jt.proving.absyn.PExp;
+import edu.clemson.cs.r2jt.typereasoning.TypeGraph;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class VCSchedulerTest {
+
+    private final TypeGraph myTypeGraph = new TypeGraph();
+
+    @Test
+    public void testEasiestFirstWithProportionalSlices() {
+        //Hardest, easiest, middling
+        List<VC> vcs =
+                Arrays.asList(buildVC("0_1", "a Z b Z ( = 2 i B",
+                        "b Z c Z ( = 2 i B", "c Z d Z ( = 2 i B"), buildVC(
+                        "0_2", "true B"), buildVC("0_3", "a Z b Z ( = 2 i B"));
+
+        long[] difficulties = new long[vcs.size()];
+        long total = 0;
+        for (int i = 0; i < difficulties.length; i++) {
+            difficulties[i] = VCScheduler.estimateDifficulty(vcs.get(i));
+            total += difficulties[i];
+        }
+
+        VCScheduler scheduler = new VCScheduler(vcs, 6000, Long.MAX_VALUE);
+
+        assertEquals(1, scheduler.next());
+        long expected = (long) (6000 * ((double) difficulties[1] / total));
+        assertEquals(expected, scheduler.getSlice());
+        assertTrue(scheduler.hasSlice());
+
+        //Time left unused goes to those still to come
+        scheduler.finished(0);
+        total -= difficulties[1];
+        assertEquals(2, scheduler.next());
+        expected = (long) (6000 * ((double) difficulties[2] / total));
+        assertEquals(expected, scheduler.getSlice());
+
+        scheduler.finished(1000);
+        assertEquals(0, scheduler.next());
+        assertEquals(5000, scheduler.getSlice());
+        assertFalse(scheduler.hasNext());
+    }
+
+    @Test
+    public void testSliceIsCappedByMaximum() {
+        List<VC> vcs = Arrays.asList(buildVC("0_1", "true B"));
+
+        VCScheduler scheduler = new VCScheduler(vcs, 6000, 250);
+
+        scheduler.next();
+        assertEquals(250, scheduler.getSlice());
+    }
+
+    @Test
+    public void testSpentBudgetSkipsTheRest() {
+        List<VC> vcs =
+                Arrays.asList(buildVC("0_1", "a Z b Z ( = 2 i B"), buildVC(
+                        "0_2", "true B"), buildVC("0_3", "a Z b Z ( = 2 i B",
+                        "b Z c Z ( = 2 i B"));
+
+        VCScheduler scheduler = new VCScheduler(vcs, 100, Long.MAX_VALUE);
+
+        //The easiest VC overruns its slice and uses up the whole budget
+        String[] results = new String[vcs.size()];
+        while (scheduler.hasNext()) {
+            int i = scheduler.next();
+            assertNull(results[i]);
+
+            if (scheduler.hasSlice()) {
+                results[i] = "Proved " + vcs.get(i).getName();
+                scheduler.finished(100);
+            }
+            else {
+                assertEquals(0, scheduler.getSlice());
+                results[i] = "Skipped " + vcs.get(i).getName();
+            }
+        }
+
+        assertEquals(0, scheduler.getRemainingBudget());
+        assertEquals(Arrays.asList("Skipped 0_1", "Proved 0_2", "Skipped 0_3"),
+                Arrays.asList(results));
+    }
+
+    private VC buildVC(String name, String goal, String... givens) {
+        List<PExp> antecedents = new ArrayList<PExp>();
+        for (String given : givens) {
+            antecedents.add(PExp.buildPExp(given, myTypeGraph));
+        }
+
+        return new VC(name, new Antecedent(antecedents), new Consequent(PExp
+                .buildPExp(goal, myTypeGraph)));
+    }
+}